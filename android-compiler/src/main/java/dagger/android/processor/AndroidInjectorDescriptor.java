@@ -67,6 +67,9 @@ abstract class AndroidInjectorDescriptor {
   /** @see ContributesAndroidInjector#modules() */
   abstract ImmutableSet<ClassName> modules();
 
+  /** @see ContributesAndroidInjector#reusable() */
+  abstract boolean reusable();
+
   /** The {@link Module} that contains the {@link ContributesAndroidInjector} method. */
   abstract ClassName enclosingModule();
 
@@ -101,6 +104,8 @@ abstract class AndroidInjectorDescriptor {
 
     abstract Builder methodName(String methodName);
 
+    abstract Builder reusable(boolean reusable);
+
     abstract AndroidInjectorDescriptor build();
   }
 
@@ -168,7 +173,15 @@ abstract class AndroidInjectorDescriptor {
         }
       }
 
+      boolean reusable =
+          (Boolean) AnnotationMirrors.getAnnotationValue(annotation, "reusable").getValue();
+      builder.reusable(reusable);
+
       for (AnnotationMirror scope : AnnotationMirrors.getAnnotatedAnnotations(method, Scope.class)) {
+        if (reusable) {
+          reporter.reportError(
+              "@ContributesAndroidInjector(reusable = true) methods cannot have scopes", scope);
+        }
         builder.scopesBuilder().add(AnnotationSpec.get(scope));
       }
 
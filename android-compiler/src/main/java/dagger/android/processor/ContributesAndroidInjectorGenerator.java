@@ -157,7 +157,12 @@ final class ContributesAndroidInjectorGenerator implements ProcessingStep {
         .addAnnotation(Builder.class)
         .addModifiers(PUBLIC, ABSTRACT, STATIC)
         .addMethod(overrideBuildMethod(subcomponentName))
-        .superclass(parameterizedTypeName(AndroidInjector.Builder.class, descriptor.injectedType()))
+        .superclass(
+            parameterizedTypeName(
+                descriptor.reusable()
+                    ? AndroidInjector.ReusableBuilder.class
+                    : AndroidInjector.Builder.class,
+                descriptor.injectedType()))
         .build();
   }
 
@@ -81,4 +81,25 @@ public interface AndroidInjector<T> {
     /** Returns a newly-constructed {@link AndroidInjector}. */
     public abstract AndroidInjector<T> build();
   }
+
+  /**
+   * A {@link Factory} for injectors that hold no state that is specific to the instance they
+   * inject: the instance is not bound in their graph and they have no scoped bindings. {@link
+   * DispatchingAndroidInjector} builds one such injector per class and reuses it for every
+   * instance of that class.
+   *
+   * <p>Generated for {@link ContributesAndroidInjector#reusable() reusable} injectors.
+   *
+   * @param <T> the concrete type to be injected
+   */
+  @DoNotMock
+  abstract class ReusableBuilder<T> implements AndroidInjector.Factory<T> {
+    @Override
+    public final AndroidInjector<T> create(T instance) {
+      return build();
+    }
+
+    /** Returns a newly-constructed {@link AndroidInjector}. */
+    public abstract AndroidInjector<T> build();
+  }
 }
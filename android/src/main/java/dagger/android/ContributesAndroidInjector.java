@@ -35,4 +35,11 @@ import java.lang.annotation.Target;
 public @interface ContributesAndroidInjector {
   /** Modules to be installed in the generated {@link dagger.Subcomponent}. */
   Class<?>[] modules() default {};
+
+  /**
+   * If {@code true}, the generated {@link dagger.Subcomponent} does not bind the injected instance
+   * and its builder extends {@link AndroidInjector.ReusableBuilder}, so that a single injector is
+   * reused for every instance of the type. Reusable injectors cannot be scoped.
+   */
+  boolean reusable() default false;
 }
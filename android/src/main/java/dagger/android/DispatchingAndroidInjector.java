@@ -24,6 +24,7 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import dagger.internal.Beta;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.inject.Inject;
@@ -36,6 +37,9 @@ import javax.inject.Provider;
  * it extends another class which is already present in the map. Calls {@link Object#getClass()} on
  * the instance in order to find the appropriate {@link AndroidInjector.Factory}.
  *
+ * <p>Injectors created by an {@link AndroidInjector.ReusableBuilder} are kept and reused for later
+ * instances of the same class instead of creating a new injector for each instance.
+ *
  * @param <T> the core Android type to be injected
  */
 @Beta
@@ -49,10 +53,36 @@ public final class DispatchingAndroidInjector<T> implements AndroidInjector<T> {
   private final Map<Class<? extends T>, Provider<AndroidInjector.Factory<? extends T>>>
       injectorFactories;
 
+  /**
+   * The entries of {@link #injectorFactories}. Copied once into a {@link HashMap} so that each
+   * injection is a single hash probe, whatever map implementation was injected.
+   */
+  private final Map<Class<?>, InjectorEntry<T>> injectors;
+
   @Inject
   DispatchingAndroidInjector(
       Map<Class<? extends T>, Provider<AndroidInjector.Factory<? extends T>>> injectorFactories) {
     this.injectorFactories = injectorFactories;
+    this.injectors = new HashMap<Class<?>, InjectorEntry<T>>(injectorFactories.size());
+    for (Map.Entry<Class<? extends T>, Provider<AndroidInjector.Factory<? extends T>>> entry :
+        injectorFactories.entrySet()) {
+      injectors.put(entry.getKey(), new InjectorEntry<T>(entry.getValue()));
+    }
+  }
+
+  /** The injector factory bound for a class, and its injector once one can be reused. */
+  private static final class InjectorEntry<T> {
+    final Provider<AndroidInjector.Factory<? extends T>> factoryProvider;
+
+    /**
+     * The injector created by an {@link AndroidInjector.ReusableBuilder}, or {@code null}. Racing
+     * threads may each create one, but any of them can inject every instance.
+     */
+    volatile AndroidInjector<T> reusableInjector;
+
+    InjectorEntry(Provider<AndroidInjector.Factory<? extends T>> factoryProvider) {
+      this.factoryProvider = factoryProvider;
+    }
   }
 
   /**
@@ -64,14 +94,19 @@ public final class DispatchingAndroidInjector<T> implements AndroidInjector<T> {
    */
   @CanIgnoreReturnValue
   public boolean maybeInject(T instance) {
-    Provider<AndroidInjector.Factory<? extends T>> factoryProvider =
-        injectorFactories.get(instance.getClass());
-    if (factoryProvider == null) {
+    InjectorEntry<T> entry = injectors.get(instance.getClass());
+    if (entry == null) {
       return false;
     }
 
+    AndroidInjector<T> reusableInjector = entry.reusableInjector;
+    if (reusableInjector != null) {
+      reusableInjector.inject(instance);
+      return true;
+    }
+
     @SuppressWarnings("unchecked")
-    AndroidInjector.Factory<T> factory = (AndroidInjector.Factory<T>) factoryProvider.get();
+    AndroidInjector.Factory<T> factory = (AndroidInjector.Factory<T>) entry.factoryProvider.get();
     try {
       AndroidInjector<T> injector =
           checkNotNull(
@@ -80,6 +115,9 @@ public final class DispatchingAndroidInjector<T> implements AndroidInjector<T> {
               factory.getClass().getCanonicalName());
 
       injector.inject(instance);
+      if (factory instanceof AndroidInjector.ReusableBuilder) {
+        entry.reusableInjector = injector;
+      }
       return true;
     } catch (ClassCastException e) {
       throw new InvalidInjectorBindingException(
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks;
+
+import dagger.Component;
+import dagger.Module;
+import dagger.Provides;
+import dagger.multibindings.IntoSet;
+import java.util.Set;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+/**
+ * The component measured by {@link ComponentBenchmark}. Its graph is modeled on the {@code
+ * javatests/dagger/functional} fixtures: a diamond of unscoped bindings, a scoped binding, and a
+ * set multibinding.
+ */
+@Singleton
+@Component(modules = BenchmarkComponent.StringsModule.class)
+public interface BenchmarkComponent {
+  Root root();
+
+  Service service();
+
+  Set<String> strings();
+
+  @Component.Builder
+  interface Builder {
+    BenchmarkComponent build();
+  }
+
+  final class Leaf {
+    @Inject
+    Leaf() {}
+  }
+
+  final class Middle {
+    final Leaf left;
+    final Leaf right;
+
+    @Inject
+    Middle(Leaf left, Leaf right) {
+      this.left = left;
+      this.right = right;
+    }
+  }
+
+  final class Root {
+    final Middle middle;
+    final Provider<Leaf> leafProvider;
+
+    @Inject
+    Root(Middle middle, Provider<Leaf> leafProvider) {
+      this.middle = middle;
+      this.leafProvider = leafProvider;
+    }
+  }
+
+  @Singleton
+  final class Service {
+    final Middle middle;
+
+    @Inject
+    Service(Middle middle) {
+      this.middle = middle;
+    }
+  }
+
+  @Module
+  final class StringsModule {
+    @Provides
+    @IntoSet
+    static String a() {
+      return "a";
+    }
+
+    @Provides
+    @IntoSet
+    static String b() {
+      return "b";
+    }
+  }
+}
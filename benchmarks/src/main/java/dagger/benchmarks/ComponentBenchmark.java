@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.benchmarks.BenchmarkComponent.Root;
+import dagger.benchmarks.BenchmarkComponent.Service;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end measurements of the component that the compiler generates for {@link
+ * BenchmarkComponent}: constructing the component, the first request for a scoped binding, and
+ * steady-state requests for unscoped, scoped and multibound bindings.
+ *
+ * <p>The component is generated with the compiler options that this module is built with, so
+ * code generation modes are compared by building it once per mode. With Maven, pass {@code
+ * -Dbenchmarks.fastInit=enabled} and {@code -Dbenchmarks.lockFreeScopedProviders=enabled}; with
+ * Bazel, run the target for each mode in {@code benchmarks/BUILD}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ComponentBenchmark {
+
+  /** A component that is created once and then shared by all requests. */
+  @State(Scope.Thread)
+  public static class CreatedComponent {
+    BenchmarkComponent component;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      component = create();
+    }
+  }
+
+  /** A component that no request has been made on, recreated for every invocation. */
+  @State(Scope.Thread)
+  public static class FreshComponent {
+    BenchmarkComponent component;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+      component = create();
+    }
+  }
+
+  /**
+   * Creates the generated component. Its builder is created directly rather than through {@code
+   * DaggerBenchmarkComponent.builder(BenchmarkApplication)}, which needs an Android application.
+   */
+  private static BenchmarkComponent create() {
+    return new DaggerBenchmarkComponent.Builder().build();
+  }
+
+  @Benchmark
+  public BenchmarkComponent construction() {
+    return create();
+  }
+
+  @Benchmark
+  public Service firstGet(FreshComponent state) {
+    return state.component.service();
+  }
+
+  @Benchmark
+  public Root steadyState_unscoped(CreatedComponent state) {
+    return state.component.root();
+  }
+
+  @Benchmark
+  public Service steadyState_scoped(CreatedComponent state) {
+    return state.component.service();
+  }
+
+  @Benchmark
+  public Set<String> steadyState_multibinding(CreatedComponent state) {
+    return state.component.strings();
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.internal.DelegateFactory;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of the indirection that {@link DelegateFactory} adds to bindings that are part
+ * of a dependency cycle, compared to calling the delegate provider directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DelegateFactoryBenchmark {
+
+  @State(Scope.Thread)
+  public static class Providers {
+    Provider<Object> direct;
+    DelegateFactory<Object> delegateFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      direct =
+          new Provider<Object>() {
+            @Override
+            public Object get() {
+              return new Object();
+            }
+          };
+      delegateFactory = new DelegateFactory<>();
+      delegateFactory.setDelegatedProvider(direct);
+    }
+  }
+
+  @Benchmark
+  public Object direct(Providers providers) {
+    return providers.direct.get();
+  }
+
+  @Benchmark
+  public Object delegateFactory(Providers providers) {
+    return providers.delegateFactory.get();
+  }
+
+  @Benchmark
+  public DelegateFactory<Object> setDelegatedProvider(Providers providers) {
+    DelegateFactory<Object> delegateFactory = new DelegateFactory<>();
+    delegateFactory.setDelegatedProvider(providers.direct);
+    return delegateFactory;
+  }
+}
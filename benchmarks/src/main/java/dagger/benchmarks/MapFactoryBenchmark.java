@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.internal.MapFactory;
+import dagger.internal.MapProviderFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures map multibindings: building a {@link MapProviderFactory} when a component is
+ * initialized, requesting {@code Map<K, Provider<V>>} from it, and requesting {@code Map<K, V>}
+ * from a {@link MapFactory}, which calls every value provider on each request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MapFactoryBenchmark {
+
+  @State(Scope.Thread)
+  public static class Factories {
+    /** The number of entries in the map. */
+    @Param({"1", "10", "100"})
+    int size;
+
+    Provider<Integer>[] valueProviders;
+    MapProviderFactory<Integer, Integer> mapProviderFactory;
+    Provider<Map<Integer, Integer>> mapFactory;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({"unchecked", "rawtypes"}) // generic array creation
+    public void setUp() {
+      valueProviders = new Provider[size];
+      for (int i = 0; i < size; i++) {
+        final Integer value = i;
+        valueProviders[i] =
+            new Provider<Integer>() {
+              @Override
+              public Integer get() {
+                return value;
+              }
+            };
+      }
+      mapProviderFactory = buildMapProviderFactory(valueProviders);
+      mapFactory = MapFactory.create(mapProviderFactory);
+    }
+  }
+
+  @Benchmark
+  public MapProviderFactory<Integer, Integer> mapProviderFactory_build(Factories factories) {
+    return buildMapProviderFactory(factories.valueProviders);
+  }
+
+  @Benchmark
+  public Map<Integer, Provider<Integer>> mapProviderFactory_get(Factories factories) {
+    return factories.mapProviderFactory.get();
+  }
+
+  @Benchmark
+  public Map<Integer, Integer> mapFactory_get(Factories factories) {
+    return factories.mapFactory.get();
+  }
+
+  private static MapProviderFactory<Integer, Integer> buildMapProviderFactory(
+      Provider<Integer>[] valueProviders) {
+    MapProviderFactory.Builder<Integer, Integer> builder =
+        MapProviderFactory.builder(valueProviders.length);
+    for (int i = 0; i < valueProviders.length; i++) {
+      builder.put(i, valueProviders[i]);
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.MembersInjector;
+import dagger.internal.MembersInjectors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link MembersInjector} helpers that generated code uses: the no-op injector for
+ * types without {@code @Inject} members, an injector that {@linkplain
+ * MembersInjectors#delegatingTo delegates} to its supertype's injector, and {@link
+ * MembersInjectors#injectMembers}, which returns the instance for chaining.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MembersInjectorsBenchmark {
+
+  static class Base {
+    Object injected;
+  }
+
+  static final class Derived extends Base {}
+
+  /** A hand-written equivalent of the {@code MembersInjector} generated for {@link Base}. */
+  static final class BaseMembersInjector implements MembersInjector<Base> {
+    private final Object value = new Object();
+
+    @Override
+    public void injectMembers(Base instance) {
+      instance.injected = value;
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Injectors {
+    MembersInjector<Object> noOp;
+    MembersInjector<Base> base;
+    MembersInjector<Derived> delegating;
+    Derived instance;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      noOp = MembersInjectors.noOp();
+      base = new BaseMembersInjector();
+      delegating = MembersInjectors.delegatingTo(base);
+      instance = new Derived();
+    }
+  }
+
+  @Benchmark
+  public Object noOp(Injectors injectors) {
+    injectors.noOp.injectMembers(injectors.instance);
+    return injectors.instance;
+  }
+
+  @Benchmark
+  public Object direct(Injectors injectors) {
+    injectors.base.injectMembers(injectors.instance);
+    return injectors.instance;
+  }
+
+  @Benchmark
+  public Object delegatingTo(Injectors injectors) {
+    injectors.delegating.injectMembers(injectors.instance);
+    return injectors.instance;
+  }
+
+  @Benchmark
+  public Derived injectMembers(Injectors injectors) {
+    return MembersInjectors.injectMembers(injectors.delegating, injectors.instance);
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.internal.MapFactory;
+import dagger.internal.MapProviderFactory;
+import dagger.internal.SetFactory;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares iterating and querying the sets and maps returned by {@link SetFactory} and {@link
+ * MapFactory} with the unmodifiable {@link HashSet} and {@link LinkedHashMap} they used to return.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MultibindingCollectionsBenchmark {
+
+  /** The collection implementations under comparison. */
+  public enum Implementation {
+    DAGGER,
+    JDK,
+  }
+
+  @State(Scope.Thread)
+  public static class Multibindings {
+    @Param Implementation implementation;
+
+    @Param({"4", "16", "64"})
+    int size;
+
+    Set<Integer> set;
+    Map<Integer, Integer> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      SetFactory.Builder<Integer> setBuilder = SetFactory.builder(size, 0);
+      MapProviderFactory.Builder<Integer, Integer> mapBuilder = MapProviderFactory.builder(size);
+      for (int i = 0; i < size; i++) {
+        Provider<Integer> provider = constant(i);
+        setBuilder.addProvider(provider);
+        mapBuilder.put(i, provider);
+      }
+      set = setBuilder.build().get();
+      map = MapFactory.create(mapBuilder.build()).get();
+      if (implementation == Implementation.JDK) {
+        set = Collections.unmodifiableSet(new HashSet<>(set));
+        map = Collections.unmodifiableMap(new LinkedHashMap<>(map));
+      }
+    }
+  }
+
+  @Benchmark
+  public int set_iterate(Multibindings multibindings) {
+    int sum = 0;
+    for (Integer element : multibindings.set) {
+      sum += element;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public boolean set_contains(Multibindings multibindings) {
+    return multibindings.set.contains(multibindings.size / 2);
+  }
+
+  @Benchmark
+  public int map_iterate(Multibindings multibindings) {
+    int sum = 0;
+    for (Map.Entry<Integer, Integer> entry : multibindings.map.entrySet()) {
+      sum += entry.getValue();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public Integer map_get(Multibindings multibindings) {
+    return multibindings.map.get(multibindings.size / 2);
+  }
+
+  private static Provider<Integer> constant(final Integer value) {
+    return new Provider<Integer>() {
+      @Override
+      public Integer get() {
+        return value;
+      }
+    };
+  }
+}
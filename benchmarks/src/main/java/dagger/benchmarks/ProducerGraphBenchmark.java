@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Producer;
+import dagger.producers.internal.AbstractProducer;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the end-to-end latency of a production component request through a graph of trivial
+ * producer methods, with every method scheduled on the production executor and with every method
+ * marked {@link dagger.producers.Cheap @Cheap}.
+ *
+ * <p>Node {@code i} of the graph depends on nodes {@code i - 1} and {@code i - 2}, which mirrors a
+ * deep chain of small transforms. Each node is a hand-written copy of the factory that the compiler
+ * generates for a two-argument {@code @Produces} method; the two modes differ only in the body of
+ * {@code execute}, as the generated factories do. A fresh graph is built for every request because
+ * producers memoize their futures for the lifetime of a component.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProducerGraphBenchmark {
+
+  /** How the generated factories schedule their producer methods. */
+  public enum Scheduling {
+    /** The default: every method is submitted to the production executor. */
+    EXECUTOR,
+    /** Every method is {@code @Cheap} and runs on the thread that completed its inputs. */
+    CHEAP,
+  }
+
+  @Param({"200"})
+  int nodeCount;
+
+  @Param Scheduling scheduling;
+
+  @Param({"4"})
+  int executorThreads;
+
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(executorThreads);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public Integer request() throws InterruptedException, ExecutionException {
+    Producer<Integer> previous = new ConstantProducer(1);
+    Producer<Integer> current = new ConstantProducer(1);
+    for (int i = 2; i < nodeCount; i++) {
+      Producer<Integer> next = new SumProducer(executor, scheduling, current, previous);
+      previous = current;
+      current = next;
+    }
+    return current.get().get();
+  }
+
+  /** A producer with no inputs, like a {@code @Provides} dependency of the graph. */
+  private static final class ConstantProducer extends AbstractProducer<Integer> {
+    private final ListenableFuture<Integer> value;
+
+    ConstantProducer(int value) {
+      this.value = Futures.immediateFuture(value);
+    }
+
+    @Override
+    protected ListenableFuture<Integer> compute() {
+      return value;
+    }
+  }
+
+  /** Mirrors the factory generated for {@code @Produces static int sum(int a, int b)}. */
+  private static final class SumProducer extends AbstractProducer<Integer>
+      implements AsyncFunction<List<Object>, Integer>, Executor {
+    private final Executor executor;
+    private final Scheduling scheduling;
+    private final Producer<Integer> aProducer;
+    private final Producer<Integer> bProducer;
+
+    SumProducer(
+        Executor executor,
+        Scheduling scheduling,
+        Producer<Integer> aProducer,
+        Producer<Integer> bProducer) {
+      this.executor = executor;
+      this.scheduling = scheduling;
+      this.aProducer = aProducer;
+      this.bProducer = bProducer;
+    }
+
+    @Override
+    protected ListenableFuture<Integer> compute() {
+      ListenableFuture<Integer> aFuture = aProducer.get();
+      ListenableFuture<Integer> bFuture = bProducer.get();
+      return Futures.transformAsync(Futures.<Object>allAsList(aFuture, bFuture), this, this);
+    }
+
+    @Override
+    public ListenableFuture<Integer> apply(List<Object> args) {
+      monitor.methodStarting();
+      try {
+        return Futures.immediateFuture((Integer) args.get(0) + (Integer) args.get(1));
+      } finally {
+        monitor.methodFinished();
+      }
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+      monitor.ready();
+      if (scheduling == Scheduling.CHEAP) {
+        runnable.run();
+      } else {
+        executor.execute(runnable);
+      }
+    }
+  }
+}
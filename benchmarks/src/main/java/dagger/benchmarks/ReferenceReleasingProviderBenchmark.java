@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.internal.ReferenceReleasingProvider;
+import dagger.internal.ReferenceReleasingProviderManager;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import javax.inject.Scope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ReferenceReleasingProvider#get()} in its strong-reference and weak-reference
+ * states, and the cost of a {@link ReferenceReleasingProviderManager} releasing and restoring the
+ * references of all of its providers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ReferenceReleasingProviderBenchmark {
+
+  @Documented
+  @Retention(RetentionPolicy.RUNTIME)
+  @Scope
+  @interface BenchmarkScope {}
+
+  private static final int PROVIDERS_PER_MANAGER = 100;
+
+  private static final Provider<Object> NEW_OBJECT =
+      new Provider<Object>() {
+        @Override
+        public Object get() {
+          return new Object();
+        }
+      };
+
+  @State(org.openjdk.jmh.annotations.Scope.Thread)
+  public static class Providers {
+    ReferenceReleasingProviderManager manager;
+    ReferenceReleasingProvider<Object> strong;
+    ReferenceReleasingProvider<Object> weak;
+    /** Keeps the value of {@link #weak} reachable so that it is not cleared during measurement. */
+    Object weakValue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      manager = new ReferenceReleasingProviderManager(BenchmarkScope.class);
+      for (int i = 0; i < PROVIDERS_PER_MANAGER; i++) {
+        ReferenceReleasingProvider.create(NEW_OBJECT, manager).get();
+      }
+
+      ReferenceReleasingProviderManager unmanaged =
+          new ReferenceReleasingProviderManager(BenchmarkScope.class);
+      strong = ReferenceReleasingProvider.create(NEW_OBJECT, unmanaged);
+      strong.get();
+      weak = ReferenceReleasingProvider.create(NEW_OBJECT, unmanaged);
+      weakValue = weak.get();
+      weak.releaseStrongReference();
+    }
+  }
+
+  @Benchmark
+  public Object get_strongReference(Providers providers) {
+    return providers.strong.get();
+  }
+
+  @Benchmark
+  public Object get_weakReference(Providers providers) {
+    return providers.weak.get();
+  }
+
+  @Benchmark
+  public void releaseAndRestoreStrongReferences(Providers providers) {
+    providers.manager.releaseStrongReferences();
+    providers.manager.restoreStrongReferences();
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.internal.DoubleCheck;
+import dagger.internal.LockFreeCheck;
+import dagger.internal.SingleCheck;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the scoped provider implementations that generated components can use: {@link
+ * DoubleCheck}, {@link SingleCheck} and {@link LockFreeCheck}.
+ *
+ * <p>The {@code steadyState} benchmarks measure {@code get()} on an already initialized provider,
+ * which is what a {@code @Singleton} on a hot request path sees, both on one thread and on 64
+ * threads sharing the same provider. {@code firstGet} measures the initializing call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ScopedProviderBenchmark {
+
+  /** The scoped provider implementations under comparison. */
+  public enum ScopedProviderKind {
+    DOUBLE_CHECK {
+      @Override
+      <T> Provider<T> wrap(Provider<T> delegate) {
+        return DoubleCheck.provider(delegate);
+      }
+    },
+    SINGLE_CHECK {
+      @Override
+      <T> Provider<T> wrap(Provider<T> delegate) {
+        return SingleCheck.provider(delegate);
+      }
+    },
+    LOCK_FREE_CHECK {
+      @Override
+      <T> Provider<T> wrap(Provider<T> delegate) {
+        return LockFreeCheck.provider(delegate);
+      }
+    },
+    ;
+
+    abstract <T> Provider<T> wrap(Provider<T> delegate);
+  }
+
+  private static final Provider<Object> NEW_OBJECT =
+      new Provider<Object>() {
+        @Override
+        public Object get() {
+          return new Object();
+        }
+      };
+
+  /** A provider shared by all benchmark threads, initialized before measurement. */
+  @State(Scope.Benchmark)
+  public static class InitializedProvider {
+    @Param ScopedProviderKind kind;
+    Provider<Object> provider;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      provider = kind.wrap(NEW_OBJECT);
+      provider.get();
+    }
+  }
+
+  /** A provider that has never been called, recreated for every invocation. */
+  @State(Scope.Thread)
+  public static class UninitializedProvider {
+    @Param ScopedProviderKind kind;
+    Provider<Object> provider;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+      provider = kind.wrap(NEW_OBJECT);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Object steadyState_singleThread(InitializedProvider state) {
+    return state.provider.get();
+  }
+
+  @Benchmark
+  @Threads(64)
+  public Object steadyState_64Threads(InitializedProvider state) {
+    return state.provider.get();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Object firstGet(UninitializedProvider state) {
+    return state.provider.get();
+  }
+}
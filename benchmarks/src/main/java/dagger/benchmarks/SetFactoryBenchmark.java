@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.internal.SetFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link SetFactory#get()}, which builds a new {@link Set} on every call, for a set
+ * multibinding contributed by {@code @IntoSet} methods, by {@code @ElementsIntoSet} methods, or by
+ * a mix of both, and for a {@linkplain SetFactory.Builder#buildMemoized() memoized} factory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SetFactoryBenchmark {
+
+  @State(Scope.Thread)
+  public static class Factories {
+    /** The number of elements in the resulting set. */
+    @Param({"1", "10", "100"})
+    int size;
+
+    SetFactory<Integer> individual;
+    SetFactory<Integer> collections;
+    SetFactory<Integer> mixed;
+    SetFactory<Integer> memoized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      SetFactory.Builder<Integer> individualBuilder = SetFactory.builder(size, 0);
+      for (int i = 0; i < size; i++) {
+        individualBuilder.addProvider(constant(i));
+      }
+      individual = individualBuilder.build();
+
+      int halfSize = size / 2;
+      collections =
+          SetFactory.<Integer>builder(0, 2)
+              .addCollectionProvider(constant(range(0, halfSize)))
+              .addCollectionProvider(constant(range(halfSize, size)))
+              .build();
+
+      SetFactory.Builder<Integer> mixedBuilder = SetFactory.builder(halfSize, 1);
+      for (int i = 0; i < halfSize; i++) {
+        mixedBuilder.addProvider(constant(i));
+      }
+      mixed = mixedBuilder.addCollectionProvider(constant(range(halfSize, size))).build();
+
+      SetFactory.Builder<Integer> memoizedBuilder = SetFactory.builder(size, 0);
+      for (int i = 0; i < size; i++) {
+        memoizedBuilder.addProvider(constant(i));
+      }
+      memoized = memoizedBuilder.buildMemoized();
+    }
+  }
+
+  @Benchmark
+  public Set<Integer> individualProviders(Factories factories) {
+    return factories.individual.get();
+  }
+
+  @Benchmark
+  public Set<Integer> collectionProviders(Factories factories) {
+    return factories.collections.get();
+  }
+
+  @Benchmark
+  public Set<Integer> mixedProviders(Factories factories) {
+    return factories.mixed.get();
+  }
+
+  @Benchmark
+  public Set<Integer> memoized(Factories factories) {
+    return factories.memoized.get();
+  }
+
+  private static Collection<Integer> range(int start, int end) {
+    List<Integer> range = new ArrayList<>(end - start);
+    for (int i = start; i < end; i++) {
+      range.add(i);
+    }
+    return range;
+  }
+
+  private static <T> Provider<T> constant(final T value) {
+    return new Provider<T>() {
+      @Override
+      public T get() {
+        return value;
+      }
+    };
+  }
+}
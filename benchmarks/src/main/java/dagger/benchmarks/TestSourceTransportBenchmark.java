@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import dagger.internal.testsources.TestSources;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+/**
+ * Compares the ways debug builds can ship generated test sources from the application compilation
+ * to the test compilation: Base64 chunks in {@code @Trigger} annotations of {@code
+ * dagger.TestTrigger}, and the single deflate-compressed resource written by {@code
+ * dagger.internal.codegen.TestRegistry}.
+ *
+ * <p>{@code encode} is the work done by the compiler, {@code decode} the work done by {@code
+ * dagger.decoder.DecodingProcessor}. The annotation format is mirrored byte for byte, and the
+ * resource is written and read by {@link TestSources} itself. The {@code classOutputBytes} counter
+ * reports the size of the payload that ends up in the class output.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TestSourceTransportBenchmark {
+
+  /** The transports under comparison. */
+  public enum Transport {
+    BASE64_ANNOTATION {
+      private static final int CHUNK_SIZE = 65000;
+
+      @Override
+      Object encode(List<Source> sources) {
+        List<String[]> triggers = new ArrayList<>(sources.size());
+        for (Source source : sources) {
+          String encoded = Base64.getEncoder().encodeToString(source.bytes);
+          String[] parts = new String[(encoded.length() + CHUNK_SIZE - 1) / CHUNK_SIZE];
+          for (int i = 0; i < parts.length; i++) {
+            parts[i] =
+                encoded.substring(i * CHUNK_SIZE, Math.min(encoded.length(), (i + 1) * CHUNK_SIZE));
+          }
+          triggers.add(parts);
+        }
+        return triggers;
+      }
+
+      @Override
+      int size(Object encoded) {
+        int size = 0;
+        for (String[] parts : asTriggers(encoded)) {
+          for (String part : parts) {
+            // Every chunk is a CONSTANT_Utf8 entry: a tag, a two byte length and the characters.
+            size += 3 + part.length();
+          }
+        }
+        return size;
+      }
+
+      @Override
+      long decode(Object encoded) {
+        long checksum = 0;
+        for (String[] parts : asTriggers(encoded)) {
+          StringBuilder sb = new StringBuilder();
+          for (String part : parts) {
+            sb.append(part);
+          }
+          checksum += Base64.getDecoder().decode(sb.toString()).length;
+        }
+        return checksum;
+      }
+
+      @SuppressWarnings("unchecked")
+      private List<String[]> asTriggers(Object encoded) {
+        return (List<String[]>) encoded;
+      }
+    },
+    DEFLATE_RESOURCE {
+      @Override
+      Object encode(List<Source> sources) throws IOException {
+        Map<String, byte[]> sourcesByName = new LinkedHashMap<>();
+        for (Source source : sources) {
+          sourcesByName.put(source.qualifiedName, source.bytes);
+        }
+        ByteArrayOutputStream resource = new ByteArrayOutputStream();
+        TestSources.write(sourcesByName, resource);
+        return resource.toByteArray();
+      }
+
+      @Override
+      int size(Object encoded) {
+        return ((byte[]) encoded).length;
+      }
+
+      @Override
+      long decode(Object encoded) throws IOException {
+        final long[] checksum = new long[1];
+        TestSources.read(
+            new ByteArrayInputStream((byte[]) encoded),
+            qualifiedName ->
+                new OutputStream() {
+                  @Override
+                  public void write(int b) {
+                    checksum[0]++;
+                  }
+
+                  @Override
+                  public void write(byte[] b, int off, int len) {
+                    checksum[0] += len;
+                  }
+                });
+        return checksum[0];
+      }
+    },
+    ;
+
+    abstract Object encode(List<Source> sources) throws IOException;
+
+    /** Returns the number of bytes the encoded sources add to the class output. */
+    abstract int size(Object encoded);
+
+    abstract long decode(Object encoded) throws IOException;
+  }
+
+  /** A generated source file, as collected by {@code TestRegistry}. */
+  static final class Source {
+    final String qualifiedName;
+    final byte[] bytes;
+
+    Source(String qualifiedName, byte[] bytes) {
+      this.qualifiedName = qualifiedName;
+      this.bytes = bytes;
+    }
+  }
+
+  @Param Transport transport;
+
+  /** The number of bindings in each generated test component. */
+  @Param({"100", "2000"})
+  int bindingCount;
+
+  private List<Source> sources;
+  private Object encoded;
+  private int classOutputBytes;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    sources = new ArrayList<>();
+    sources.add(new Source("test.TestDaggerAppComponent", testComponentSource(bindingCount)));
+    sources.add(new Source("test.AppComponentDecorator", testComponentSource(bindingCount / 4)));
+    sources.add(new Source("test.TestApplication", testComponentSource(bindingCount / 10)));
+    encoded = transport.encode(sources);
+    classOutputBytes = transport.size(encoded);
+  }
+
+  /**
+   * Reports, next to each score, how many bytes the encoded sources add to the class output. JMH
+   * resets the counter before every iteration and sums it over the measurement iterations of the
+   * fork, so only the first measurement iteration records it.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ClassOutput {
+    public long classOutputBytes;
+
+    private boolean recordThisIteration;
+    private boolean recorded;
+
+    @Setup(Level.Iteration)
+    public void startIteration(IterationParams iterationParams) {
+      recordThisIteration =
+          !recorded && iterationParams.getType().equals(IterationType.MEASUREMENT);
+      recorded |= recordThisIteration;
+    }
+
+    void record(int bytes) {
+      if (recordThisIteration) {
+        classOutputBytes = bytes;
+      }
+    }
+  }
+
+  /**
+   * Returns source shaped like a generated test component: a provider field, an initialization
+   * statement and a decorator hook per binding.
+   */
+  private static byte[] testComponentSource(int bindingCount) {
+    StringBuilder source =
+        new StringBuilder("package test;\n\nimport dagger.internal.DoubleCheck;\n")
+            .append("import javax.annotation.Generated;\nimport javax.inject.Provider;\n\n")
+            .append("@Generated(\"dagger.internal.codegen.ComponentProcessor\")\n")
+            .append("public final class TestDaggerAppComponent implements AppComponent {\n");
+    for (int i = 0; i < bindingCount; i++) {
+      source.append("  private Provider<Binding").append(i).append("> binding").append(i)
+          .append("Provider;\n");
+    }
+    source.append("\n  private void initialize(final Builder builder) {\n");
+    for (int i = 0; i < bindingCount; i++) {
+      source.append("    this.binding").append(i).append("Provider = DoubleCheck.provider(")
+          .append("builder.appModuleDecorator.decorateBinding").append(i)
+          .append("(Binding").append(i).append("_Factory.create(binding").append(i / 2)
+          .append("Provider)));\n");
+    }
+    return source.append("  }\n}\n").toString().getBytes(UTF_8);
+  }
+
+  @Benchmark
+  public Object encode(ClassOutput classOutput) throws IOException {
+    classOutput.record(classOutputBytes);
+    return transport.encode(sources);
+  }
+
+  @Benchmark
+  public long decode(ClassOutput classOutput) throws IOException {
+    classOutput.record(classOutputBytes);
+    return transport.decode(encoded);
+  }
+}
@@ -36,6 +36,7 @@ import static dagger.internal.codegen.CodeBlocks.makeParametersCodeBlock;
 import static dagger.internal.codegen.ContributionBinding.FactoryCreationStrategy.SINGLETON_INSTANCE;
 import static dagger.internal.codegen.ContributionBinding.Kind.INJECTION;
 import static dagger.internal.codegen.ErrorMessages.CANNOT_RETURN_NULL_FROM_NON_NULLABLE_COMPONENT_METHOD;
+import static dagger.internal.codegen.ErrorMessages.CANNOT_RETURN_NULL_FROM_NON_NULLABLE_PROVIDES_METHOD;
 import static dagger.internal.codegen.MapKeys.getMapKeyExpression;
 import static dagger.internal.codegen.MemberSelect.emptyFrameworkMapFactory;
 import static dagger.internal.codegen.MemberSelect.emptySetProvider;
@@ -52,6 +53,7 @@ import static dagger.internal.codegen.TypeNames.DELEGATE_FACTORY;
 import static dagger.internal.codegen.TypeNames.DOUBLE_CHECK;
 import static dagger.internal.codegen.TypeNames.INSTANCE_FACTORY;
 import static dagger.internal.codegen.TypeNames.LISTENABLE_FUTURE;
+import static dagger.internal.codegen.TypeNames.LOCK_FREE_CHECK;
 import static dagger.internal.codegen.TypeNames.MAP_FACTORY;
 import static dagger.internal.codegen.TypeNames.MAP_OF_PRODUCED_PRODUCER;
 import static dagger.internal.codegen.TypeNames.MAP_OF_PRODUCER_PRODUCER;
@@ -185,6 +187,12 @@ abstract class AbstractComponentWriter implements HasBindingMembers {
   private ImmutableMap<Scope, MemberSelect> referenceReleasingProviderManagerFields;
   private List<MethodSpec> initializationMethods;
 
+  /**
+   * The {@code case} blocks of this component's {@code SwitchingProvider}, indexed by the id passed
+   * to its constructor. Only populated if {@link CompilerOptions#fastInit()} is enabled.
+   */
+  private final List<CodeBlock> switchingProviderCases = new ArrayList<>();
+
   AbstractComponentWriter(
       Types types,
       Elements elements,
@@ -1042,6 +1050,140 @@ abstract class AbstractComponentWriter implements HasBindingMembers {
       initializationMethods.add(method);
       component.addMethod(method);
     }
+    addSwitchingProvider();
+  }
+
+  private static final int CASES_PER_SWITCHING_PROVIDER_METHOD = 100;
+
+  /**
+   * Returns true if the provider for {@code binding} can be a {@code SwitchingProvider} that calls
+   * the binding's constructor or method directly, instead of an instance of its factory class.
+   */
+  private boolean useSwitchingProvider(ContributionBinding binding) {
+    if (!compilerOptions.fastInit() || forTests || !(binding instanceof ProvisionBinding)) {
+      return false;
+    }
+    ProvisionBinding provisionBinding = (ProvisionBinding) binding;
+    return (binding.bindingKind().equals(INJECTION)
+            || binding.bindingKind().equals(ContributionBinding.Kind.PROVISION))
+        && provisionBinding.implicitDependencies().isEmpty()
+        && provisionBinding.bindingElement().isPresent()
+        && !delegateFieldNames.containsKey(binding.key())
+        && (!binding.requiresModuleInstance()
+            || switchingProviderModuleInstance(binding).isPresent());
+  }
+
+  /**
+   * The module instance used by a {@code SwitchingProvider} case. The case runs long after the
+   * builder is gone, so this must be a component field.
+   */
+  private Optional<CodeBlock> switchingProviderModuleInstance(ContributionBinding binding) {
+    return binding.requiresModuleInstance()
+        ? getOrCreateComponentRequirementFieldExpression(
+            ComponentRequirement.forModule(binding.contributingModule().get().asType()))
+        : Optional.empty();
+  }
+
+  /**
+   * Adds a {@code case} for {@code binding} to this component's {@code SwitchingProvider} and
+   * returns an expression that creates a provider for it. Dependencies are only resolved when
+   * {@code get()} is first called, so they need not be initialized yet.
+   */
+  private CodeBlock initializeSwitchingProvider(ProvisionBinding binding) {
+    int id = switchingProviderCases.size();
+    CodeBlock invocation =
+        SimpleMethodRequestFulfillment.invokeMethodOrProxy(
+            binding, switchingProviderModuleInstance(binding), requestFulfillmentRegistry, name);
+    ExecutableElement bindingElement = MoreElements.asExecutable(binding.bindingElement().get());
+    boolean primitive = bindingElement.getReturnType().getKind().isPrimitive();
+    if (binding.bindingKind().equals(ContributionBinding.Kind.PROVISION)
+        && !primitive
+        && !binding.nullableType().isPresent()
+        && compilerOptions.nullableValidationKind().equals(Diagnostic.Kind.ERROR)) {
+      // Like the factory's get(), don't let a non-@Nullable @Provides method provide null.
+      invocation =
+          CodeBlock.of(
+              "$T.checkNotNull($L, $S)",
+              Preconditions.class,
+              invocation,
+              CANNOT_RETURN_NULL_FROM_NON_NULLABLE_PROVIDES_METHOD);
+    }
+    switchingProviderCases.add(
+        CodeBlock.builder()
+            .add("case $L: // $L\n", id, binding.key())
+            .indent()
+            // A primitive must be boxed before it can be cast to T.
+            .addStatement(primitive ? "return (T) (Object) $L" : "return (T) $L", invocation)
+            .unindent()
+            .build());
+    return useRawType(binding)
+        ? CodeBlock.of("new $T($L)", switchingProviderName(), id)
+        : CodeBlock.of(
+            "new $T<$T>($L)", switchingProviderName(), TypeName.get(binding.contributedType()), id);
+  }
+
+  private ClassName switchingProviderName() {
+    return name.nestedClass("SwitchingProvider");
+  }
+
+  /**
+   * Adds a {@code SwitchingProvider} class that implements {@link Provider} for every binding
+   * that was {@linkplain #initializeSwitchingProvider initialized} with one, dispatching on the id
+   * of the binding. Cases are split into methods of {@value #CASES_PER_SWITCHING_PROVIDER_METHOD}
+   * so that no single method grows too large.
+   */
+  private void addSwitchingProvider() {
+    if (switchingProviderCases.isEmpty()) {
+      return;
+    }
+    TypeVariableName t = TypeVariableName.get("T");
+    TypeSpec.Builder switchingProvider =
+        classBuilder(switchingProviderName())
+            .addModifiers(PRIVATE, FINAL)
+            .addTypeVariable(t)
+            .addSuperinterface(providerOf(t))
+            .addField(TypeName.INT, "id", PRIVATE, FINAL)
+            .addMethod(
+                constructorBuilder()
+                    .addParameter(TypeName.INT, "id")
+                    .addStatement("this.id = id")
+                    .build());
+
+    List<List<CodeBlock>> partitions =
+        Lists.partition(switchingProviderCases, CASES_PER_SWITCHING_PROVIDER_METHOD);
+    if (partitions.size() == 1) {
+      switchingProvider.addMethod(
+          switchingProviderMethod("get", getOnlyElement(partitions))
+              .addAnnotation(Override.class)
+              .addModifiers(PUBLIC)
+              .build());
+    } else {
+      MethodSpec.Builder get =
+          methodBuilder("get")
+              .addAnnotation(Override.class)
+              .addModifiers(PUBLIC)
+              .returns(t)
+              .beginControlFlow("switch (id / $L)", CASES_PER_SWITCHING_PROVIDER_METHOD);
+      for (int i = 0; i < partitions.size(); i++) {
+        String methodName = "get" + i;
+        switchingProvider.addMethod(
+            switchingProviderMethod(methodName, partitions.get(i)).addModifiers(PRIVATE).build());
+        get.addStatement("case $L: return $L()", i, methodName);
+      }
+      get.addStatement("default: throw new $T(id)", AssertionError.class).endControlFlow();
+      switchingProvider.addMethod(get.build());
+    }
+    component.addType(switchingProvider.build());
+  }
+
+  private static MethodSpec.Builder switchingProviderMethod(String name, List<CodeBlock> cases) {
+    CodeBlock.Builder body = CodeBlock.builder().beginControlFlow("switch (id)");
+    cases.forEach(body::add);
+    body.addStatement("default: throw new $T(id)", AssertionError.class).endControlFlow();
+    return methodBuilder(name)
+        .addAnnotation(AnnotationSpecs.suppressWarnings(UNCHECKED))
+        .returns(TypeVariableName.get("T"))
+        .addCode(body.build());
   }
 
   /*private CodeBlock initDelegateFields() {
@@ -1107,6 +1249,13 @@ abstract class AbstractComponentWriter implements HasBindingMembers {
         }
         // fall through
       case CLASS_CONSTRUCTOR:
+        if (useSwitchingProvider(binding)) {
+          return Optional.of(
+              initializeMember(
+                  bindingKey,
+                  decorateForScope(
+                      initializeSwitchingProvider((ProvisionBinding) binding), binding.scope())));
+        }
         return Optional.of(
             CodeBlocks.concat(
                 ImmutableList.of(
@@ -1477,11 +1626,15 @@ abstract class AbstractComponentWriter implements HasBindingMembers {
           factoryCreate,
           getReferenceReleasingProviderManagerExpression(scope));
     } else {
-      return CodeBlock.of(
-          "$T.provider($L)",
-          scope.equals(reusableScope(elements)) ? SINGLE_CHECK : DOUBLE_CHECK,
-          factoryCreate);
+      return CodeBlock.of("$T.provider($L)", scopedProviderClassName(scope), factoryCreate);
+    }
+  }
+
+  private ClassName scopedProviderClassName(Scope scope) {
+    if (scope.equals(reusableScope(elements))) {
+      return SINGLE_CHECK;
     }
+    return compilerOptions.lockFreeScopedProviders() ? LOCK_FREE_CHECK : DOUBLE_CHECK;
   }
 
   private CodeBlock initializeMembersInjectorForBinding(MembersInjectionBinding binding) {
@@ -1575,7 +1728,49 @@ abstract class AbstractComponentWriter implements HasBindingMembers {
     }
     builder.add("builder($L, $L)", individualProviders, setProviders);
     builder.add(builderMethodCalls.build());
-    return builder.add(".build()").build();
+    return builder.add(canMemoizeSet(binding) ? ".buildMemoized()" : ".build()").build();
+  }
+
+  /**
+   * {@code true} if {@code binding} is a provision set multibinding whose contributions always
+   * provide the same values, so that its {@code SetFactory} can build the set only once.
+   */
+  private boolean canMemoizeSet(ContributionBinding binding) {
+    if (forTests || !binding.bindingType().equals(BindingType.PROVISION)) {
+      return false;
+    }
+    for (FrameworkDependency frameworkDependency : binding.frameworkDependencies()) {
+      if (!alwaysProvidesSameInstance(
+          graph.resolvedBindings().get(frameworkDependency.bindingKey()).contributionBinding())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * {@code true} if every request for {@code binding} returns the same instance: it is scoped
+   * (other than {@code @Reusable} or a scope that can release its references), it is bound to an
+   * instance, or it delegates to such a binding.
+   */
+  private boolean alwaysProvidesSameInstance(ContributionBinding binding) {
+    if (binding.scope().isPresent()) {
+      Scope scope = binding.scope().get();
+      return !scope.equals(reusableScope(elements)) && !requiresReleasableReferences(scope);
+    }
+    switch (binding.bindingKind()) {
+      case COMPONENT:
+      case BUILDER_BINDING:
+        return true;
+      case SYNTHETIC_DELEGATE_BINDING:
+        return alwaysProvidesSameInstance(
+            graph
+                .resolvedBindings()
+                .get(Iterables.getOnlyElement(binding.explicitDependencies()).bindingKey())
+                .contributionBinding());
+      default:
+        return false;
+    }
   }
 
   private CodeBlock initializeFactoryForMapMultibinding(ContributionBinding binding) {
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.googlejavaformat.java.Formatter;
+import com.google.googlejavaformat.java.FormatterException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+
+/**
+ * A {@link Filer} that formats generated sources with google-java-format on a pool of background
+ * threads, so that formatting is not on the critical path of each processing step.
+ *
+ * <p>Only the formatting runs on the pool. Source files are created on the processing thread as
+ * usual, so name clashes are still reported immediately, and their contents are written by {@link
+ * #flush()}, which must be called on the processing thread before the end of every round so that
+ * the sources are compiled in the next one.
+ *
+ * <p>Like {@link com.google.googlejavaformat.java.filer.FormattingFiler}, a source that cannot be
+ * formatted is written as it was generated. That includes sources on which the formatter fails
+ * unexpectedly, which are reported as warnings.
+ */
+final class BackgroundFormattingFiler implements Filer {
+  /** Formats a generated source. */
+  interface SourceFormatter {
+    String formatSource(String source) throws FormatterException;
+  }
+
+  private final Filer delegate;
+  private final Messager messager;
+  private final SourceFormatter formatter;
+  private final ExecutorService formattingExecutor =
+      Executors.newFixedThreadPool(
+          Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("dagger-format-%d").build());
+
+  /** Sources whose writers have been closed, in the order they were closed. */
+  private final Queue<PendingSource> pendingSources = new ArrayDeque<>();
+
+  BackgroundFormattingFiler(Filer delegate, Messager messager) {
+    this(delegate, messager, source -> new Formatter().formatSource(source));
+  }
+
+  BackgroundFormattingFiler(Filer delegate, Messager messager, SourceFormatter formatter) {
+    this.delegate = delegate;
+    this.messager = messager;
+    this.formatter = formatter;
+  }
+
+  @Override
+  public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements)
+      throws IOException {
+    JavaFileObject sourceFile = delegate.createSourceFile(name, originatingElements);
+    return new ForwardingJavaFileObject<JavaFileObject>(sourceFile) {
+      @Override
+      public Writer openWriter() {
+        return new StringWriter() {
+          private boolean closed;
+
+          @Override
+          public void close() {
+            if (!closed) {
+              closed = true;
+              String source = toString();
+              pendingSources.add(
+                  new PendingSource(
+                      sourceFile,
+                      source,
+                      formattingExecutor.submit(() -> formatter.formatSource(source))));
+            }
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public JavaFileObject createClassFile(CharSequence name, Element... originatingElements)
+      throws IOException {
+    return delegate.createClassFile(name, originatingElements);
+  }
+
+  @Override
+  public FileObject createResource(
+      Location location,
+      CharSequence pkg,
+      CharSequence relativeName,
+      Element... originatingElements)
+      throws IOException {
+    return delegate.createResource(location, pkg, relativeName, originatingElements);
+  }
+
+  @Override
+  public FileObject getResource(Location location, CharSequence pkg, CharSequence relativeName)
+      throws IOException {
+    return delegate.getResource(location, pkg, relativeName);
+  }
+
+  /**
+   * Waits for every source written so far to be formatted, and writes it to its file. A source
+   * whose formatting failed is written as it was generated, and the failures are reported once
+   * every source has been written.
+   */
+  void flush() {
+    Map<JavaFileObject, Throwable> formattingFailures = new LinkedHashMap<>();
+    while (!pendingSources.isEmpty()) {
+      PendingSource pendingSource = pendingSources.remove();
+      try (Writer writer = pendingSource.sourceFile.openWriter()) {
+        writer.write(pendingSource.formattedSource(formattingFailures));
+      } catch (IOException e) {
+        messager.printMessage(
+            Diagnostic.Kind.ERROR,
+            String.format("Could not write %s: %s", pendingSource.sourceFile.getName(), e));
+      }
+    }
+    formattingFailures.forEach(
+        (sourceFile, failure) ->
+            messager.printMessage(
+                Diagnostic.Kind.WARNING,
+                String.format(
+                    "Could not format %s, so it was written unformatted: %s",
+                    sourceFile.getName(), failure)));
+  }
+
+  /** {@linkplain #flush() Flushes} the remaining sources and stops the formatting threads. */
+  void close() {
+    try {
+      flush();
+    } finally {
+      formattingExecutor.shutdown();
+    }
+  }
+
+  private final class PendingSource {
+    final JavaFileObject sourceFile;
+    final String source;
+    final Future<String> formatting;
+
+    PendingSource(JavaFileObject sourceFile, String source, Future<String> formatting) {
+      this.sourceFile = sourceFile;
+      this.source = source;
+      this.formatting = formatting;
+    }
+
+    /**
+     * Returns the formatted source, or the source as generated if it could not be formatted.
+     * Failures other than the formatter rejecting the source are added to {@code failures}.
+     */
+    String formattedSource(Map<JavaFileObject, Throwable> failures) {
+      try {
+        return formatting.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return source;
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof FormatterException) {
+          // Emit the unformatted source, so that the error that caused this can be investigated.
+          messager.printMessage(
+              Diagnostic.Kind.NOTE, "Error formatting " + sourceFile.getName());
+        } else {
+          failures.put(sourceFile, e.getCause());
+        }
+        return source;
+      }
+    }
+  }
+}
@@ -219,6 +219,15 @@ abstract class BindingGraph {
         .collect(toImmutableSet());
   }
 
+  /**
+   * Resolves {@link BindingGraph}s for root components.
+   *
+   * <p>Resolution reads javac's {@link Elements} and {@link javax.lang.model.util.Types} and
+   * registers implicit bindings in the shared {@link InjectBindingRegistry}, none of which are
+   * thread-safe, so a factory must only be used from the processor thread. Root graphs are
+   * resolved in the order their components are reported to the processing steps, which keeps the
+   * generated output stable from one build to the next.
+   */
   static final class Factory {
     private final Elements elements;
     private final InjectBindingRegistry injectBindingRegistry;
@@ -226,26 +235,78 @@ abstract class BindingGraph {
     private final ProvisionBinding.Factory provisionBindingFactory;
     private final ProductionBinding.Factory productionBindingFactory;
     private AppConfig.Provider appConfigProvider;
+    private final CompilerProfiler profiler;
     private TypeMirror application;
 
+    /**
+     * Graphs that have already been resolved in the current processing round, keyed by the
+     * descriptor of their root component. Resolving a graph is expensive and several steps (e.g.
+     * {@link ComponentProcessingStep} and {@link InjectorProcessingStep}) ask for the same graph,
+     * so they share the result until {@link #clearCache()} is called at the end of the round.
+     */
+    private final Map<ComponentDescriptor, BindingGraph> graphCache = new LinkedHashMap<>();
+    private int cacheHits;
+    private int cacheMisses;
+
     Factory(
             Elements elements,
             InjectBindingRegistry injectBindingRegistry,
             Key.Factory keyFactory,
             ProvisionBinding.Factory provisionBindingFactory,
             ProductionBinding.Factory productionBindingFactory,
-            AppConfig.Provider appConfigProvider) {
+            AppConfig.Provider appConfigProvider,
+            CompilerProfiler profiler) {
       this.elements = elements;
       this.injectBindingRegistry = injectBindingRegistry;
       this.keyFactory = keyFactory;
       this.provisionBindingFactory = provisionBindingFactory;
       this.productionBindingFactory = productionBindingFactory;
       this.appConfigProvider = appConfigProvider;
+      this.profiler = profiler;
     }
 
     BindingGraph create(ComponentDescriptor componentDescriptor) {
-      this.application = appConfigProvider.get().getAppClass().asType();
-      return create(Optional.empty(), componentDescriptor);
+      BindingGraph cachedGraph = graphCache.get(componentDescriptor);
+      if (cachedGraph != null) {
+        cacheHits++;
+        return cachedGraph;
+      }
+      cacheMisses++;
+      BindingGraph bindingGraph;
+      CompilerProfiler.Timer timer =
+          profiler.start(componentDescriptor.componentDefinitionType(), "resolve binding graph");
+      try {
+        this.application = appConfigProvider.get().getAppClass().asType();
+        bindingGraph = create(Optional.empty(), componentDescriptor);
+      } finally {
+        timer.stop();
+      }
+      profiler.recordGraphSize(bindingGraph);
+      graphCache.put(componentDescriptor, bindingGraph);
+      return bindingGraph;
+    }
+
+    /**
+     * Discards all graphs resolved so far. Must be called at every round boundary, since types
+     * generated in one round may contribute bindings to the graphs resolved in the next.
+     */
+    void clearCache() {
+      graphCache.clear();
+    }
+
+    /** The number of calls to {@link #create(ComponentDescriptor)} answered from the cache. */
+    int cacheHits() {
+      return cacheHits;
+    }
+
+    /** The number of calls to {@link #create(ComponentDescriptor)} that resolved a new graph. */
+    int cacheMisses() {
+      return cacheMisses;
+    }
+
+    /** The number of graphs cached since the last call to {@link #clearCache()}. */
+    int cachedGraphCount() {
+      return graphCache.size();
     }
 
     private BindingGraph create(Optional<Resolver> parentResolver, ComponentDescriptor componentDescriptor) {
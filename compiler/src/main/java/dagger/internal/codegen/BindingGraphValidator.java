@@ -63,6 +63,7 @@ import static dagger.internal.codegen.MoreAnnotationMirrors.getTypeValue;
 import static dagger.internal.codegen.Scope.reusableScope;
 import static dagger.internal.codegen.Scope.scopesOf;
 import static dagger.internal.codegen.Util.componentCanMakeNewInstances;
+import static dagger.internal.codegen.Util.toImmutableList;
 import static dagger.internal.codegen.Util.toImmutableSet;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.joining;
@@ -98,9 +99,12 @@ import dagger.releasablereferences.ForReleasableReferences;
 import dagger.releasablereferences.ReleasableReferenceManager;
 import dagger.releasablereferences.TypedReleasableReferenceManager;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.Formatter;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -136,6 +140,7 @@ final class BindingGraphValidator {
   private final DependencyRequestFormatter dependencyRequestFormatter;
   private final KeyFormatter keyFormatter;
   private final Key.Factory keyFactory;
+  private final CompilerProfiler profiler;
 
   BindingGraphValidator(
       Elements elements,
@@ -147,7 +152,8 @@ final class BindingGraphValidator {
       MethodSignatureFormatter methodSignatureFormatter,
       DependencyRequestFormatter dependencyRequestFormatter,
       KeyFormatter keyFormatter,
-      Key.Factory keyFactory) {
+      Key.Factory keyFactory,
+      CompilerProfiler profiler) {
     this.elements = elements;
     this.types = types;
     this.compilerOptions = compilerOptions;
@@ -158,6 +164,7 @@ final class BindingGraphValidator {
     this.dependencyRequestFormatter = dependencyRequestFormatter;
     this.keyFormatter = keyFormatter;
     this.keyFactory = keyFactory;
+    this.profiler = profiler;
   }
 
   private final class ComponentValidation extends ComponentTreeTraverser {
@@ -169,6 +176,13 @@ final class BindingGraphValidator {
     private final SetMultimap<ComponentDescriptor, ContributionBinding> incompatiblyScopedBindings =
         LinkedHashMultimap.create();
 
+    /** The types with {@code @Inject} constructors already validated for each component. */
+    private final SetMultimap<ComponentDescriptor, TypeElement> validatedInjectedTypes =
+        LinkedHashMultimap.create();
+
+    /** The binding keys in dependency cycles that have already been reported. */
+    private final Set<BindingKey> bindingKeysInReportedCycles = new HashSet<>();
+
     ComponentValidation(BindingGraph rootGraph) {
       super(rootGraph);
       this.rootGraph = rootGraph;
@@ -201,9 +215,140 @@ final class BindingGraphValidator {
       validateComponentDependencyHierarchy(graph);
       validateBuilders(graph);
       super.visitComponent(graph);
+      reportCyclesMissedByTraversal(graph);
       checkScopedBindings(graph);
     }
 
+    /**
+     * Reports the dependency cycles reachable from the component's entry points that were not
+     * reported while traversing them.
+     *
+     * <p>A traversal visits each dependency request at most once per entry point, so a cycle whose
+     * requests were first reached along a path broken by a {@link Provider} goes unnoticed. This
+     * finds the strongly connected components of the graph whose edges are the requests that do not
+     * break cycles, in time linear in the size of that graph, and reports the shortest cycle through
+     * each component that shares no binding key with a cycle that was already reported.
+     */
+    private void reportCyclesMissedByTraversal(BindingGraph graph) {
+      Map<
+              Equivalence.Wrapper<ResolvedBindings>,
+              Map<Equivalence.Wrapper<ResolvedBindings>, DependencyRequest>>
+          cycleEdges = new HashMap<>();
+      ImmutableList<Equivalence.Wrapper<ResolvedBindings>> entryPointBindings =
+          graph
+              .componentDescriptor()
+              .entryPoints()
+              .stream()
+              .map(entryPoint -> graph.resolvedBindings().get(entryPoint.bindingKey()))
+              .filter(resolvedBindings -> resolvedBindings != null)
+              .map(Equivalence.identity()::wrap)
+              .collect(toImmutableList());
+      for (ImmutableList<Equivalence.Wrapper<ResolvedBindings>> component :
+          StronglyConnectedComponents.of(
+              entryPointBindings,
+              node -> cycleEdges.computeIfAbsent(node, this::cycleEdges).keySet())) {
+        Equivalence.Wrapper<ResolvedBindings> first = component.get(0);
+        if (component.size() == 1 && !cycleEdges.get(first).containsKey(first)) {
+          continue;
+        }
+        if (component
+            .stream()
+            .anyMatch(node -> bindingKeysInReportedCycles.contains(node.get().bindingKey()))) {
+          continue;
+        }
+        reportDependencyCycle(shortestCycle(component, cycleEdges));
+      }
+    }
+
+    /**
+     * Returns the dependencies of {@code resolvedBindings} that do not {@linkplain
+     * #breaksCycle(DependencyRequest, ResolvedBindings) break cycles}, indexed by the bindings
+     * resolved for them.
+     */
+    private Map<Equivalence.Wrapper<ResolvedBindings>, DependencyRequest> cycleEdges(
+        Equivalence.Wrapper<ResolvedBindings> resolvedBindings) {
+      Map<Equivalence.Wrapper<ResolvedBindings>, DependencyRequest> edges = new LinkedHashMap<>();
+      for (Map.Entry<ComponentDescriptor, ? extends Binding> binding :
+          resolvedBindings.get().allBindings().entries()) {
+        BindingGraph owningGraph = componentTreePath().graphForComponent(binding.getKey());
+        for (DependencyRequest dependency : binding.getValue().dependencies()) {
+          ResolvedBindings dependencyBindings =
+              owningGraph.resolvedBindings().get(dependency.bindingKey());
+          if (dependencyBindings != null && !breaksCycle(dependency, dependencyBindings)) {
+            edges.putIfAbsent(Equivalence.identity().wrap(dependencyBindings), dependency);
+          }
+        }
+      }
+      return edges;
+    }
+
+    /**
+     * Returns the shortest cycle through the first node of a strongly connected {@code component}.
+     * The first and last requests in the trace are both the request that closes the cycle.
+     */
+    private DependencyTrace shortestCycle(
+        ImmutableList<Equivalence.Wrapper<ResolvedBindings>> component,
+        Map<
+                Equivalence.Wrapper<ResolvedBindings>,
+                Map<Equivalence.Wrapper<ResolvedBindings>, DependencyRequest>>
+            cycleEdges) {
+      Equivalence.Wrapper<ResolvedBindings> start = component.get(0);
+      Set<Equivalence.Wrapper<ResolvedBindings>> nodesInComponent = ImmutableSet.copyOf(component);
+      Map<Equivalence.Wrapper<ResolvedBindings>, Equivalence.Wrapper<ResolvedBindings>> previous =
+          new HashMap<>();
+      Queue<Equivalence.Wrapper<ResolvedBindings>> queue = new ArrayDeque<>();
+      queue.add(start);
+      Equivalence.Wrapper<ResolvedBindings> last = null;
+      while (last == null) {
+        Equivalence.Wrapper<ResolvedBindings> node = queue.remove();
+        for (Equivalence.Wrapper<ResolvedBindings> successor : cycleEdges.get(node).keySet()) {
+          if (successor.equals(start)) {
+            last = node;
+            break;
+          }
+          if (nodesInComponent.contains(successor) && !previous.containsKey(successor)) {
+            previous.put(successor, node);
+            queue.add(successor);
+          }
+        }
+      }
+
+      Deque<Equivalence.Wrapper<ResolvedBindings>> path = new ArrayDeque<>();
+      for (Equivalence.Wrapper<ResolvedBindings> node = last;
+          !node.equals(start);
+          node = previous.get(node)) {
+        path.addFirst(node);
+      }
+      path.addFirst(start);
+      path.addLast(start);
+
+      DependencyRequest closingRequest = cycleEdges.get(last).get(start);
+      List<DependencyRequest> dependencyRequests = new ArrayList<>();
+      List<ResolvedBindings> resolvedBindings = new ArrayList<>();
+      Equivalence.Wrapper<ResolvedBindings> previousNode = null;
+      for (Equivalence.Wrapper<ResolvedBindings> node : path) {
+        dependencyRequests.add(
+            previousNode == null ? closingRequest : cycleEdges.get(previousNode).get(node));
+        resolvedBindings.add(node.get());
+        previousNode = node;
+      }
+      return new DependencyTrace(dependencyRequests, resolvedBindings);
+    }
+
+    /** Reports a dependency cycle found outside of an entry point's traversal. */
+    private void reportDependencyCycle(DependencyTrace cycle) {
+      ImmutableSet.Builder<ComponentDescriptor> owningComponents = ImmutableSet.builder();
+      cycle.forEach(
+          (dependencyRequest, resolvedBindings) -> {
+            owningComponents.addAll(resolvedBindings.allBindings().keySet());
+            bindingKeysInReportedCycles.add(resolvedBindings.bindingKey());
+          });
+      report(componentTreePath().rootmostGraph(owningComponents.build()))
+          .addError(
+              String.format(
+                  CONTAINS_DEPENDENCY_CYCLE_FORMAT, dependencyRequestFormatter.format(cycle)));
+    }
+
     @Override
     protected void visitSubcomponentFactoryMethod(
         BindingGraph graph, BindingGraph parent, ExecutableElement factoryMethod) {
@@ -242,12 +387,25 @@ final class BindingGraphValidator {
 
     /** Validates that component dependencies do not form a cycle. */
     private void validateComponentDependencyHierarchy(BindingGraph graph) {
-      validateComponentDependencyHierarchy(graph, graph.componentType(), new ArrayDeque<>());
+      validateComponentDependencyHierarchy(
+          graph, graph.componentType(), new ArrayDeque<>(), new HashSet<>());
     }
 
-    /** Recursive method to validate that component dependencies do not form a cycle. */
-    private void validateComponentDependencyHierarchy(
-        BindingGraph graph, TypeElement dependency, Deque<TypeElement> dependencyStack) {
+    /**
+     * Recursive method to validate that component dependencies do not form a cycle. Returns
+     * whether a cycle was found starting from {@code dependency}.
+     *
+     * @param acyclicDependencies dependencies from which no cycle can be reached; they are not
+     *     explored again when reached through another path
+     */
+    private boolean validateComponentDependencyHierarchy(
+        BindingGraph graph,
+        TypeElement dependency,
+        Deque<TypeElement> dependencyStack,
+        Set<TypeElement> acyclicDependencies) {
+      if (acyclicDependencies.contains(dependency)) {
+        return false;
+      }
       if (dependencyStack.contains(dependency)) {
         // Current component has already appeared in the component chain.
         StringBuilder message = new StringBuilder();
@@ -262,20 +420,27 @@ final class BindingGraphValidator {
                 compilerOptions.scopeCycleValidationType().diagnosticKind().get(),
                 graph.componentType(),
                 getComponentAnnotation(graph.componentType()).get());
-      } else {
-        Optional<AnnotationMirror> componentAnnotation = getComponentAnnotation(dependency);
-        if (componentAnnotation.isPresent()) {
-          dependencyStack.push(dependency);
-
-          ImmutableSet<TypeElement> dependencies =
-              MoreTypes.asTypeElements(getComponentDependencies(componentAnnotation.get()));
-          for (TypeElement nextDependency : dependencies) {
-            validateComponentDependencyHierarchy(graph, nextDependency, dependencyStack);
-          }
+        return true;
+      }
+      boolean foundCycle = false;
+      Optional<AnnotationMirror> componentAnnotation = getComponentAnnotation(dependency);
+      if (componentAnnotation.isPresent()) {
+        dependencyStack.push(dependency);
 
-          dependencyStack.pop();
+        ImmutableSet<TypeElement> dependencies =
+            MoreTypes.asTypeElements(getComponentDependencies(componentAnnotation.get()));
+        for (TypeElement nextDependency : dependencies) {
+          foundCycle |=
+              validateComponentDependencyHierarchy(
+                  graph, nextDependency, dependencyStack, acyclicDependencies);
         }
+
+        dependencyStack.pop();
+      }
+      if (!foundCycle) {
+        acyclicDependencies.add(dependency);
       }
+      return foundCycle;
     }
 
     /**
@@ -569,6 +734,8 @@ final class BindingGraphValidator {
       private void reportErrorAtEntryPoint(BindingGraph graph, String format, Object... args) {
         String message = args.length == 0 ? format : String.format(format, args);
         report(graph).addError(message, entryPointElement());
+        // Every entry point that reaches the problem should report it.
+        markEntryPointSpecific();
       }
 
       private String formatDependencyTrace() {
@@ -601,11 +768,12 @@ final class BindingGraphValidator {
           reportNullableBindingForNonNullableRequest(binding);
         }
         if (binding.bindingKind().equals(INJECTION)) {
-          TypeMirror type = binding.key().type();
-          ValidationReport<TypeElement> report =
-              injectValidator.validateType(MoreTypes.asTypeElement(type));
-          if (!report.isClean()) {
-            report(currentGraph()).addSubreport(report);
+          TypeElement type = MoreTypes.asTypeElement(binding.key().type());
+          if (validatedInjectedTypes.put(currentGraph().componentDescriptor(), type)) {
+            ValidationReport<TypeElement> report = injectValidator.validateType(type);
+            if (!report.isClean()) {
+              report(currentGraph()).addSubreport(report);
+            }
           }
         }
         if (binding.bindingType().equals(PRODUCTION) && doesPathRequireProvisionOnly()) {
@@ -704,6 +872,7 @@ final class BindingGraphValidator {
                     + formatDependencyTrace(),
                 compilerOptions.nullableValidationKind(),
                 entryPointElement());
+        markEntryPointSpecific();
       }
 
       private void validateMapKeys(
@@ -1061,8 +1230,10 @@ final class BindingGraphValidator {
         ImmutableList.Builder<ContributionBinding> cycleBindings = ImmutableList.builder();
         cycleDependencyTrace()
             .forEach(
-                (dependencyRequest, resolvedBindings) ->
-                    cycleBindings.addAll(resolvedBindings.contributionBindings()));
+                (dependencyRequest, resolvedBindings) -> {
+                  cycleBindings.addAll(resolvedBindings.contributionBindings());
+                  bindingKeysInReportedCycles.add(resolvedBindings.bindingKey());
+                });
         reportErrorAtEntryPoint(
             owningGraph(cycleBindings.build()),
             CONTAINS_DEPENDENCY_CYCLE_FORMAT,
@@ -1088,44 +1259,14 @@ final class BindingGraphValidator {
         cycleDependencyTrace()
             .forEach(
                 (dependencyRequest, resolvedBindings) -> {
-                  // Skip the first request in the cycle and any synthetic requests.
-                  if (first.getAndSet(false) || !dependencyRequest.requestElement().isPresent()) {
-                    return;
-                  }
-
-                  if (breaksCycle(dependencyRequest.key().type(), dependencyRequest.kind())) {
+                  // Skip the first request in the cycle.
+                  if (!first.getAndSet(false) && breaksCycle(dependencyRequest, resolvedBindings)) {
                     providers.add(dependencyRequest);
-                  } else if (!resolvedBindings.optionalBindingDeclarations().isEmpty()) {
-                    /* Request resolved to a @BindsOptionalOf binding, so test the type inside the
-                     * Optional. Optional<Provider or Lazy or Provider of Lazy or Map of Provider>
-                     * breaks the cycle. */
-                    DependencyRequest.KindAndType kindAndType =
-                        DependencyRequest.extractKindAndType(
-                            OptionalType.from(dependencyRequest.key()).valueType());
-                    if (breaksCycle(kindAndType.type(), kindAndType.kind())) {
-                      providers.add(dependencyRequest);
-                    }
                   }
                 });
         return providers.build();
       }
 
-      private boolean breaksCycle(TypeMirror requestedType, DependencyRequest.Kind requestKind) {
-        switch (requestKind) {
-          case PROVIDER:
-          case LAZY:
-          case PROVIDER_OF_LAZY:
-            return true;
-
-          case INSTANCE:
-            return MapType.isMap(requestedType)
-                && MapType.from(requestedType).valuesAreTypeOf(Provider.class);
-
-          default:
-            return false;
-        }
-      }
-
       /**
        * Returns whether the given dependency path would require the most recent request to be
        * resolved by only provision bindings.
@@ -1170,10 +1311,55 @@ final class BindingGraphValidator {
     }
   }
 
+  /**
+   * Returns {@code true} if a request breaks any dependency cycle it is part of. Synthetic requests
+   * never do.
+   *
+   * @param resolvedBindings the bindings resolved for the request
+   */
+  private static boolean breaksCycle(
+      DependencyRequest request, ResolvedBindings resolvedBindings) {
+    if (!request.requestElement().isPresent()) {
+      return false;
+    }
+    if (breaksCycle(request.key().type(), request.kind())) {
+      return true;
+    }
+    if (!resolvedBindings.optionalBindingDeclarations().isEmpty()) {
+      /* Request resolved to a @BindsOptionalOf binding, so test the type inside the Optional.
+       * Optional<Provider or Lazy or Provider of Lazy or Map of Provider> breaks the cycle. */
+      DependencyRequest.KindAndType kindAndType =
+          DependencyRequest.extractKindAndType(OptionalType.from(request.key()).valueType());
+      return breaksCycle(kindAndType.type(), kindAndType.kind());
+    }
+    return false;
+  }
+
+  private static boolean breaksCycle(TypeMirror requestedType, DependencyRequest.Kind requestKind) {
+    switch (requestKind) {
+      case PROVIDER:
+      case LAZY:
+      case PROVIDER_OF_LAZY:
+        return true;
+
+      case INSTANCE:
+        return MapType.isMap(requestedType)
+            && MapType.from(requestedType).valuesAreTypeOf(Provider.class);
+
+      default:
+        return false;
+    }
+  }
+
   ValidationReport<TypeElement> validate(BindingGraph graph) {
-    ComponentValidation validation = new ComponentValidation(graph);
-    validation.traverseComponents();
-    return validation.buildReport();
+    CompilerProfiler.Timer timer = profiler.start(graph.componentType(), "validate binding graph");
+    try {
+      ComponentValidation validation = new ComponentValidation(graph);
+      validation.traverseComponents();
+      return validation.buildReport();
+    } finally {
+      timer.stop();
+    }
   }
 
   /**
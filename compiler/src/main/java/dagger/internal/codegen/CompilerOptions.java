@@ -38,6 +38,13 @@ abstract class CompilerOptions {
   abstract boolean ignorePrivateAndStaticInjectionForComponent();
   abstract ValidationType scopeCycleValidationType();
   abstract boolean warnIfInjectionFactoryNotGeneratedUpstream();
+  abstract boolean printBindingGraphCacheStats();
+  abstract boolean fastInit();
+  abstract boolean lockFreeScopedProviders();
+  abstract boolean skipUnchangedComponents();
+  abstract boolean virtualThreadProducers();
+  abstract boolean profile();
+  abstract GeneratedSourceFormatting formatGeneratedSource();
 
   static Builder builder() {
     return new AutoValue_CompilerOptions.Builder();
@@ -59,6 +66,17 @@ abstract class CompilerOptions {
         .scopeCycleValidationType(scopeValidationType(processingEnv))
         .warnIfInjectionFactoryNotGeneratedUpstream(
             warnIfInjectionFactoryNotGeneratedUpstream(processingEnv).equals(FeatureStatus.ENABLED))
+        .printBindingGraphCacheStats(
+            printBindingGraphCacheStats(processingEnv).equals(FeatureStatus.ENABLED))
+        .fastInit(fastInit(processingEnv).equals(FeatureStatus.ENABLED))
+        .lockFreeScopedProviders(
+            lockFreeScopedProviders(processingEnv).equals(FeatureStatus.ENABLED))
+        .skipUnchangedComponents(
+            skipUnchangedComponents(processingEnv).equals(FeatureStatus.ENABLED))
+        .virtualThreadProducers(
+            virtualThreadProducers(processingEnv).equals(FeatureStatus.ENABLED))
+        .profile(profile(processingEnv).equals(FeatureStatus.ENABLED))
+        .formatGeneratedSource(formatGeneratedSource(processingEnv))
         .build();
   }
 
@@ -74,6 +92,13 @@ abstract class CompilerOptions {
     Builder scopeCycleValidationType(ValidationType type);
     Builder warnIfInjectionFactoryNotGeneratedUpstream(
         boolean warnIfInjectionFactoryNotGeneratedUpstream);
+    Builder printBindingGraphCacheStats(boolean printBindingGraphCacheStats);
+    Builder fastInit(boolean fastInit);
+    Builder lockFreeScopedProviders(boolean lockFreeScopedProviders);
+    Builder skipUnchangedComponents(boolean skipUnchangedComponents);
+    Builder virtualThreadProducers(boolean virtualThreadProducers);
+    Builder profile(boolean profile);
+    Builder formatGeneratedSource(GeneratedSourceFormatting formatGeneratedSource);
     CompilerOptions build();
   }
 
@@ -91,6 +116,54 @@ abstract class CompilerOptions {
   static final String WARN_IF_INJECTION_FACTORY_NOT_GENERATED_UPSTREAM_KEY =
       "dagger.warnIfInjectionFactoryNotGeneratedUpstream";
 
+  /**
+   * If enabled, Dagger prints how many binding graph requests were answered from the per-round
+   * graph cache and how many had to be resolved, once processing is over.
+   */
+  static final String PRINT_BINDING_GRAPH_CACHE_STATS_KEY = "dagger.printBindingGraphCacheStats";
+
+  /**
+   * If enabled, components create the providers for simple provision bindings as instances of a
+   * single generated {@code SwitchingProvider} class instead of loading and instantiating one
+   * factory class per binding. This trades a little {@code get()} overhead for faster component
+   * construction, which mostly matters on Android.
+   */
+  static final String FAST_INIT_KEY = "dagger.fastInit";
+
+  /**
+   * If enabled, scoped bindings other than {@code @Reusable} ones are memoized with {@link
+   * dagger.internal.LockFreeCheck} instead of {@link dagger.internal.DoubleCheck}.
+   */
+  static final String LOCK_FREE_SCOPED_PROVIDERS_KEY = "dagger.lockFreeScopedProviders";
+
+  /**
+   * If enabled, a fingerprint of each component's resolved binding graph and the source generated
+   * for it are written to the class output. A component whose fingerprint matches the previous
+   * build's is still validated, but its source is written again from that output instead of being
+   * generated. Build tools that delete the class output between builds never reuse anything.
+   */
+  static final String SKIP_UNCHANGED_COMPONENTS_KEY = "dagger.skipUnchangedComponents";
+
+  /**
+   * If enabled, production components run each producer method on its own virtual thread when the
+   * JVM supports them, and on the component's {@code @Production} executor otherwise.
+   */
+  static final String VIRTUAL_THREAD_PRODUCERS_KEY = "dagger.virtualThreadProducers";
+
+  /**
+   * If enabled, Dagger prints a table of the wall time and memory allocated by each phase of
+   * processing for each component, and the size of each resolved binding graph, once processing is
+   * over. See {@link CompilerProfiler}.
+   */
+  static final String PROFILE_KEY = "dagger.profile";
+
+  /**
+   * Controls whether generated sources are formatted with google-java-format. {@code disabled}
+   * writes them unformatted, and {@code background} formats them on other threads while processing
+   * continues. See {@link GeneratedSourceFormatting}.
+   */
+  static final String FORMAT_GENERATED_SOURCE_KEY = "dagger.formatGeneratedSource";
+
   /**
    * If true, Dagger will generate factories and components even if some members-injected types
    * have private or static {@code @Inject}-annotated members.
@@ -108,7 +181,14 @@ abstract class CompilerOptions {
         PRIVATE_MEMBER_VALIDATION_TYPE_KEY,
         STATIC_MEMBER_VALIDATION_TYPE_KEY,
         WARN_IF_INJECTION_FACTORY_NOT_GENERATED_UPSTREAM_KEY,
-        IGNORE_PRIVATE_AND_STATIC_INJECTION_FOR_COMPONENT);
+        IGNORE_PRIVATE_AND_STATIC_INJECTION_FOR_COMPONENT,
+        PRINT_BINDING_GRAPH_CACHE_STATS_KEY,
+        FAST_INIT_KEY,
+        LOCK_FREE_SCOPED_PROVIDERS_KEY,
+        SKIP_UNCHANGED_COMPONENTS_KEY,
+        VIRTUAL_THREAD_PRODUCERS_KEY,
+        PROFILE_KEY,
+        FORMAT_GENERATED_SOURCE_KEY);
 
   private static FeatureStatus writeProducerNameInToken(ProcessingEnvironment processingEnv) {
     return valueOf(
@@ -168,6 +248,57 @@ abstract class CompilerOptions {
         EnumSet.allOf(FeatureStatus.class));
   }
 
+  private static FeatureStatus printBindingGraphCacheStats(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv,
+        PRINT_BINDING_GRAPH_CACHE_STATS_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus fastInit(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv, FAST_INIT_KEY, FeatureStatus.DISABLED, EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus lockFreeScopedProviders(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv,
+        LOCK_FREE_SCOPED_PROVIDERS_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus skipUnchangedComponents(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv,
+        SKIP_UNCHANGED_COMPONENTS_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus virtualThreadProducers(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv,
+        VIRTUAL_THREAD_PRODUCERS_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus profile(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv, PROFILE_KEY, FeatureStatus.DISABLED, EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static GeneratedSourceFormatting formatGeneratedSource(
+      ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv,
+        FORMAT_GENERATED_SOURCE_KEY,
+        GeneratedSourceFormatting.ENABLED,
+        EnumSet.allOf(GeneratedSourceFormatting.class));
+  }
+
   private static <T extends Enum<T>> T valueOf(
       ProcessingEnvironment processingEnv, String key, T defaultValue, Set<T> validValues) {
     Map<String, String> options = processingEnv.getOptions();
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import com.google.common.collect.SetMultimap;
+import com.sun.management.ThreadMXBean;
+import dagger.internal.codegen.BasicProcessor.ProcessingStep;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Formatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+
+/**
+ * Measures the phases of processing when {@code -Adagger.profile=enabled} is passed.
+ *
+ * <p>Each {@linkplain #start(String, String) timed phase} records its wall time and, on JVMs that
+ * can count them, the bytes allocated by the processing thread while it ran. Phases nest, so the
+ * time of a processing step includes the graph resolution, validation and generation it triggers.
+ * Once processing is over, {@link #printReport(Messager)} prints one row per component and phase,
+ * followed by the size of each resolved binding graph.
+ *
+ * <p>When profiling is disabled every method returns immediately, and nothing is wrapped.
+ */
+final class CompilerProfiler {
+  /** The subject of phases that are not specific to one component. */
+  static final String ALL_COMPONENTS = "*";
+
+  /** A running measurement of a phase. */
+  interface Timer {
+    /** Stops measuring and records the phase. */
+    void stop();
+  }
+
+  private static final Timer NO_OP_TIMER = () -> {};
+
+  private final boolean enabled;
+  private final Optional<ThreadMXBean> allocationCounter;
+  private final Map<String, Map<String, PhaseStats>> phasesBySubject = new LinkedHashMap<>();
+  private final Map<String, GraphSize> graphSizes = new LinkedHashMap<>();
+
+  CompilerProfiler(CompilerOptions compilerOptions) {
+    this.enabled = compilerOptions.profile();
+    this.allocationCounter = enabled ? allocationCounter() : Optional.empty();
+  }
+
+  private static Optional<ThreadMXBean> allocationCounter() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof ThreadMXBean) {
+      ThreadMXBean allocationCounter = (ThreadMXBean) threads;
+      if (allocationCounter.isThreadAllocatedMemorySupported()
+          && allocationCounter.isThreadAllocatedMemoryEnabled()) {
+        return Optional.of(allocationCounter);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Starts measuring {@code phase} for a component. {@linkplain Timer#stop Stop} the returned
+   * timer in a {@code finally} block when the phase is over.
+   */
+  Timer start(TypeElement component, String phase) {
+    return enabled ? start(component.getQualifiedName().toString(), phase) : NO_OP_TIMER;
+  }
+
+  /**
+   * Starts measuring {@code phase} for {@code subject}, which is a component name or {@link
+   * #ALL_COMPONENTS}.
+   */
+  Timer start(String subject, String phase) {
+    if (!enabled) {
+      return NO_OP_TIMER;
+    }
+    long startNanos = System.nanoTime();
+    long startBytes = allocatedBytes();
+    return () -> {
+      PhaseStats stats =
+          phasesBySubject
+              .computeIfAbsent(subject, s -> new LinkedHashMap<>())
+              .computeIfAbsent(phase, p -> new PhaseStats());
+      stats.calls++;
+      stats.nanos += System.nanoTime() - startNanos;
+      stats.bytes += allocatedBytes() - startBytes;
+    };
+  }
+
+  private long allocatedBytes() {
+    return allocationCounter.isPresent()
+        ? allocationCounter.get().getThreadAllocatedBytes(Thread.currentThread().getId())
+        : 0;
+  }
+
+  /** Records the number of components and resolved bindings in a root binding graph. */
+  void recordGraphSize(BindingGraph graph) {
+    if (!enabled) {
+      return;
+    }
+    GraphSize size = new GraphSize();
+    Queue<BindingGraph> queue = new ArrayDeque<>();
+    queue.add(graph);
+    while (!queue.isEmpty()) {
+      BindingGraph subgraph = queue.remove();
+      size.components++;
+      size.resolvedBindings += subgraph.resolvedBindings().size();
+      queue.addAll(subgraph.subgraphs());
+    }
+    graphSizes.put(graph.componentType().getQualifiedName().toString(), size);
+  }
+
+  /** Returns a step that measures each call to {@code step} as a phase of its own. */
+  ProcessingStep profile(ProcessingStep step) {
+    if (!enabled) {
+      return step;
+    }
+    String phase = step.getClass().getSimpleName();
+    return new ProcessingStep() {
+      @Override
+      public Set<? extends Class<? extends Annotation>> annotations() {
+        return step.annotations();
+      }
+
+      @Override
+      public Set<Element> process(
+          SetMultimap<Class<? extends Annotation>, Element> elementsByAnnotation,
+          boolean rejectedAnyElements) {
+        Timer timer = start(ALL_COMPONENTS, phase);
+        try {
+          return step.process(elementsByAnnotation, rejectedAnyElements);
+        } finally {
+          timer.stop();
+        }
+      }
+    };
+  }
+
+  /**
+   * Returns a filer that measures closing the writers of the source files it creates. That is
+   * when a {@link com.google.googlejavaformat.java.filer.FormattingFiler} formats and writes them.
+   */
+  Filer profile(Filer filer) {
+    if (!enabled) {
+      return filer;
+    }
+    return new Filer() {
+      @Override
+      public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements)
+          throws IOException {
+        return new ForwardingJavaFileObject<JavaFileObject>(
+            filer.createSourceFile(name, originatingElements)) {
+          @Override
+          public Writer openWriter() throws IOException {
+            return new FilterWriter(super.openWriter()) {
+              @Override
+              public void close() throws IOException {
+                Timer timer = start(ALL_COMPONENTS, "write source files");
+                try {
+                  super.close();
+                } finally {
+                  timer.stop();
+                }
+              }
+            };
+          }
+        };
+      }
+
+      @Override
+      public JavaFileObject createClassFile(CharSequence name, Element... originatingElements)
+          throws IOException {
+        return filer.createClassFile(name, originatingElements);
+      }
+
+      @Override
+      public FileObject createResource(
+          Location location,
+          CharSequence pkg,
+          CharSequence relativeName,
+          Element... originatingElements)
+          throws IOException {
+        return filer.createResource(location, pkg, relativeName, originatingElements);
+      }
+
+      @Override
+      public FileObject getResource(Location location, CharSequence pkg, CharSequence relativeName)
+          throws IOException {
+        return filer.getResource(location, pkg, relativeName);
+      }
+    };
+  }
+
+  /** Prints the recorded phases and graph sizes as a note. */
+  void printReport(Messager messager) {
+    if (!enabled) {
+      return;
+    }
+    Formatter report = new Formatter();
+    report.format(
+        "Dagger profile (times include nested phases%s):%n",
+        allocationCounter.isPresent() ? "" : "; allocation is not measured on this JVM");
+    report.format(
+        "%-50s %-32s %6s %10s %10s%n", "component", "phase", "calls", "wall ms", "alloc MB");
+    phasesBySubject.forEach(
+        (subject, phases) ->
+            phases.forEach(
+                (phase, stats) ->
+                    report.format(
+                        "%-50s %-32s %6d %10.1f %10.1f%n",
+                        subject,
+                        phase,
+                        stats.calls,
+                        stats.nanos / 1e6,
+                        stats.bytes / (1024.0 * 1024.0))));
+    if (!graphSizes.isEmpty()) {
+      report.format("%n%-50s %10s %17s%n", "binding graph", "components", "resolved bindings");
+      graphSizes.forEach(
+          (component, size) ->
+              report.format(
+                  "%-50s %10d %17d%n", component, size.components, size.resolvedBindings));
+    }
+    messager.printMessage(Diagnostic.Kind.NOTE, report.toString());
+  }
+
+  private static final class PhaseStats {
+    int calls;
+    long nanos;
+    long bytes;
+  }
+
+  private static final class GraphSize {
+    int components;
+    int resolvedBindings;
+  }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.auto.common.MoreElements.getPackage;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.lang.model.element.ElementKind.PACKAGE;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import dagger.internal.codegen.ComponentDescriptor.BuilderRequirementMethod;
+import dagger.internal.codegen.ComponentDescriptor.ComponentMethodDescriptor;
+import dagger.internal.codegen.MembersInjectionBinding.InjectionSite;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.SimpleTypeVisitor8;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Records a fingerprint of each component's resolved {@link BindingGraph}, together with the
+ * source generated for it, so that a later build whose graph is the same can write that source
+ * again instead of generating it.
+ *
+ * <p>The fingerprint covers everything the generated component is derived from: the component's
+ * methods, builder and requirements, and for every resolved key the kind, source element,
+ * dependencies and scope of its bindings, recursively for all subcomponents. The modifiers of
+ * every element and type referred to, and of the types enclosing them, are included too, since
+ * the generated code depends on whether they are accessible from the component's package. It also
+ * covers the {@link CompilerOptions}, since they change the generated code. The fingerprint and the source
+ * are stored as a class output resource next to the component.
+ *
+ * @see CompilerOptions#SKIP_UNCHANGED_COMPONENTS_KEY
+ */
+final class ComponentFingerprints {
+  /** Change this whenever the fingerprinted content changes, to invalidate old fingerprints. */
+  private static final int FORMAT_VERSION = 3;
+
+  private static final String FILE_SUFFIX = ".dagger_fingerprint";
+
+  private final Filer filer;
+  private final CompilerOptions compilerOptions;
+  private final AppConfig.Provider appConfigProvider;
+  private final Map<TypeElement, String> fingerprints = new HashMap<>();
+
+  ComponentFingerprints(
+      Filer filer, CompilerOptions compilerOptions, AppConfig.Provider appConfigProvider) {
+    this.filer = filer;
+    this.compilerOptions = compilerOptions;
+    this.appConfigProvider = appConfigProvider;
+  }
+
+  /**
+   * Returns the source generated for {@code graph}'s component by the previous build, if reusing
+   * it is enabled and the fingerprint of {@code graph} is the same as in that build.
+   *
+   * <p>Always empty in debug builds, which must also register the test component.
+   */
+  Optional<String> previouslyGeneratedSource(BindingGraph graph) {
+    if (!isEnabled()) {
+      return Optional.empty();
+    }
+    Optional<String> previous = readPrevious(graph.componentType());
+    if (!previous.isPresent()) {
+      return Optional.empty();
+    }
+    int endOfFingerprint = previous.get().indexOf('\n');
+    if (endOfFingerprint < 0
+        || !previous.get().substring(0, endOfFingerprint).equals(fingerprint(graph))) {
+      return Optional.empty();
+    }
+    return Optional.of(previous.get().substring(endOfFingerprint + 1));
+  }
+
+  /**
+   * Writes {@code source}, which the previous build generated for {@code graph}'s component, and
+   * records it again for the next build.
+   */
+  void writePreviouslyGeneratedSource(BindingGraph graph, String source) throws IOException {
+    TypeElement componentType = graph.componentType();
+    ClassName generatedName =
+        Util.getDaggerComponentClassName(ClassName.get(componentType)).topLevelClassName();
+    JavaFileObject sourceFile =
+        filer.createSourceFile(generatedName.toString(), componentType);
+    try (Writer writer = sourceFile.openWriter()) {
+      writer.write(source);
+    }
+    record(graph, source);
+  }
+
+  /**
+   * Records {@code javaFile}, just generated for {@code graph}'s component, if reusing generated
+   * components is enabled.
+   */
+  void record(BindingGraph graph, JavaFile javaFile) {
+    if (isEnabled()) {
+      record(graph, javaFile.toString());
+    }
+  }
+
+  private boolean isEnabled() {
+    return compilerOptions.skipUnchangedComponents()
+        && appConfigProvider.isSet()
+        && !appConfigProvider.get().debug();
+  }
+
+  private void record(BindingGraph graph, String source) {
+    TypeElement componentType = graph.componentType();
+    ClassName componentName = ClassName.get(componentType);
+    try {
+      FileObject file =
+          filer.createResource(
+              StandardLocation.CLASS_OUTPUT,
+              componentName.packageName(),
+              fileName(componentName),
+              componentType);
+      try (Writer writer = file.openWriter()) {
+        writer.write(fingerprint(graph));
+        writer.write('\n');
+        writer.write(source);
+      }
+    } catch (IOException e) {
+      // The fingerprint is only an optimization; the next build will regenerate the component.
+    }
+  }
+
+  private String fingerprint(BindingGraph graph) {
+    return fingerprints.computeIfAbsent(
+        graph.componentType(),
+        componentType -> {
+          Hasher hasher = Hashing.sha256().newHasher();
+          hasher.putInt(FORMAT_VERSION);
+          putString(hasher, compilerOptions.toString());
+          putGraph(hasher, graph);
+          return hasher.hash().toString();
+        });
+  }
+
+  private static void putGraph(Hasher hasher, BindingGraph graph) {
+    ComponentDescriptor descriptor = graph.componentDescriptor();
+    putString(hasher, descriptor.kind().name());
+    putElement(hasher, graph.componentType());
+    putString(hasher, graph.application().toString());
+    putString(hasher, descriptor.scopes().toString());
+    for (ComponentMethodDescriptor method : descriptor.componentMethods()) {
+      putString(hasher, method.kind().name());
+      putElement(hasher, method.methodElement());
+    }
+    if (descriptor.builderSpec().isPresent()) {
+      putElement(hasher, descriptor.builderSpec().get().buildMethod());
+      for (BuilderRequirementMethod method : descriptor.builderSpec().get().requirementMethods()) {
+        putElement(hasher, method.method());
+      }
+    }
+    for (ComponentRequirement requirement : graph.componentRequirements()) {
+      putString(hasher, requirement.toString());
+    }
+    for (ResolvedBindings resolvedBindings : graph.resolvedBindings().values()) {
+      putString(hasher, resolvedBindings.bindingKey().toString());
+      putType(hasher, resolvedBindings.key().type());
+      putString(hasher, resolvedBindings.owningComponent().componentDefinitionType().toString());
+      for (ContributionBinding binding : resolvedBindings.contributionBindings()) {
+        putString(hasher, binding.bindingKind().name());
+        putString(hasher, binding.contributionType().name());
+        putString(hasher, binding.nullableType().toString());
+        putString(hasher, binding.mapKey().toString());
+        putBinding(hasher, binding);
+      }
+      if (resolvedBindings.membersInjectionBinding().isPresent()) {
+        MembersInjectionBinding binding = resolvedBindings.membersInjectionBinding().get();
+        for (InjectionSite site : binding.injectionSites()) {
+          putElement(hasher, site.element());
+        }
+        putBinding(hasher, binding);
+      }
+    }
+    for (BindingGraph subgraph : graph.subgraphs()) {
+      putGraph(hasher, subgraph);
+    }
+  }
+
+  private static void putBinding(Hasher hasher, Binding binding) {
+    if (binding.bindingElement().isPresent()) {
+      putElement(hasher, binding.bindingElement().get());
+    }
+    putString(hasher, binding.contributingModule().toString());
+    if (binding.contributingModule().isPresent()) {
+      putElement(hasher, binding.contributingModule().get());
+    }
+    putString(hasher, binding.scope().toString());
+    putType(hasher, binding.key().type());
+    for (DependencyRequest dependency : binding.dependencies()) {
+      putString(hasher, dependency.kind().name());
+      putString(hasher, dependency.key().toString());
+      putType(hasher, dependency.key().type());
+    }
+  }
+
+  /** Puts {@code element} and the elements enclosing it, with their modifiers, up to the package. */
+  private static void putElement(Hasher hasher, Element element) {
+    for (Element enclosing = element;
+        enclosing.getKind() != PACKAGE;
+        enclosing = enclosing.getEnclosingElement()) {
+      putString(hasher, enclosing.toString());
+      putString(hasher, enclosing.getModifiers().toString());
+    }
+    putString(hasher, getPackage(element).getQualifiedName().toString());
+  }
+
+  /** Puts the element of every declared type in {@code type}, including its type arguments. */
+  private static void putType(Hasher hasher, TypeMirror type) {
+    type.accept(TYPE_ELEMENTS, hasher);
+  }
+
+  private static final SimpleTypeVisitor8<Void, Hasher> TYPE_ELEMENTS =
+      new SimpleTypeVisitor8<Void, Hasher>() {
+        @Override
+        public Void visitDeclared(DeclaredType type, Hasher hasher) {
+          putElement(hasher, type.asElement());
+          for (TypeMirror typeArgument : type.getTypeArguments()) {
+            typeArgument.accept(this, hasher);
+          }
+          return null;
+        }
+
+        @Override
+        public Void visitArray(ArrayType type, Hasher hasher) {
+          return type.getComponentType().accept(this, hasher);
+        }
+
+        @Override
+        public Void visitWildcard(WildcardType type, Hasher hasher) {
+          if (type.getExtendsBound() != null) {
+            type.getExtendsBound().accept(this, hasher);
+          }
+          if (type.getSuperBound() != null) {
+            type.getSuperBound().accept(this, hasher);
+          }
+          return null;
+        }
+      };
+
+  private static void putString(Hasher hasher, String string) {
+    hasher.putInt(string.length()).putString(string, UTF_8);
+  }
+
+  private Optional<String> readPrevious(TypeElement componentType) {
+    ClassName componentName = ClassName.get(componentType);
+    try {
+      FileObject file =
+          filer.getResource(
+              StandardLocation.CLASS_OUTPUT, componentName.packageName(), fileName(componentName));
+      return Optional.of(file.getCharContent(true).toString());
+    } catch (IOException | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static String fileName(ClassName componentName) {
+    return String.join("$", componentName.simpleNames()) + FILE_SUFFIX;
+  }
+}
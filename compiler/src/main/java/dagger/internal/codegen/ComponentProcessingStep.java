@@ -16,6 +16,8 @@
 
 package dagger.internal.codegen;
 
+import static javax.tools.Diagnostic.Kind.ERROR;
+
 import com.google.auto.common.BasicAnnotationProcessor.ProcessingStep;
 import com.google.auto.common.MoreElements;
 import com.google.common.base.Predicates;
@@ -25,6 +27,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
 import dagger.Component;
 import dagger.Config;
 import dagger.Subcomponent;
@@ -32,6 +35,7 @@ import dagger.internal.codegen.ComponentDescriptor.Factory;
 import dagger.internal.codegen.ComponentValidator.ComponentValidationReport;
 import dagger.producers.ProductionComponent;
 import dagger.producers.ProductionSubcomponent;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.*;
 import javax.annotation.processing.Messager;
@@ -57,6 +61,9 @@ final class ComponentProcessingStep implements BasicProcessor.ProcessingStep {
   private final ComponentDescriptor.Factory componentDescriptorFactory;
   private final BindingGraph.Factory bindingGraphFactory;
   private final ComponentGenerator.Factory componentGeneratorFactory;
+  private final ProducerGraphGenerator producerGraphGenerator;
+  private final ComponentFingerprints componentFingerprints;
+  private final CompilerProfiler profiler;
 
   ComponentProcessingStep(
       ComponentDescriptor.Kind componentKind,
@@ -68,7 +75,10 @@ final class ComponentProcessingStep implements BasicProcessor.ProcessingStep {
       BindingGraphValidator bindingGraphValidator,
       Factory componentDescriptorFactory,
       BindingGraph.Factory bindingGraphFactory,
-      ComponentGenerator.Factory componentGeneratorFactory) {
+      ComponentGenerator.Factory componentGeneratorFactory,
+      ProducerGraphGenerator producerGraphGenerator,
+      ComponentFingerprints componentFingerprints,
+      CompilerProfiler profiler) {
     this.componentKind = componentKind;
     this.messager = messager;
     this.componentValidator = componentValidator;
@@ -79,6 +89,9 @@ final class ComponentProcessingStep implements BasicProcessor.ProcessingStep {
     this.componentDescriptorFactory = componentDescriptorFactory;
     this.bindingGraphFactory = bindingGraphFactory;
     this.componentGeneratorFactory = componentGeneratorFactory;
+    this.producerGraphGenerator = producerGraphGenerator;
+    this.componentFingerprints = componentFingerprints;
+    this.profiler = profiler;
   }
 
   @Override
@@ -143,6 +156,10 @@ final class ComponentProcessingStep implements BasicProcessor.ProcessingStep {
             ValidationReport<TypeElement> graphReport =
                 bindingGraphValidator.validate(bindingGraph);
             graphReport.printMessagesTo(messager);
+            // The monitoring module refers to the producer graph even if the component is invalid.
+            if (componentDescriptor.kind().equals(ComponentDescriptor.Kind.PRODUCTION_COMPONENT)) {
+              producerGraphGenerator.generate(bindingGraph, messager);
+            }
             if (graphReport.isClean()) {
               generateComponent(bindingGraph);
             }
@@ -158,8 +175,37 @@ final class ComponentProcessingStep implements BasicProcessor.ProcessingStep {
     return failedElements;
   }
 
+  /**
+   * Generates the component for {@code bindingGraph}, or writes the source that the previous build
+   * generated for it if its graph has not changed since.
+   */
   private void generateComponent(BindingGraph bindingGraph) {
-    componentGeneratorFactory.createComponentGenerator().generate(bindingGraph, messager);
+    CompilerProfiler.Timer timer =
+        profiler.start(bindingGraph.componentType(), "generate component");
+    try {
+      Optional<String> previousSource =
+          componentFingerprints.previouslyGeneratedSource(bindingGraph);
+      if (previousSource.isPresent()) {
+        componentFingerprints.writePreviouslyGeneratedSource(bindingGraph, previousSource.get());
+        return;
+      }
+      Optional<JavaFile> javaFile =
+          componentGeneratorFactory.createComponentGenerator().generateJavaFile(bindingGraph);
+      if (javaFile.isPresent()) {
+        componentFingerprints.record(bindingGraph, javaFile.get());
+      }
+    } catch (SourceFileGenerationException e) {
+      e.printMessageTo(messager);
+    } catch (IOException e) {
+      messager.printMessage(
+          ERROR,
+          String.format(
+              "Could not write the previously generated component for %s: %s",
+              bindingGraph.componentType().getQualifiedName(), e),
+          bindingGraph.componentType());
+    } finally {
+      timer.stop();
+    }
   }
 
   private ImmutableSet<Element> getElementsFromAnnotations(
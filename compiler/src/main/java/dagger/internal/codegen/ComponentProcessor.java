@@ -18,12 +18,14 @@ package dagger.internal.codegen;
 
 import static dagger.internal.codegen.ModuleProcessingStep.moduleProcessingStep;
 import static dagger.internal.codegen.ModuleProcessingStep.producerModuleProcessingStep;
+import static dagger.internal.codegen.Util.toImmutableList;
 
 import com.google.auto.service.AutoService;
 import com.google.common.collect.ImmutableList;
 import com.google.googlejavaformat.java.filer.FormattingFiler;
 
 import java.util.Arrays;
+import java.util.Optional;
 import java.util.Set;
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
@@ -54,6 +56,10 @@ public final class ComponentProcessor extends BasicProcessor {
   private InjectBindingRegistry injectBindingRegistry;
   private MembersInjectorGenerator membersInjectorGenerator;
   private AppConfig.Provider appConfigProvider;
+  private BindingGraph.Factory bindingGraphFactory;
+  private CompilerOptions compilerOptions;
+  private CompilerProfiler profiler;
+  private Optional<BackgroundFormattingFiler> backgroundFormattingFiler = Optional.empty();
 
   @Override
   public SourceVersion getSupportedSourceVersion() {
@@ -71,8 +77,9 @@ public final class ComponentProcessor extends BasicProcessor {
     messager = processingEnv.getMessager();
     Types types = processingEnv.getTypeUtils();
     Elements elements = processingEnv.getElementUtils();
-    filer = new FormattingFiler(processingEnv.getFiler());
-    CompilerOptions compilerOptions = CompilerOptions.create(processingEnv, elements);
+    compilerOptions = CompilerOptions.create(processingEnv, elements);
+    profiler = new CompilerProfiler(compilerOptions);
+    filer = profiler.profile(formattingFiler(processingEnv.getFiler()));
 
     KeyFormatter keyFormatter = new KeyFormatter();
     MethodSignatureFormatter methodSignatureFormatter = new MethodSignatureFormatter(types);
@@ -123,10 +130,12 @@ public final class ComponentProcessor extends BasicProcessor {
     ComponentGenerator.Factory componentGeneratorFactory = new ComponentGenerator.Factory(filer, elements, types, keyFactory, compilerOptions, appConfigProvider, testRegistry);
     ProducerFactoryGenerator producerFactoryGenerator =
             new ProducerFactoryGenerator(filer, elements, compilerOptions);
+    ProducerGraphGenerator producerGraphGenerator =
+            new ProducerGraphGenerator(filer, elements, compilerOptions);
     MonitoringModuleGenerator monitoringModuleGenerator =
             new MonitoringModuleGenerator(filer, elements);
     ProductionExecutorModuleGenerator productionExecutorModuleGenerator =
-            new ProductionExecutorModuleGenerator(filer, elements);
+            new ProductionExecutorModuleGenerator(filer, elements, compilerOptions);
 
     DependencyRequest.Factory dependencyRequestFactory =
             new DependencyRequest.Factory(keyFactory);
@@ -170,13 +179,14 @@ public final class ComponentProcessor extends BasicProcessor {
     ComponentDescriptor.Factory componentDescriptorFactory = new ComponentDescriptor.Factory(
             elements, types, dependencyRequestFactory, moduleDescriptorFactory);
 
-    BindingGraph.Factory bindingGraphFactory = new BindingGraph.Factory(
+    bindingGraphFactory = new BindingGraph.Factory(
             elements,
             injectBindingRegistry,
             keyFactory,
             provisionBindingFactory,
             productionBindingFactory,
-            appConfigProvider);
+            appConfigProvider,
+            profiler);
 
     AnnotationCreatorGenerator annotationCreatorGenerator =
             new AnnotationCreatorGenerator(filer, elements);
@@ -184,6 +194,8 @@ public final class ComponentProcessor extends BasicProcessor {
             new UnwrappedMapKeyGenerator(filer, elements);
     CanReleaseReferencesValidator canReleaseReferencesValidator =
             new CanReleaseReferencesValidator();
+    ComponentFingerprints componentFingerprints =
+            new ComponentFingerprints(filer, compilerOptions, appConfigProvider);
     ComponentHierarchyValidator componentHierarchyValidator =
             new ComponentHierarchyValidator(compilerOptions, elements);
     BindingGraphValidator bindingGraphValidator =
@@ -197,9 +209,10 @@ public final class ComponentProcessor extends BasicProcessor {
                     methodSignatureFormatter,
                     dependencyRequestFormatter,
                     keyFormatter,
-                    keyFactory);
+                    keyFactory,
+                    profiler);
 
-    return ImmutableList.of(
+    ImmutableList<ProcessingStep> steps = ImmutableList.of(
         new AppConfigProcessingStep(messager, new AppConfig.Validator(elements, types), new AppConfig.Factory(elements), appConfigProvider),
         new MapKeyProcessingStep(
             messager, types, mapKeyValidator, annotationCreatorGenerator, unwrappedMapKeyGenerator),
@@ -222,8 +235,10 @@ public final class ComponentProcessor extends BasicProcessor {
             bindingGraphValidator,
             componentDescriptorFactory,
             bindingGraphFactory,
-            componentGeneratorFactory
-        ),
+            componentGeneratorFactory,
+            producerGraphGenerator,
+            componentFingerprints,
+            profiler),
         producerModuleProcessingStep(
             messager,
             moduleValidator,
@@ -241,7 +256,10 @@ public final class ComponentProcessor extends BasicProcessor {
             bindingGraphValidator,
             componentDescriptorFactory,
             bindingGraphFactory,
-            componentGeneratorFactory),
+            componentGeneratorFactory,
+            producerGraphGenerator,
+            componentFingerprints,
+            profiler),
         new BindingMethodProcessingStep(messager, anyBindingMethodValidator),
         new InjectorProcessingStep(
                 types,
@@ -259,13 +277,39 @@ public final class ComponentProcessor extends BasicProcessor {
                 new DependencyInjectorGenerator(filer, elements, bindingGraphFactory, componentDescriptorFactory),
                 provisionBindingFactory,
                 new ApplicationGenerator(filer, types, elements, bindingGraphFactory, componentDescriptorFactory),
-                stubGenerator
+                stubGenerator,
+                profiler
         )
     );
+    return steps.stream().map(profiler::profile).collect(toImmutableList());
+  }
+
+  /** Returns a filer that formats generated sources as {@link CompilerOptions} asks. */
+  private Filer formattingFiler(Filer processingFiler) {
+    switch (compilerOptions.formatGeneratedSource()) {
+      case ENABLED:
+        return new FormattingFiler(processingFiler);
+      case BACKGROUND:
+        BackgroundFormattingFiler backgroundFiler =
+            new BackgroundFormattingFiler(processingFiler, messager);
+        backgroundFormattingFiler = Optional.of(backgroundFiler);
+        return backgroundFiler;
+      case DISABLED:
+        return processingFiler;
+      default:
+        throw new AssertionError(compilerOptions.formatGeneratedSource());
+    }
+  }
+
+  /** The factory that resolves the binding graphs of this processor's components. */
+  BindingGraph.Factory bindingGraphFactory() {
+    return bindingGraphFactory;
   }
 
   @Override
   protected void postRound(RoundEnvironment roundEnv) {
+    // Types generated in this round may add bindings to graphs resolved in the next one.
+    bindingGraphFactory.clearCache();
     if (!roundEnv.processingOver()) {
       try {
         injectBindingRegistry.generateSourcesForRequiredBindings(
@@ -273,6 +317,31 @@ public final class ComponentProcessor extends BasicProcessor {
       } catch (SourceFileGenerationException e) {
         e.printMessageTo(processingEnv.getMessager());
       }
+      // Sources must be written before the round ends to be compiled in the next one.
+      flushFormattedSources();
+    } else {
+      flushFormattedSources();
+      backgroundFormattingFiler.ifPresent(BackgroundFormattingFiler::close);
+      if (compilerOptions.printBindingGraphCacheStats()) {
+        messager.printMessage(
+            Diagnostic.Kind.NOTE,
+            String.format(
+                "Dagger binding graph cache: %d hits, %d misses",
+                bindingGraphFactory.cacheHits(), bindingGraphFactory.cacheMisses()));
+      }
+      profiler.printReport(messager);
+    }
+  }
+
+  private void flushFormattedSources() {
+    if (backgroundFormattingFiler.isPresent()) {
+      CompilerProfiler.Timer timer =
+          profiler.start(CompilerProfiler.ALL_COMPONENTS, "flush formatted sources");
+      try {
+        backgroundFormattingFiler.get().flush();
+      } finally {
+        timer.stop();
+      }
     }
   }
 }
@@ -37,8 +37,10 @@ import com.google.common.collect.LinkedHashMultiset;
 import dagger.internal.codegen.ComponentDescriptor.ComponentMethodDescriptor;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.Spliterators.AbstractSpliterator;
 import java.util.function.BiConsumer;
@@ -58,13 +60,20 @@ import javax.lang.model.element.ExecutableElement;
  * ExecutableElement)} to perform custom logic at each subcomponent factory method.
  *
  * <p>Subclasses can override {@link #bindingGraphTraverser(ComponentTreePath, DependencyRequest)}
- * to traverse each entry point within each component in the tree.
+ * to traverse each entry point within each component in the tree. Large parts of a component's
+ * graph are usually reachable from many of its entry points, so the traversers for one component
+ * share the dependency requests they have {@linkplain BindingGraphTraverser settled}, and each of
+ * those is visited only from the first entry point that reaches it.
  */
 public class ComponentTreeTraverser {
 
   /** The path from the root graph to the currently visited graph. */
   private final Deque<BindingGraph> bindingGraphPath = new ArrayDeque<>();
 
+  /** The settled dependency requests of each component whose entry points are being visited. */
+  private final Map<BindingGraph, Set<DependencyRequest>> settledDependencyRequests =
+      new HashMap<>();
+
   /** Constructs a traverser for a root (component, not subcomponent) binding graph. */
   public ComponentTreeTraverser(BindingGraph rootGraph) {
     checkArgument(
@@ -97,7 +106,8 @@ public class ComponentTreeTraverser {
    *   <li>If this component is installed in its parent by a subcomponent factory method, calls
    *       {@link #visitSubcomponentFactoryMethod(BindingGraph, BindingGraph, ExecutableElement)}.
    *   <li>For each entry point in the component, calls {@link #visitEntryPoint(DependencyRequest,
-   *       BindingGraph)}.
+   *       BindingGraph)}. Dependency requests settled while traversing one entry point are not
+   *       visited again from the later ones.
    *   <li>For each child component, calls {@link #visitComponent(BindingGraph)}, updating the
    *       traversal state.
    * </ol>
@@ -118,8 +128,13 @@ public class ComponentTreeTraverser {
       }
     }
 
-    for (DependencyRequest entryPoint : graph.componentDescriptor().entryPoints()) {
-      visitEntryPoint(entryPoint, graph);
+    settledDependencyRequests.put(graph, new HashSet<>());
+    try {
+      for (DependencyRequest entryPoint : graph.componentDescriptor().entryPoints()) {
+        visitEntryPoint(entryPoint, graph);
+      }
+    } finally {
+      settledDependencyRequests.remove(graph);
     }
 
     for (BindingGraph child : graph.subgraphs()) {
@@ -154,12 +169,18 @@ public class ComponentTreeTraverser {
    *
    * <p>This implementation passes the entry point and the current component tree path to {@link
    * #bindingGraphTraverser(ComponentTreePath, DependencyRequest)}, and calls {@link
-   * BindingGraphTraverser#traverseDependencies()} on the returned object.
+   * BindingGraphTraverser#traverseDependencies()} on the returned object, sharing the dependency
+   * requests settled by the component's earlier entry points with it.
    *
    * @param graph the graph for the component that contains the entry point
    */
   protected void visitEntryPoint(DependencyRequest entryPoint, BindingGraph graph) {
-    bindingGraphTraverser(componentTreePath(), entryPoint).traverseDependencies();
+    BindingGraphTraverser traverser = bindingGraphTraverser(componentTreePath(), entryPoint);
+    Set<DependencyRequest> settledInComponent = settledDependencyRequests.get(graph);
+    if (settledInComponent != null) {
+      traverser.settledDependencyRequests = settledInComponent;
+    }
+    traverser.traverseDependencies();
   }
 
   /**
@@ -185,7 +206,14 @@ public class ComponentTreeTraverser {
     return new ComponentTreePath(bindingGraphPath);
   }
 
-  /** An object that traverses the binding graph starting from an entry point. */
+  /**
+   * An object that traverses the binding graph starting from an entry point.
+   *
+   * <p>A dependency request is <em>settled</em> once it and everything reachable from it has been
+   * visited, outside of any dependency cycle, without {@link #markEntryPointSpecific()} being
+   * called. Visiting a settled request again from another entry point would not tell a subclass
+   * anything new, so settled requests are skipped.
+   */
   public static class BindingGraphTraverser {
 
     private final ComponentTreePath componentTreePath;
@@ -195,6 +223,18 @@ public class ComponentTreeTraverser {
     private final LinkedHashMultiset<BindingKey> bindingKeysInPath = LinkedHashMultiset.create();
     private final Set<DependencyRequest> visitedDependencyRequests = new HashSet<>();
 
+    /**
+     * For each dependency request in {@link #dependencyRequestPath}, whether it can still be
+     * settled once its visit completes.
+     */
+    private final Deque<Boolean> settleablePath = new ArrayDeque<>();
+
+    /**
+     * The settled dependency requests, which are not visited again. When traversed as part of a
+     * {@link ComponentTreeTraverser}, this is shared by all entry points of the same component.
+     */
+    private Set<DependencyRequest> settledDependencyRequests = new HashSet<>();
+
     /**
      * Constructs a traverser for an entry point.
      *
@@ -360,7 +400,8 @@ public class ComponentTreeTraverser {
      *
      * <p>This implementation calls {@link #visitDependencyRequest(DependencyRequest)} for each
      * dependency of the binding, resolved within {@code owningComponent}, that has not already been
-     * visited while traversing the current entry point.
+     * visited while traversing the current entry point, and is not {@linkplain
+     * BindingGraphTraverser settled}.
      *
      * @param binding a value of {@code resolvedBindings().allBindings()}
      * @param owningComponent the key of {@code resolvedBindings().allBindings()} for {@code
@@ -369,14 +410,24 @@ public class ComponentTreeTraverser {
     protected void visitBinding(Binding binding, ComponentDescriptor owningComponent) {
       BindingGraph owningGraph = componentTreePath.graphForComponent(owningComponent);
       for (DependencyRequest dependency : binding.dependencies()) {
-        nextDependencyRequest(dependency, owningGraph);
+        if (!nextDependencyRequest(dependency, owningGraph)) {
+          markEntryPointSpecific();
+        }
       }
     }
 
-    private void nextDependencyRequest(
+    /**
+     * Visits a dependency request unless it has already been visited or settled, and returns
+     * whether it is settled afterwards.
+     */
+    private boolean nextDependencyRequest(
         DependencyRequest dependencyRequest, BindingGraph bindingGraph) {
+      if (settledDependencyRequests.contains(dependencyRequest)) {
+        return true;
+      }
       if (!visitedDependencyRequests.add(dependencyRequest)) {
-        return;
+        // Either still being visited further up the path or visited but not settled.
+        return false;
       }
 
       ResolvedBindings resolvedBindings =
@@ -384,13 +435,37 @@ public class ComponentTreeTraverser {
       dependencyRequestPath.addLast(dependencyRequest);
       resolvedBindingsPath.addLast(resolvedBindings);
       bindingKeysInPath.add(dependencyRequest.bindingKey());
+      settleablePath.addLast(true);
+      boolean settled = false;
       try {
         visitDependencyRequest(dependencyRequest);
+        // A request that closes a cycle was not visited as deeply as it would be from elsewhere.
+        settled = settleablePath.getLast() && !atDependencyCycle();
       } finally {
         verify(dependencyRequestPath.removeLast().equals(dependencyRequest));
         verify(resolvedBindingsPath.removeLast().equals(resolvedBindings));
         verify(bindingKeysInPath.remove(dependencyRequest.bindingKey()));
+        settleablePath.removeLast();
+      }
+      if (settled) {
+        settledDependencyRequests.add(dependencyRequest);
       }
+      return settled;
+    }
+
+    /**
+     * Records that visiting the {@linkplain #dependencyRequest() current dependency request}
+     * produced something specific to the current entry point, such as an error reported at it. The
+     * current request and the requests on the path to it will be visited again from the other
+     * entry points of the component that reach them.
+     *
+     * @throws IllegalStateException if this object is not currently traversing dependencies
+     */
+    protected final void markEntryPointSpecific() {
+      checkState(!settleablePath.isEmpty());
+      // Each request's parents are marked when its own visit completes unsettled.
+      settleablePath.removeLast();
+      settleablePath.addLast(false);
     }
 
     /**
@@ -601,7 +676,7 @@ public class ComponentTreeTraverser {
     private final ImmutableList<DependencyRequest> dependencyRequests;
     private final ImmutableList<ResolvedBindings> resolvedBindings;
 
-    private DependencyTrace(
+    DependencyTrace(
         Iterable<DependencyRequest> dependencyRequests,
         Iterable<ResolvedBindings> resolvedBindings) {
       this.dependencyRequests = ImmutableList.copyOf(dependencyRequests);
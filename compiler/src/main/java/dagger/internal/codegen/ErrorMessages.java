@@ -169,6 +169,10 @@ final class ErrorMessages {
 
   static final String PRODUCES_METHOD_SCOPE = "@Produces methods may not have scope annotations.";
 
+  static final String CHEAP_PRODUCES_METHOD_BLOCKS =
+      "@Cheap @Produces methods run on the thread that completes their inputs and should not "
+          + "block, but this method throws InterruptedException.";
+
   static final String BINDING_METHOD_THROWS =
       "@%s methods may only throw unchecked exceptions or exceptions subclassing Exception";
 
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+/** Allows options to control how generated sources are formatted before they are written. */
+enum GeneratedSourceFormatting {
+  /** Each source is formatted when it is written. */
+  ENABLED,
+
+  /**
+   * Sources are formatted on a pool of background threads, and written at the end of the round.
+   */
+  BACKGROUND,
+
+  /** Sources are written as they are generated, without formatting. */
+  DISABLED;
+}
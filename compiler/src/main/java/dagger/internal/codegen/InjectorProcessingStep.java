@@ -39,8 +39,9 @@ public class InjectorProcessingStep implements BasicProcessor.ProcessingStep {
     private ProvisionBinding.Factory provisionBindingFactory;
     private ApplicationGenerator applicationGenerator;
     private StubGenerator stubGenerator;
-    private HashSet<TypeElement> components = new HashSet<>();
+    private Set<TypeElement> components = new LinkedHashSet<>();
     private DecoratorGenerator decoratorGenerator;
+    private final CompilerProfiler profiler;
 
     public InjectorProcessingStep(Types types, Messager messager,
                                   AppConfig.Provider appConfigProvider,
@@ -53,7 +54,8 @@ public class InjectorProcessingStep implements BasicProcessor.ProcessingStep {
                                   DependencyInjectorGenerator dependencyInjectorGenerator,
                                   ProvisionBinding.Factory provisionBindingFactory,
                                   ApplicationGenerator applicationGenerator,
-                                  StubGenerator stubGenerator) {
+                                  StubGenerator stubGenerator,
+                                  CompilerProfiler profiler) {
         this.types = types;
         this.messager = messager;
         this.appConfigProvider = appConfigProvider;
@@ -68,6 +70,7 @@ public class InjectorProcessingStep implements BasicProcessor.ProcessingStep {
         this.applicationGenerator = applicationGenerator;
         this.stubGenerator = stubGenerator;
         this.decoratorGenerator = decoratorGenerator;
+        this.profiler = profiler;
     }
 
     @Override
@@ -89,7 +92,7 @@ public class InjectorProcessingStep implements BasicProcessor.ProcessingStep {
         Set<Element> rejectedElements = new LinkedHashSet<>();
 
         components.addAll(elementsByAnnotation.get(Component.class).stream()
-                .map(element -> (TypeElement) element).collect(Collectors.toSet()));
+                .map(element -> (TypeElement) element).collect(Collectors.toList()));
 
         List<InjectorType> injectorTypeList = new ArrayList<>();
         for (Element element : elementsByAnnotation.get(component.annotationType())) {
@@ -118,11 +121,11 @@ public class InjectorProcessingStep implements BasicProcessor.ProcessingStep {
             }
             final ClassName decoratorClassName = ClassName.get(appConfig.getAppClass()).topLevelClassName().peerClass("Decorator");
             final DI di = new DI(appConfig, components, injectorTypeList, decoratorClassName);
-            this.decoratorGenerator.generate(di, messager);
-            this.applicationGenerator.generate(di, messager);
-            this.dependencySpecGenerator.generate(di, messager);
-            //this.dependencyInjectorGenerator.generate(di, messager);
-            this.injectorGenerator.generate(di, messager);
+            generate(this.decoratorGenerator, di);
+            generate(this.applicationGenerator, di);
+            generate(this.dependencySpecGenerator, di);
+            //generate(this.dependencyInjectorGenerator, di);
+            generate(this.injectorGenerator, di);
         } else {
             throw new IllegalStateException(rejectedElements.toString());
         }
@@ -130,4 +133,14 @@ public class InjectorProcessingStep implements BasicProcessor.ProcessingStep {
         return rejectedElements;
     }
 
+    private void generate(SourceFileGenerator<DI> generator, DI di) {
+        CompilerProfiler.Timer timer =
+                profiler.start(CompilerProfiler.ALL_COMPONENTS, generator.getClass().getSimpleName());
+        try {
+            generator.generate(di, messager);
+        } finally {
+            timer.stop();
+        }
+    }
+
 }
@@ -126,6 +126,26 @@ abstract class Key implements Serializable{
   @Override
   public abstract int hashCode();
 
+  /**
+   * Keys created by a {@link Factory} are interned, so equal keys are usually the same instance.
+   * Otherwise the memoized hash codes are compared before the types and qualifiers, which are
+   * expensive to compare structurally.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof Key)) {
+      return false;
+    }
+    Key that = (Key) obj;
+    return hashCode() == that.hashCode()
+        && wrappedType().equals(that.wrappedType())
+        && wrappedQualifier().equals(that.wrappedQualifier())
+        && multibindingContributionIdentifier().equals(that.multibindingContributionIdentifier());
+  }
+
   static Builder builder(TypeMirror type) {
     return new dagger.internal.codegen.AutoValue_Key.Builder().type(type);
   }
@@ -482,12 +502,26 @@ abstract class Key implements Serializable{
   static final class Factory {
     private final Types types;
     private final Elements elements;
-    
+
+    /**
+     * The canonical instance of every key this factory has created. Keys are compared and hashed
+     * many times while resolving a graph, and comparing two equivalent types or qualifiers walks
+     * their whole structure; interning makes equal keys from this factory the same instance, so
+     * {@link Key#equals(Object)} returns on its identity check. The interner is weak because the
+     * factory lives as long as the processor, across rounds: a key that nothing else refers to any
+     * more, such as one for a type from an earlier round, is released instead of kept forever.
+     */
+    private final Interner<Key> keys = Interners.newWeakInterner();
+
     Factory(Types types, Elements elements) {
       this.types = checkNotNull(types);
       this.elements = checkNotNull(elements);
     }
 
+    private Key intern(Key key) {
+      return keys.intern(key);
+    }
+
     private TypeElement getClassElement(Class<?> cls) {
       return elements.getTypeElement(cls.getCanonicalName());
     }
@@ -536,11 +570,11 @@ abstract class Key implements Serializable{
       checkArgument(subcomponentBuilderMethod.getKind().equals(METHOD));
       ExecutableType resolvedMethod =
           asExecutable(types.asMemberOf(declaredContainer, subcomponentBuilderMethod));
-      return builder(resolvedMethod.getReturnType()).build();
+      return intern(builder(resolvedMethod.getReturnType()).build());
     }
 
     Key forSubcomponentBuilder(TypeMirror builderType) {
-      return builder(builderType).build();
+      return intern(builder(builderType).build());
     }
 
     Key forProvidesMethod(ExecutableElement method, TypeElement contributingModule) {
@@ -596,10 +630,11 @@ abstract class Key implements Serializable{
       Key key = forMethod(method, keyType);
       return contributionType.equals(ContributionType.UNIQUE)
           ? key
-          : key.toBuilder()
-              .multibindingContributionIdentifier(
-                  new MultibindingContributionIdentifier(method, contributingModule))
-              .build();
+          : intern(
+              key.toBuilder()
+                  .multibindingContributionIdentifier(
+                      new MultibindingContributionIdentifier(method, contributingModule))
+                  .build());
     }
 
     /**
@@ -675,35 +710,37 @@ abstract class Key implements Serializable{
     }
 
     Key forInjectConstructorWithResolvedType(TypeMirror type) {
-      return builder(type).build();
+      return intern(builder(type).build());
     }
 
     Key forComponent(TypeMirror type) {
-      return builder(type).build();
+      return intern(builder(type).build());
     }
 
     Key forMembersInjectedType(TypeMirror type) {
-      return builder(type).build();
+      return intern(builder(type).build());
     }
 
     Key forQualifiedType(Optional<AnnotationMirror> qualifier, TypeMirror type) {
-      return builder(boxPrimitives(type)).qualifier(qualifier).build();
+      return intern(builder(boxPrimitives(type)).qualifier(qualifier).build());
     }
 
     Key forProductionExecutor() {
-      return builder(getClassElement(Executor.class).asType())
-          .qualifier(getClassElement(Production.class))
-          .build();
+      return intern(
+          builder(getClassElement(Executor.class).asType())
+              .qualifier(getClassElement(Production.class))
+              .build());
     }
 
     Key forProductionImplementationExecutor() {
-      return builder(getClassElement(Executor.class).asType())
-          .qualifier(getClassElement(ProductionImplementation.class))
-          .build();
+      return intern(
+          builder(getClassElement(Executor.class).asType())
+              .qualifier(getClassElement(ProductionImplementation.class))
+              .build());
     }
 
     Key forProductionComponentMonitor() {
-      return builder(getClassElement(ProductionComponentMonitor.class).asType()).build();
+      return intern(builder(getClassElement(ProductionComponentMonitor.class).asType()).build());
     }
 
     /**
@@ -761,7 +798,8 @@ abstract class Key implements Serializable{
       } else {
         return possibleMapKey;
       }
-      return possibleMapKey.toBuilder().type(mapOf(mapType.keyType(), wrappedValueType)).build();
+      return intern(
+          possibleMapKey.toBuilder().type(mapOf(mapType.keyType(), wrappedValueType)).build());
     }
 
     /**
@@ -800,7 +838,11 @@ abstract class Key implements Serializable{
               types.getDeclaredType(
                   wrappingElement, mapType.unwrappedValueType(currentWrappingClass));
           return Optional.of(
-              possibleMapKey.toBuilder().type(mapOf(mapType.keyType(), wrappedValueType)).build());
+              intern(
+                  possibleMapKey
+                      .toBuilder()
+                      .type(mapOf(mapType.keyType(), wrappedValueType))
+                      .build()));
         }
       }
       return Optional.empty();
@@ -826,7 +868,11 @@ abstract class Key implements Serializable{
           DeclaredType wrappedValueType =
               types.getDeclaredType(wrappingElement, mapType.valueType());
           return Optional.of(
-              possibleMapKey.toBuilder().type(mapOf(mapType.keyType(), wrappedValueType)).build());
+              intern(
+                  possibleMapKey
+                      .toBuilder()
+                      .type(mapOf(mapType.keyType(), wrappedValueType))
+                      .build()));
         }
       }
       return Optional.empty();
@@ -841,7 +887,10 @@ abstract class Key implements Serializable{
         SetType setType = SetType.from(key);
         if (setType.elementsAreTypeOf(wrappingClass)) {
           return Optional.of(
-              key.toBuilder().type(setOf(setType.unwrappedElementType(wrappingClass))).build());
+              intern(
+                  key.toBuilder()
+                      .type(setOf(setType.unwrappedElementType(wrappingClass)))
+                      .build()));
         }
       }
       return Optional.empty();
@@ -858,7 +907,7 @@ abstract class Key implements Serializable{
       }
       TypeMirror underlyingType =
           DependencyRequest.extractKindAndType(OptionalType.from(key).valueType()).type();
-      return Optional.of(key.toBuilder().type(underlyingType).build());
+      return Optional.of(intern(key.toBuilder().type(underlyingType).build()));
     }
 
     /** Returns a key for a {@code @ForReleasableReferences(scope) ReleasableReferenceManager}. */
@@ -873,14 +922,16 @@ abstract class Key implements Serializable{
      * TypedReleasableReferenceManager<metadataType>}
      */
     Key forTypedReleasableReferenceManager(Scope scope, DeclaredType metadataType) {
-      return builder(typedReleasableReferenceManagerOf(metadataType))
-          .qualifier(forReleasableReferencesAnnotationMirror(scope))
-          .build();
+      return intern(
+          builder(typedReleasableReferenceManagerOf(metadataType))
+              .qualifier(forReleasableReferencesAnnotationMirror(scope))
+              .build());
     }
 
     /** Returns a key for a {@code Set<ReleasableReferenceManager>}. */
     Key forSetOfReleasableReferenceManagers() {
-      return builder(setOf(getClassElement(ReleasableReferenceManager.class).asType())).build();
+      return intern(
+          builder(setOf(getClassElement(ReleasableReferenceManager.class).asType())).build());
     }
 
     /** Returns a key for a {@code Set<TypedReleasableReferenceManager<metadataType>}. */
@@ -16,6 +16,7 @@
 
 package dagger.internal.codegen;
 
+import static com.google.auto.common.MoreElements.isAnnotationPresent;
 import static com.squareup.javapoet.MethodSpec.constructorBuilder;
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static com.squareup.javapoet.TypeSpec.classBuilder;
@@ -32,7 +33,9 @@ import com.squareup.javapoet.TypeSpec;
 import dagger.Module;
 import dagger.Provides;
 import dagger.multibindings.Multibinds;
+import dagger.producers.ProductionComponent;
 import dagger.producers.ProductionScope;
+import dagger.producers.monitoring.ProducerGraph;
 import dagger.producers.monitoring.ProductionComponentMonitor;
 import dagger.producers.monitoring.internal.Monitors;
 import java.util.Optional;
@@ -60,13 +63,18 @@ final class MonitoringModuleGenerator extends SourceFileGenerator<TypeElement> {
 
   @Override
   Optional<TypeSpec.Builder> write(ClassName generatedTypeName, TypeElement componentElement) {
-    return Optional.of(
+    TypeSpec.Builder monitoringModule =
         classBuilder(generatedTypeName)
             .addAnnotation(Module.class)
             .addModifiers(ABSTRACT)
             .addMethod(privateConstructor())
             .addMethod(setOfFactories())
-            .addMethod(monitor(componentElement)));
+            .addMethod(monitor(componentElement));
+    // A production subcomponent's graph is only known once its parent is compiled.
+    if (isAnnotationPresent(componentElement, ProductionComponent.class)) {
+      monitoringModule.addMethod(producerGraph(componentElement));
+    }
+    return Optional.of(monitoringModule);
   }
 
   private MethodSpec privateConstructor() {
@@ -94,4 +102,16 @@ final class MonitoringModuleGenerator extends SourceFileGenerator<TypeElement> {
             "return $T.createMonitorForComponent(component, factories)", Monitors.class)
         .build();
   }
+
+  private MethodSpec producerGraph(TypeElement componentElement) {
+    return methodBuilder("producerGraph")
+        .returns(ProducerGraph.class)
+        .addModifiers(STATIC)
+        .addAnnotation(Provides.class)
+        .addStatement(
+            "return $T.$N",
+            SourceFiles.generatedProducerGraphName(componentElement),
+            ProducerGraphGenerator.GRAPH_FIELD)
+        .build();
+  }
 }
@@ -16,6 +16,7 @@
 
 package dagger.internal.codegen;
 
+import static com.google.auto.common.MoreElements.isAnnotationPresent;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.squareup.javapoet.ClassName.OBJECT;
 import static com.squareup.javapoet.MethodSpec.constructorBuilder;
@@ -56,6 +57,7 @@ import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import dagger.producers.Cheap;
 import dagger.producers.Producer;
 import java.util.Map;
 import java.util.Optional;
@@ -132,7 +134,7 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
     constructorBuilder.addStatement(
         "super($N, $L)",
         fields.get(binding.monitorRequest().get().bindingKey()),
-        producerTokenConstruction(generatedTypeName, binding));
+        producerTokenConstruction(compilerOptions, binding));
 
     if (binding.requiresModuleInstance()) {
       assignField(constructorBuilder, moduleField.get());
@@ -207,8 +209,13 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
                 "assert monitor != null : $S",
                 "execute() may only be called internally from compute(); "
                     + "if it's called explicitly, the monitor might be null")
-            .addStatement("monitor.ready()")
-            .addStatement("executorProvider.get().execute(runnable)");
+            .addStatement("monitor.ready()");
+    if (isAnnotationPresent(binding.bindingElement().get(), Cheap.class)) {
+      // Cheap producers run inline on the thread that completed their inputs.
+      executeMethodBuilder.addStatement("runnable.run()");
+    } else {
+      executeMethodBuilder.addStatement("executorProvider.get().execute(runnable)");
+    }
 
     factoryBuilder.addMethod(constructorBuilder.build());
     factoryBuilder.addMethod(computeMethodBuilder.build());
@@ -254,8 +261,12 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
         .toList();
   }
 
-  private CodeBlock producerTokenConstruction(
-      ClassName generatedTypeName, ProductionBinding binding) {
+  /**
+   * Returns an expression that creates the {@link dagger.producers.monitoring.ProducerToken} for
+   * {@code binding}'s producer.
+   */
+  static CodeBlock producerTokenConstruction(
+      CompilerOptions compilerOptions, ProductionBinding binding) {
     CodeBlock producerTokenArgs =
         compilerOptions.writeProducerNameInToken()
             ? CodeBlock.of(
@@ -264,7 +275,7 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
                     "%s#%s",
                     ClassName.get(binding.bindingTypeElement().get()),
                     binding.bindingElement().get().getSimpleName()))
-            : CodeBlock.of("$T.class", generatedTypeName);
+            : CodeBlock.of("$T.class", generatedClassNameForBinding(binding));
     return CodeBlock.of("$T.create($L)", PRODUCER_TOKEN, producerTokenArgs);
   }
 
@@ -436,7 +447,7 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
     }
   }
 
-  private static boolean isAsyncDependency(DependencyRequest dependency) {
+  static boolean isAsyncDependency(DependencyRequest dependency) {
     switch (dependency.kind()) {
       case INSTANCE:
       case PRODUCED:
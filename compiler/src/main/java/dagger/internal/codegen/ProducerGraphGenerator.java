@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.squareup.javapoet.MethodSpec.constructorBuilder;
+import static com.squareup.javapoet.TypeSpec.classBuilder;
+import static dagger.internal.codegen.ContributionBinding.Kind.PRODUCTION;
+import static dagger.internal.codegen.ProducerFactoryGenerator.isAsyncDependency;
+import static dagger.internal.codegen.ProducerFactoryGenerator.producerTokenConstruction;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.TypeSpec;
+import dagger.producers.monitoring.ProducerGraph;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.util.Elements;
+
+/**
+ * Generates the {@link ProducerGraph} of a production component: which {@code @Produces} methods
+ * take the output of which others as inputs, across the component and its subcomponents. The
+ * component's monitoring module binds it so that monitors like {@link
+ * dagger.producers.monitoring.CriticalPathProductionComponentMonitor} can inject it.
+ */
+final class ProducerGraphGenerator extends SourceFileGenerator<BindingGraph> {
+  static final String GRAPH_FIELD = "GRAPH";
+
+  private final CompilerOptions compilerOptions;
+
+  ProducerGraphGenerator(Filer filer, Elements elements, CompilerOptions compilerOptions) {
+    super(filer, elements);
+    this.compilerOptions = compilerOptions;
+  }
+
+  @Override
+  ClassName nameGeneratedType(BindingGraph graph) {
+    return SourceFiles.generatedProducerGraphName(graph.componentType());
+  }
+
+  @Override
+  Optional<? extends Element> getElementForErrorReporting(BindingGraph graph) {
+    return Optional.of(graph.componentType());
+  }
+
+  @Override
+  Optional<TypeSpec.Builder> write(ClassName generatedTypeName, BindingGraph graph) {
+    SetMultimap<ContributionBinding, ContributionBinding> dependencies =
+        LinkedHashMultimap.create();
+    addDependencies(graph, dependencies);
+
+    CodeBlock.Builder initializer = CodeBlock.builder().add("$T.builder()", ProducerGraph.class);
+    for (Map.Entry<ContributionBinding, ContributionBinding> dependency :
+        dependencies.entries()) {
+      initializer.add(
+          "\n.addDependency($L, $L)",
+          producerToken(dependency.getKey()),
+          producerToken(dependency.getValue()));
+    }
+    initializer.add("\n.build()");
+
+    return Optional.of(
+        classBuilder(generatedTypeName)
+            .addModifiers(FINAL)
+            .addField(
+                FieldSpec.builder(ProducerGraph.class, GRAPH_FIELD, STATIC, FINAL)
+                    .initializer(initializer.build())
+                    .build())
+            .addMethod(constructorBuilder().addModifiers(PRIVATE).build()));
+  }
+
+  /** Adds the dependencies between the producers of {@code graph} and its subgraphs. */
+  private void addDependencies(
+      BindingGraph graph, SetMultimap<ContributionBinding, ContributionBinding> dependencies) {
+    for (ResolvedBindings resolvedBindings : graph.resolvedBindings().values()) {
+      for (ContributionBinding binding : resolvedBindings.ownedContributionBindings()) {
+        if (isProducer(binding)) {
+          for (DependencyRequest dependency : binding.dependencies()) {
+            if (isAsyncDependency(dependency)) {
+              addDependenciesOn(
+                  graph, dependency.bindingKey(), binding, dependencies, new HashSet<>());
+            }
+          }
+        }
+      }
+    }
+    for (BindingGraph subgraph : graph.subgraphs()) {
+      addDependencies(subgraph, dependencies);
+    }
+  }
+
+  /**
+   * Adds a dependency from {@code producer} on every producer that the bindings for {@code key}
+   * are, or that they combine without running anything themselves, such as the contributions to a
+   * multibound set or the target of a {@code @Binds} method. Provisions end the search, since the
+   * graph only tracks producers.
+   */
+  private void addDependenciesOn(
+      BindingGraph graph,
+      BindingKey key,
+      ContributionBinding producer,
+      SetMultimap<ContributionBinding, ContributionBinding> dependencies,
+      Set<BindingKey> visited) {
+    ResolvedBindings resolvedBindings = graph.resolvedBindings().get(key);
+    if (resolvedBindings == null || !visited.add(key)) {
+      return;
+    }
+    for (ContributionBinding binding : resolvedBindings.contributionBindings()) {
+      if (!binding.bindingType().equals(BindingType.PRODUCTION)) {
+        continue;
+      }
+      if (isProducer(binding)) {
+        dependencies.put(producer, binding);
+      } else {
+        for (DependencyRequest dependency : binding.dependencies()) {
+          addDependenciesOn(graph, dependency.bindingKey(), producer, dependencies, visited);
+        }
+      }
+    }
+  }
+
+  private static boolean isProducer(ContributionBinding binding) {
+    return binding.bindingKind().equals(PRODUCTION) && binding.bindingElement().isPresent();
+  }
+
+  private CodeBlock producerToken(ContributionBinding binding) {
+    return producerTokenConstruction(compilerOptions, (ProductionBinding) binding);
+  }
+}
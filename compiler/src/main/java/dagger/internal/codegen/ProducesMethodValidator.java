@@ -16,10 +16,12 @@
 
 package dagger.internal.codegen;
 
+import static com.google.auto.common.MoreElements.isAnnotationPresent;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static dagger.internal.codegen.BindingMethodValidator.Abstractness.MUST_BE_CONCRETE;
 import static dagger.internal.codegen.BindingMethodValidator.AllowsMultibindings.ALLOWS_MULTIBINDINGS;
 import static dagger.internal.codegen.BindingMethodValidator.ExceptionSuperclass.EXCEPTION;
+import static dagger.internal.codegen.ErrorMessages.CHEAP_PRODUCES_METHOD_BLOCKS;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_NULLABLE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RAW_FUTURE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RETURN_TYPE;
@@ -29,6 +31,7 @@ import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_SET_VALUES_R
 import com.google.auto.common.MoreTypes;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.multibindings.ElementsIntoSet;
+import dagger.producers.Cheap;
 import dagger.producers.ProducerModule;
 import dagger.producers.Produces;
 import java.util.Optional;
@@ -46,6 +49,8 @@ import javax.lang.model.util.Types;
  * @since 2.0
  */
 final class ProducesMethodValidator extends BindingMethodValidator {
+  private final Elements elements;
+  private final Types types;
 
   ProducesMethodValidator(Elements elements, Types types) {
     super(
@@ -56,6 +61,8 @@ final class ProducesMethodValidator extends BindingMethodValidator {
         MUST_BE_CONCRETE,
         EXCEPTION,
         ALLOWS_MULTIBINDINGS);
+    this.elements = elements;
+    this.types = types;
   }
   
   @Override
@@ -63,6 +70,7 @@ final class ProducesMethodValidator extends BindingMethodValidator {
     super.checkMethod(builder);
     checkNullable(builder);
     checkScope(builder);
+    checkCheap(builder);
   }
 
   /** Adds a warning if a {@link Produces @Produces} method is declared nullable. */
@@ -80,6 +88,25 @@ final class ProducesMethodValidator extends BindingMethodValidator {
     }
   }
 
+  /**
+   * Adds a warning if a {@link Cheap @Cheap} method declares that it throws {@link
+   * InterruptedException}, which means that it waits for something.
+   */
+  private void checkCheap(ValidationReport.Builder<ExecutableElement> builder) {
+    ExecutableElement method = builder.getSubject();
+    if (!isAnnotationPresent(method, Cheap.class)) {
+      return;
+    }
+    TypeMirror interruptedException =
+        elements.getTypeElement(InterruptedException.class.getCanonicalName()).asType();
+    for (TypeMirror thrownType : method.getThrownTypes()) {
+      if (types.isSubtype(thrownType, interruptedException)) {
+        builder.addWarning(CHEAP_PRODUCES_METHOD_BLOCKS);
+        return;
+      }
+    }
+  }
+
   @Override
   protected String badReturnTypeMessage() {
     return formatErrorMessage(PRODUCES_METHOD_RETURN_TYPE);
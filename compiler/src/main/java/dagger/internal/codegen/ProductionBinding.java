@@ -104,6 +104,7 @@ abstract class ProductionBinding extends ContributionBinding {
     return new AutoValue_ProductionBinding.Builder()
         .explicitDependencies(ImmutableList.<DependencyRequest>of())
         .genericParameter(false)
+        .ignoreStubGeneration(true)
         .thrownTypes(ImmutableList.<TypeMirror>of());
   }
 
@@ -23,12 +23,14 @@ import static javax.lang.model.element.Modifier.STATIC;
 
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.TypeSpec;
 import dagger.Module;
 import dagger.Provides;
 import dagger.producers.Production;
 import dagger.producers.ProductionScope;
+import dagger.producers.internal.ProductionExecutors;
 import dagger.producers.internal.ProductionImplementation;
 import java.util.Optional;
 import java.util.concurrent.Executor;
@@ -41,8 +43,12 @@ import javax.lang.model.util.Elements;
 // TODO(beder): Replace this with a single class when the producers client library exists.
 final class ProductionExecutorModuleGenerator extends SourceFileGenerator<TypeElement> {
 
-  ProductionExecutorModuleGenerator(Filer filer, Elements elements) {
+  private final CompilerOptions compilerOptions;
+
+  ProductionExecutorModuleGenerator(
+      Filer filer, Elements elements, CompilerOptions compilerOptions) {
     super(filer, elements);
+    this.compilerOptions = compilerOptions;
   }
 
   @Override
@@ -74,7 +80,18 @@ final class ProductionExecutorModuleGenerator extends SourceFileGenerator<TypeEl
                         ParameterSpec.builder(Executor.class, "executor")
                             .addAnnotation(Production.class)
                             .build())
-                    .addStatement("return executor")
+                    .addCode(executorBody())
                     .build()));
   }
+
+  /**
+   * Returns the body of the {@code executor} method. With virtual-thread producers enabled, the
+   * {@code @Production} executor is only used on JVMs that have no virtual threads.
+   */
+  private CodeBlock executorBody() {
+    return compilerOptions.virtualThreadProducers()
+        ? CodeBlock.of(
+            "return $T.virtualThreadPerTaskOr(executor);\n", ProductionExecutors.class)
+        : CodeBlock.of("return executor;\n");
+  }
 }
@@ -25,7 +25,6 @@ import static dagger.internal.codegen.Proxies.proxyName;
 import static dagger.internal.codegen.Proxies.requiresProxyAccess;
 import static dagger.internal.codegen.SourceFiles.generatedClassNameForBinding;
 import static dagger.internal.codegen.TypeNames.rawTypeName;
-import static java.util.stream.Collectors.collectingAndThen;
 import static java.util.stream.Collectors.toList;
 import static javax.lang.model.element.Modifier.STATIC;
 
@@ -33,6 +32,9 @@ import com.google.common.util.concurrent.Futures;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.TypeName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.type.TypeMirror;
 
@@ -84,13 +86,31 @@ final class SimpleMethodRequestFulfillment extends RequestFulfillment {
   }
 
   private CodeBlock invokeMethodOrProxy(ClassName requestingClass) {
+    return invokeMethodOrProxy(provisionBinding, Optional.empty(), registry, requestingClass);
+  }
+
+  /**
+   * Returns an expression that invokes the constructor or method of {@code provisionBinding}
+   * directly (or through its accessibility proxy), resolving each dependency through {@code
+   * registry}. {@code moduleInstance} is the receiver for bindings that require a module instance.
+   */
+  static CodeBlock invokeMethodOrProxy(
+      ProvisionBinding provisionBinding,
+      Optional<CodeBlock> moduleInstance,
+      RequestFulfillmentRegistry registry,
+      ClassName requestingClass) {
+    checkArgument(provisionBinding.requiresModuleInstance() == moduleInstance.isPresent());
     ExecutableElement bindingElement = asExecutable(provisionBinding.bindingElement().get());
     return requiresProxyAccess(bindingElement, requestingClass.packageName())
-        ? invokeProxyMethod(requestingClass)
-        : invokeMethod(requestingClass);
+        ? invokeProxyMethod(provisionBinding, moduleInstance, registry, requestingClass)
+        : invokeMethod(provisionBinding, moduleInstance, registry, requestingClass);
   }
 
-  private CodeBlock invokeMethod(ClassName requestingClass) {
+  private static CodeBlock invokeMethod(
+      ProvisionBinding provisionBinding,
+      Optional<CodeBlock> moduleInstance,
+      RequestFulfillmentRegistry registry,
+      ClassName requestingClass) {
     CodeBlock parametersCodeBlock =
         makeParametersCodeBlock(
             provisionBinding
@@ -98,7 +118,7 @@ final class SimpleMethodRequestFulfillment extends RequestFulfillment {
                 .stream()
                 .map(
                     request -> {
-                      CodeBlock snippet = getDependencySnippet(requestingClass, request);
+                      CodeBlock snippet = getDependencySnippet(registry, requestingClass, request);
                       TypeMirror requestElementType = request.requestElement().get().asType();
                       return isTypeAccessibleFrom(requestElementType, requestingClass.packageName())
                           ? snippet
@@ -113,6 +133,10 @@ final class SimpleMethodRequestFulfillment extends RequestFulfillment {
       case CONSTRUCTOR:
           return CodeBlock.of("new $T($L)", provisionBinding.key().type(), parametersCodeBlock);
       case METHOD:
+        if (moduleInstance.isPresent()) {
+          return CodeBlock.of(
+              "$L.$L($L)", moduleInstance.get(), method.getSimpleName(), parametersCodeBlock);
+        }
         checkState(method.getModifiers().contains(STATIC));
         return CodeBlock.of(
             "$T.$L($L)",
@@ -124,19 +148,27 @@ final class SimpleMethodRequestFulfillment extends RequestFulfillment {
     }
   }
 
-  private CodeBlock invokeProxyMethod(ClassName requestingClass) {
+  private static CodeBlock invokeProxyMethod(
+      ProvisionBinding provisionBinding,
+      Optional<CodeBlock> moduleInstance,
+      RequestFulfillmentRegistry registry,
+      ClassName requestingClass) {
+    List<CodeBlock> arguments = new ArrayList<>();
+    moduleInstance.ifPresent(arguments::add);
+    provisionBinding
+        .explicitDependencies()
+        .stream()
+        .map(request -> getDependencySnippet(registry, requestingClass, request))
+        .forEach(arguments::add);
     return CodeBlock.of(
         "$T.$L($L)",
         generatedClassNameForBinding(provisionBinding),
         proxyName(asExecutable(provisionBinding.bindingElement().get())),
-        provisionBinding
-            .explicitDependencies()
-            .stream()
-            .map(request -> getDependencySnippet(requestingClass, request))
-            .collect(collectingAndThen(toList(), CodeBlocks::makeParametersCodeBlock)));
+        makeParametersCodeBlock(arguments));
   }
 
-  private CodeBlock getDependencySnippet(ClassName requestingClass, DependencyRequest request) {
+  private static CodeBlock getDependencySnippet(
+      RequestFulfillmentRegistry registry, ClassName requestingClass, DependencyRequest request) {
     return registry
         .getRequestFulfillment(request.bindingKey())
         .getSnippetForDependencyRequest(request, requestingClass);
@@ -67,14 +67,23 @@ abstract class SourceFileGenerator<T> {
 
   /** Generates a source file to be compiled for {@code T}. */
   void generate(T input) throws SourceFileGenerationException {
+    generateJavaFile(input);
+  }
+
+  /**
+   * Generates a source file to be compiled for {@code T}, and returns it, or {@link
+   * Optional#empty()} if no file was generated.
+   */
+  final Optional<JavaFile> generateJavaFile(T input) throws SourceFileGenerationException {
     ClassName generatedTypeName = nameGeneratedType(input);
     Optional<TypeSpec.Builder> type = write(generatedTypeName, input);
     if (!type.isPresent()) {
-      return;
+      return Optional.empty();
     }
     try {
       final JavaFile javaFile = buildJavaFile(generatedTypeName, type.get());
       javaFile.writeTo(filer);
+      return Optional.of(javaFile);
     } catch (Exception e) {
       // if the code above threw a SFGE, use that
       Throwables.propagateIfPossible(e, SourceFileGenerationException.class);
@@ -204,6 +204,10 @@ class SourceFiles {
     return siblingClassName(componentElement, "_ProductionExecutorModule");
   }
 
+  static ClassName generatedProducerGraphName(TypeElement componentElement) {
+    return siblingClassName(componentElement, "_ProducerGraph");
+  }
+
   // TODO(ronshapiro): when JavaPoet migration is complete, replace the duplicated code
   // which could use this.
   private static ClassName siblingClassName(TypeElement typeElement, String suffix) {
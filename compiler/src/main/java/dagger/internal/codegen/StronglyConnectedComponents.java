@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Finds the strongly connected components of a directed graph using Tarjan's algorithm.
+ *
+ * <p>The search runs in time linear in the number of nodes and edges reachable from the roots. It
+ * keeps its own stack instead of recursing, so that long dependency chains don't overflow the
+ * compiler's stack.
+ */
+final class StronglyConnectedComponents {
+
+  /**
+   * Returns the strongly connected components of the nodes reachable from {@code roots}.
+   *
+   * <p>Components are returned in reverse topological order: no component has an edge to a
+   * component that comes after it. The nodes in each component are in the order they were first
+   * reached, so the first node of a component is the one through which the search entered it.
+   *
+   * @param successors returns the nodes that a node has edges to. It is called once per node.
+   */
+  static <N> ImmutableList<ImmutableList<N>> of(
+      Iterable<? extends N> roots,
+      Function<? super N, ? extends Iterable<? extends N>> successors) {
+    return new Search<N>(successors).run(roots);
+  }
+
+  private static final class Search<N> {
+    private final Function<? super N, ? extends Iterable<? extends N>> successors;
+    private final Map<N, Integer> indices = new HashMap<>();
+    private final Map<N, Integer> lowLinks = new HashMap<>();
+    private final Deque<N> componentStack = new ArrayDeque<>();
+    private final Set<N> onComponentStack = new HashSet<>();
+    private final Deque<Visit<N>> visitStack = new ArrayDeque<>();
+    private final ImmutableList.Builder<ImmutableList<N>> components = ImmutableList.builder();
+
+    Search(Function<? super N, ? extends Iterable<? extends N>> successors) {
+      this.successors = successors;
+    }
+
+    ImmutableList<ImmutableList<N>> run(Iterable<? extends N> roots) {
+      for (N root : roots) {
+        if (!indices.containsKey(root)) {
+          search(root);
+        }
+      }
+      return components.build();
+    }
+
+    private void search(N root) {
+      start(root);
+      while (!visitStack.isEmpty()) {
+        Visit<N> visit = visitStack.getLast();
+        if (visit.successors.hasNext()) {
+          N successor = visit.successors.next();
+          if (!indices.containsKey(successor)) {
+            start(successor);
+          } else if (onComponentStack.contains(successor)) {
+            lowerLowLink(visit.node, indices.get(successor));
+          }
+        } else {
+          visitStack.removeLast();
+          finish(visit.node);
+          if (!visitStack.isEmpty()) {
+            lowerLowLink(visitStack.getLast().node, lowLinks.get(visit.node));
+          }
+        }
+      }
+    }
+
+    private void start(N node) {
+      int index = indices.size();
+      indices.put(node, index);
+      lowLinks.put(node, index);
+      componentStack.addLast(node);
+      onComponentStack.add(node);
+      visitStack.addLast(new Visit<N>(node, successors.apply(node).iterator()));
+    }
+
+    private void finish(N node) {
+      if (!lowLinks.get(node).equals(indices.get(node))) {
+        return;
+      }
+      List<N> component = new ArrayList<>();
+      N member;
+      do {
+        member = componentStack.removeLast();
+        onComponentStack.remove(member);
+        component.add(member);
+      } while (member != node);
+      components.add(ImmutableList.copyOf(component).reverse());
+    }
+
+    private void lowerLowLink(N node, int lowLink) {
+      if (lowLink < lowLinks.get(node)) {
+        lowLinks.put(node, lowLink);
+      }
+    }
+  }
+
+  /** A node whose successors are being searched. */
+  private static final class Visit<N> {
+    final N node;
+    final Iterator<? extends N> successors;
+
+    Visit(N node, Iterator<? extends N> successors) {
+      this.node = node;
+      this.successors = successors;
+    }
+  }
+
+  private StronglyConnectedComponents() {}
+}
@@ -1,6 +1,7 @@
 package dagger.internal.codegen;
 
-import java.util.*;
+import java.io.IOException;
+import java.util.Optional;
 
 import com.squareup.javapoet.*;
 import dagger.Trigger;
@@ -12,14 +13,27 @@ import javax.lang.model.util.Elements;
 
 public class TestClassGenerator extends SourceFileGenerator<TestRegistry> {
 
+    private final Filer filer;
     private final TypeElement injector;
-    private UniqueNameSet uniqueNameSet;
 
     TestClassGenerator(Filer filer, Elements elements, TypeElement injector) {
         super(filer, elements);
+        this.filer = filer;
         this.injector = injector;
     }
 
+    @Override
+    void generate(TestRegistry input) throws SourceFileGenerationException {
+        if (input.isDebug()) {
+            try {
+                input.writeSources(filer);
+            } catch (IOException e) {
+                throw new SourceFileGenerationException(Optional.empty(), e, Optional.of(injector));
+            }
+        }
+        super.generate(input);
+    }
+
     @Override
     ClassName nameGeneratedType(TestRegistry input) {
         return input.getClassName();
@@ -37,30 +51,9 @@ public class TestClassGenerator extends SourceFileGenerator<TestRegistry> {
             return Optional.empty();
         }
 
-        uniqueNameSet = new UniqueNameSet();
+        // The sources themselves travel in the resource written by generate(); the class only marks
+        // the test compilation for the decoder and names the injector they were generated for.
         final TypeSpec.Builder builder = TypeSpec.classBuilder(generatedTypeName);
-        final Iterator<TestRegistry.EncodedClass> it = input.iterator();
-        while(it.hasNext()) {
-
-            final TestRegistry.EncodedClass encodedClass = it.next();
-            final String randomMethodName = getRandomMethodName();
-            List<CodeBlock> valueBlocks = new ArrayList<>();
-            for (String encodedPart : encodedClass.encodedParts) {
-                valueBlocks.add(CodeBlock.of("$S", encodedPart));
-            }
-            final CodeBlock values = valueBlocks.stream().collect(CodeBlocks.joiningCodeBlocks(","));
-            final AnnotationSpec annotation = AnnotationSpec.builder(Trigger.class)
-                    .addMember("value", "$L", "{" + values + "}")
-                    .addMember("qualifiedName", CodeBlock.of("$S", encodedClass.qualifiedName))
-                    .build();
-
-            final MethodSpec method = MethodSpec.methodBuilder(randomMethodName)
-                    .addAnnotation(annotation)
-                    .build();
-
-            builder.addMethod(method);
-        }
-
         builder.addAnnotation(AnnotationSpec.builder(Trigger.class)
             .addMember("value", "$L", CodeBlock.of("{}"))
             .addMember("qualifiedName", CodeBlock.of("$S", injector.getQualifiedName().toString()))
@@ -69,12 +62,6 @@ public class TestClassGenerator extends SourceFileGenerator<TestRegistry> {
         return Optional.of(builder);
     }
 
-    private String getRandomMethodName() {
-        final String randomString = UUID.randomUUID().toString().replace("-", "_");
-        final String randomMethodName = uniqueNameSet.getUniqueName("Method_" + randomString);
-        return randomMethodName;
-    }
-
     public static class Factory {
 
         private Filer filer;
@@ -1,47 +1,58 @@
 package dagger.internal.codegen;
 
-import com.google.common.base.Splitter;
-import com.google.common.collect.Iterables;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.JavaFile;
+import dagger.internal.testsources.TestSources;
+import javax.annotation.processing.Filer;
+import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Base64;
-import java.util.Iterator;
-import java.util.List;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static com.google.common.io.ByteStreams.toByteArray;
 
 /**
  * Created by Andy on 07.05.2017.
+ *
+ * <p>Collects the sources of the test classes generated in debug mode so that {@code
+ * dagger.decoder.DecodingProcessor} can recreate them when the tests are compiled. The sources are
+ * shipped as a single {@link TestSources} resource next to {@code dagger.TestTrigger} rather than
+ * inside its annotations.
  */
 public class TestRegistry {
 
-    private List<EncodedClass> encodedClasses = new ArrayList<>();
+    private final Map<String, byte[]> sources = new LinkedHashMap<>();
     private boolean debug = false;
 
     public void addEncodedClass(ClassName className, JavaFile javaFile) throws IOException {
         final JavaFileObject javaFileObject = javaFile.toJavaFileObject();
-        final InputStream inputStream = javaFileObject.openInputStream();
-        final String encodedClass = java.util.Base64.getEncoder().encodeToString(toByteArray(inputStream));
-        Iterable<String> result = Splitter.fixedLength(65000).split(encodedClass);
-        String[] parts = Iterables.toArray(result, String.class);
-        final String name = className.packageName() + "." + className.simpleName();
-        encodedClasses.add(new EncodedClass(name, parts));
+        try (InputStream inputStream = javaFileObject.openInputStream()) {
+            final String name = className.packageName() + "." + className.simpleName();
+            sources.put(name, toByteArray(inputStream));
+        }
     }
 
     public ClassName getClassName() {
         return ClassName.bestGuess("dagger.TestTrigger");
     }
 
-    public Iterator<EncodedClass> iterator() {
-        return encodedClasses.iterator();
+    /** Writes all collected sources as a class output resource that is visible to test compilations. */
+    public void writeSources(Filer filer) throws IOException {
+        final FileObject resource =
+                filer.createResource(
+                        StandardLocation.CLASS_OUTPUT, TestSources.PACKAGE, TestSources.RESOURCE);
+        try (OutputStream outputStream = resource.openOutputStream()) {
+            writeSources(outputStream);
+        }
     }
 
-    public byte[] decodeClass(String value) {
-        return Base64.getDecoder().decode(value);
+    /** Writes all collected sources to {@code outputStream} in the {@link TestSources} format. */
+    void writeSources(OutputStream outputStream) throws IOException {
+        TestSources.write(sources, outputStream);
     }
 
     public void setDebug(boolean debug) {
@@ -51,15 +62,4 @@ public class TestRegistry {
     public boolean isDebug() {
         return this.debug;
     }
-
-    public static class EncodedClass {
-
-        public EncodedClass(String qualifiedName, String[] encodedParts) {
-            this.qualifiedName = qualifiedName;
-            this.encodedParts = encodedParts;
-        }
-
-        public String qualifiedName;
-        public String[] encodedParts;
-    }
 }
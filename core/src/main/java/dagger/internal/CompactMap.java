@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.CompactSet.MAX_LINEAR_SCAN_SIZE;
+import static dagger.internal.CompactSet.indexOf;
+import static dagger.internal.CompactSet.insert;
+import static dagger.internal.CompactSet.newTable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable {@link Map} that stores its keys and values in parallel arrays, in insertion order,
+ * for the results of map multibindings. Keys are looked up the same way as in {@link CompactSet}.
+ *
+ * <p>Maps with the same keys, such as every {@code Map<K, V>} built from one {@code Map<K,
+ * Provider<V>>}, share the key array and hash table, so each one only costs its value array.
+ */
+final class CompactMap<K, V> extends AbstractMap<K, V> {
+  private static final CompactMap<Object, Object> EMPTY =
+      new CompactMap<Object, Object>(new Object[0], null, new Object[0]);
+
+  private final Object[] keys;
+  private final int[] table;
+  private final Object[] values;
+
+  private CompactMap(Object[] keys, int[] table, Object[] values) {
+    this.keys = keys;
+    this.table = table;
+    this.values = values;
+  }
+
+  @SuppressWarnings("unchecked") // safe covariant cast
+  static <K, V> CompactMap<K, V> of() {
+    return (CompactMap<K, V>) EMPTY;
+  }
+
+  /** Returns a new {@link Builder} for a map of {@code expectedSize} entries. */
+  static <K, V> Builder<K, V> builder(int expectedSize) {
+    return new Builder<K, V>(expectedSize);
+  }
+
+  /** Returns {@code map} if it is a {@link CompactMap}, or else a copy of it. */
+  @SuppressWarnings("unchecked") // safe covariant cast
+  static <K, V> CompactMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    if (map instanceof CompactMap) {
+      return (CompactMap<K, V>) map;
+    }
+    Builder<K, V> builder = builder(map.size());
+    for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+      builder.put(entry.getKey(), entry.getValue());
+    }
+    return builder.build();
+  }
+
+  /** Returns the value at {@code index} in iteration order. */
+  @SuppressWarnings("unchecked") // values only contains Vs
+  V valueAt(int index) {
+    return (V) values[index];
+  }
+
+  /**
+   * Returns a map with the same keys as this one, mapped to {@code newValues} by index. The map
+   * takes ownership of {@code newValues}, which must have one element per key.
+   */
+  <V2> CompactMap<K, V2> withValues(Object[] newValues) {
+    assert newValues.length == keys.length;
+    return new CompactMap<K, V2>(keys, table, newValues);
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(keys, keys.length, table, key) >= 0;
+  }
+
+  @Override
+  public V get(Object key) {
+    int index = indexOf(keys, keys.length, table, key);
+    return index < 0 ? null : valueAt(index);
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return new CompactSet<K>(keys, table);
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new EntrySet();
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<K, V>> {
+    @Override
+    public int size() {
+      return keys.length;
+    }
+
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+      return new Iterator<Entry<K, V>>() {
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+          return next < keys.length;
+        }
+
+        @SuppressWarnings("unchecked") // keys only contains Ks
+        @Override
+        public Entry<K, V> next() {
+          if (next >= keys.length) {
+            throw new NoSuchElementException();
+          }
+          Entry<K, V> entry = new SimpleImmutableEntry<K, V>((K) keys[next], valueAt(next));
+          next++;
+          return entry;
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  }
+
+  /**
+   * A builder of a {@link CompactMap}. As with {@link java.util.LinkedHashMap}, putting a key that
+   * is already present replaces its value but keeps its position.
+   */
+  static final class Builder<K, V> {
+    private Object[] keys;
+    private Object[] values;
+    private int[] table;
+    private int size;
+
+    private Builder(int expectedSize) {
+      keys = new Object[expectedSize];
+      values = new Object[expectedSize];
+      table = expectedSize > MAX_LINEAR_SCAN_SIZE ? newTable(expectedSize) : null;
+    }
+
+    /** Associates {@code key}, which must not be {@code null}, with {@code value}. */
+    Builder<K, V> put(K key, V value) {
+      int index = indexOf(keys, size, table, key);
+      if (index >= 0) {
+        values[index] = value;
+        return this;
+      }
+      if (size == keys.length) {
+        grow();
+      }
+      keys[size] = key;
+      values[size] = value;
+      if (table != null) {
+        insert(table, key, size);
+      }
+      size++;
+      return this;
+    }
+
+    private void grow() {
+      int newCapacity = Math.max(4, keys.length * 2);
+      keys = Arrays.copyOf(keys, newCapacity);
+      values = Arrays.copyOf(values, newCapacity);
+      if (newCapacity > MAX_LINEAR_SCAN_SIZE) {
+        table = newTable(newCapacity);
+        for (int i = 0; i < size; i++) {
+          insert(table, keys[i], i);
+        }
+      }
+    }
+
+    /** Returns a new map of the entries put so far. The builder must not be used afterwards. */
+    CompactMap<K, V> build() {
+      if (size == 0) {
+        return of();
+      }
+      if (size != keys.length) {
+        keys = Arrays.copyOf(keys, size);
+        values = Arrays.copyOf(values, size);
+      }
+      return new CompactMap<K, V>(keys, table, values);
+    }
+  }
+}
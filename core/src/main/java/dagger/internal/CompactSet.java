@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable {@link Set} that stores its elements in an array, in insertion order, for the
+ * results of multibindings.
+ *
+ * <p>Compared to an unmodifiable {@link java.util.HashSet} this needs no entry object per element
+ * and no wrapper, and iteration is a walk over an array. Small sets, which are the vast majority of
+ * multibindings, are searched linearly; larger ones also keep an open-addressing table of indices
+ * into the array.
+ */
+final class CompactSet<E> extends AbstractSet<E> {
+  /** Sets of up to this many elements are searched linearly instead of with a hash table. */
+  static final int MAX_LINEAR_SCAN_SIZE = 8;
+
+  private static final CompactSet<Object> EMPTY = new CompactSet<Object>(new Object[0], null);
+
+  private final Object[] elements;
+
+  /**
+   * For each element, its index in {@link #elements} plus one, at a position derived from its hash
+   * code. Zero marks a free slot. {@code null} if the set is small enough to be searched linearly.
+   */
+  private final int[] table;
+
+  CompactSet(Object[] elements, int[] table) {
+    this.elements = elements;
+    this.table = table;
+  }
+
+  @SuppressWarnings("unchecked") // safe covariant cast
+  static <E> CompactSet<E> of() {
+    return (CompactSet<E>) EMPTY;
+  }
+
+  /**
+   * Returns a set of the first {@code size} non-null values in {@code elements}, in order and
+   * without duplicates. The set may take ownership of {@code elements}, so callers must not modify
+   * it afterwards.
+   */
+  static <E> CompactSet<E> ownerOf(Object[] elements, int size) {
+    if (size == 0) {
+      return of();
+    }
+    int[] table = size > MAX_LINEAR_SCAN_SIZE ? newTable(size) : null;
+    int distinct = 0;
+    for (int i = 0; i < size; i++) {
+      Object element = elements[i];
+      if (indexOf(elements, distinct, table, element) < 0) {
+        elements[distinct] = element;
+        if (table != null) {
+          insert(table, element, distinct);
+        }
+        distinct++;
+      }
+    }
+    return new CompactSet<E>(
+        distinct == elements.length ? elements : Arrays.copyOf(elements, distinct), table);
+  }
+
+  @Override
+  public int size() {
+    return elements.length;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return indexOf(elements, elements.length, table, o) >= 0;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new ArrayIterator<E>(elements);
+  }
+
+  @Override
+  public Object[] toArray() {
+    return elements.clone();
+  }
+
+  /** Returns a hash table for {@code size} elements with a load factor of at most one half. */
+  static int[] newTable(int size) {
+    return new int[Integer.highestOneBit(size * 2 - 1) << 1];
+  }
+
+  /** Records in {@code table} that {@code value} is at {@code index}. */
+  static void insert(int[] table, Object value, int index) {
+    int mask = table.length - 1;
+    for (int slot = smear(value.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+      if (table[slot] == 0) {
+        table[slot] = index + 1;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the index of {@code o} among the first {@code size} values in {@code values}, or
+   * {@code -1}. Uses {@code table} if it is not {@code null}.
+   */
+  static int indexOf(Object[] values, int size, int[] table, Object o) {
+    if (o == null) {
+      return -1;
+    }
+    if (table == null) {
+      for (int i = 0; i < size; i++) {
+        if (o.equals(values[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    int mask = table.length - 1;
+    for (int slot = smear(o.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+      int index = table[slot] - 1;
+      if (index < 0) {
+        return -1;
+      }
+      if (o.equals(values[index])) {
+        return index;
+      }
+    }
+  }
+
+  /** Spreads the bits of a hash code so that poorly distributed ones can be masked. */
+  private static int smear(int hashCode) {
+    return 0x1b873593 * Integer.rotateLeft(hashCode * 0xcc9e2d51, 15);
+  }
+
+  /** An unmodifiable iterator over an array. */
+  static final class ArrayIterator<E> implements Iterator<E> {
+    private final Object[] values;
+    private int next;
+
+    ArrayIterator(Object[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < values.length;
+    }
+
+    @SuppressWarnings("unchecked") // values only contains Es
+    @Override
+    public E next() {
+      if (next >= values.length) {
+        throw new NoSuchElementException();
+      }
+      return (E) values[next++];
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
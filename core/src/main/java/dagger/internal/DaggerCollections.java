@@ -19,7 +19,6 @@ package dagger.internal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
 
@@ -28,11 +27,6 @@ import java.util.Set;
  * code.
  */
 public final class DaggerCollections {
-  /**
-   * The maximum value for a signed 32-bit integer that is equal to a power of 2.
-   */
-  private static final int MAX_POWER_OF_TWO = 1 << (Integer.SIZE - 2);
-
   private DaggerCollections() {}
 
   /**
@@ -57,33 +51,4 @@ public final class DaggerCollections {
     Set<Object> asSet = new HashSet<Object>(list);
     return list.size() != asSet.size();
   }
-
-  /**
-   * Creates a {@link HashSet} instance, with a high enough "intial capcity" that it <em>should</em>
-   * hold {@code expectedSize} elements without growth.
-   */
-  static <T> HashSet<T> newHashSetWithExpectedSize(int expectedSize) {
-    return new HashSet<T>(calculateInitialCapacity(expectedSize));
-  }
-
-  /**
-   * Creates a {@link LinkedHashMap} instance, with a high enough "initial capacity" that it
-   * <em>should</em> hold {@code expectedSize} elements without growth.
-   */
-  static <K, V> LinkedHashMap<K, V> newLinkedHashMapWithExpectedSize(int expectedSize) {
-    return new LinkedHashMap<K, V>(calculateInitialCapacity(expectedSize));
-  }
-
-  private static int calculateInitialCapacity(int expectedSize) {
-    if (expectedSize < 3) {
-      return expectedSize + 1;
-    }
-    if (expectedSize < MAX_POWER_OF_TWO) {
-      // This is the calculation used in JDK8 to resize when a putAll
-      // happens; it seems to be the most conservative calculation we
-      // can make.  0.75 is the default load factor.
-      return (int) (expectedSize / 0.75F + 1.0F);
-    }
-    return Integer.MAX_VALUE; // any large value
-  }
 }
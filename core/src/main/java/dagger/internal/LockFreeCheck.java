@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import dagger.Lazy;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Provider;
+
+/**
+ * A {@link Lazy} and {@link Provider} implementation that memoizes the value returned from a
+ * delegate like {@link DoubleCheck}, but without taking a lock.
+ *
+ * <p>Once initialized, the value is read through a plain field that points to an immutable holder.
+ * The holder's {@code final} field guarantees that a thread that sees the holder also sees the
+ * fully constructed value, so {@link #get()} is a single non-volatile read on the fast path. The
+ * delegate is still invoked at most once: the first caller claims initialization with a
+ * compare-and-set. Threads that race with it yield for a short while, since initialization is
+ * usually quick, and only block if the value still hasn't been published by then.
+ *
+ * <p>This suits scoped bindings that are read from many threads far more often than they are
+ * created. The compiler uses it instead of {@link DoubleCheck} when {@code
+ * -Adagger.lockFreeScopedProviders=enabled} is passed.
+ */
+@GwtIncompatible
+public final class LockFreeCheck<T> implements Provider<T>, Lazy<T> {
+  private static final Object UNINITIALIZED = new Object();
+
+  /** How many times a racing thread yields before it blocks until initialization completes. */
+  private static final int MAX_SPINS = 100;
+
+  /** Immutable holder whose final field safely publishes the memoized value. */
+  private static final class Holder<T> {
+    final T value;
+
+    Holder(T value) {
+      this.value = value;
+    }
+  }
+
+  private volatile Provider<T> provider;
+
+  /**
+   * {@link #UNINITIALIZED}, the {@link Thread} that is currently invoking {@link #provider}, or
+   * the {@link Holder} of the value.
+   */
+  private final AtomicReference<Object> state = new AtomicReference<Object>(UNINITIALIZED);
+
+  /**
+   * A racy cache of the published holder. This is intentionally not volatile: a stale {@code null}
+   * only sends the caller to {@link #slowGet()}, and a non-null holder is always fully visible.
+   */
+  private Holder<T> holder;
+
+  /**
+   * Whether any thread has blocked, or is about to block, waiting on {@link #state}. Initializing
+   * threads only take {@link #state}'s monitor to wake waiters when this is set.
+   */
+  private volatile boolean hasWaiters;
+
+  private LockFreeCheck(Provider<T> provider) {
+    assert provider != null;
+    this.provider = provider;
+  }
+
+  @Override
+  public T get() {
+    Holder<T> result = holder;
+    if (result != null) {
+      return result.value;
+    }
+    return slowGet();
+  }
+
+  @SuppressWarnings("unchecked") // only holders are stored in state, other than the markers
+  private T slowGet() {
+    Thread currentThread = Thread.currentThread();
+    int spins = 0;
+    while (true) {
+      Object currentState = state.get();
+      if (currentState instanceof Holder) {
+        Holder<T> published = (Holder<T>) currentState;
+        holder = published;
+        return published.value;
+      }
+      if (currentState == UNINITIALIZED) {
+        if (state.compareAndSet(UNINITIALIZED, currentThread)) {
+          return initialize();
+        }
+      } else if (currentState == currentThread) {
+        /* The provider called back into this instance while it was being initialized. As with
+         * DoubleCheck, this is allowed as long as both invocations agree on the instance. */
+        return publish(provider.get());
+      } else if (spins < MAX_SPINS) {
+        // Another thread is initializing; give it a chance to publish or give up.
+        spins++;
+        Thread.yield();
+      } else {
+        awaitInitialization(currentState);
+      }
+    }
+  }
+
+  private T initialize() {
+    Thread currentThread = Thread.currentThread();
+    try {
+      T result;
+      try {
+        result = provider.get();
+      } catch (Throwable t) {
+        // Includes checked exceptions thrown sneakily, which would otherwise strand waiters.
+        releaseClaim(currentThread);
+        throw t;
+      }
+      T published = publish(result);
+      /* Null out the reference to the provider. We are never going to need it again, so we can
+       * make it eligible for GC. */
+      provider = null;
+      return published;
+    } finally {
+      wakeWaiters();
+    }
+  }
+
+  /**
+   * Lets another caller retry initialization after the provider failed, unless a reentrant
+   * invocation already published a value, which is kept.
+   */
+  private void releaseClaim(Thread currentThread) {
+    state.compareAndSet(currentThread, UNINITIALIZED);
+  }
+
+  /** Blocks until {@code initializingThread} publishes a value or gives up. */
+  private void awaitInitialization(Object initializingThread) {
+    boolean interrupted = false;
+    synchronized (state) {
+      /* Set before reading state, so that either this thread sees the initializer's change to
+       * state, or the initializer sees that there are waiters and notifies them. */
+      hasWaiters = true;
+      while (state.get() == initializingThread) {
+        try {
+          state.wait();
+        } catch (InterruptedException e) {
+          // Like DoubleCheck, which blocks uninterruptibly on its monitor.
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void wakeWaiters() {
+    if (hasWaiters) {
+      synchronized (state) {
+        state.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Publishes {@code result} unless a reentrant invocation already published a value, in which case
+   * the two must be the same instance.
+   */
+  @SuppressWarnings("unchecked") // only holders are stored in state, other than the markers
+  private T publish(T result) {
+    Object currentState = state.get();
+    if (currentState instanceof Holder) {
+      Object currentInstance = ((Holder<T>) currentState).value;
+      if (currentInstance != result) {
+        throw new IllegalStateException("Scoped provider was invoked recursively returning "
+            + "different results: " + currentInstance + " & " + result + ". This is likely "
+            + "due to a circular dependency.");
+      }
+      return result;
+    }
+    Holder<T> newHolder = new Holder<T>(result);
+    state.set(newHolder);
+    holder = newHolder;
+    return result;
+  }
+
+  /** Returns a {@link Provider} that caches the value from the given delegate provider. */
+  public static <T> Provider<T> provider(Provider<T> delegate) {
+    checkNotNull(delegate);
+    if (delegate instanceof LockFreeCheck || delegate instanceof DoubleCheck) {
+      /* This should be a rare case, but if we have a scoped @Binds that delegates to a scoped
+       * binding, we shouldn't cache the value again. */
+      return delegate;
+    }
+    return new LockFreeCheck<T>(delegate);
+  }
+
+  /** Returns a {@link Lazy} that caches the value from the given provider. */
+  public static <T> Lazy<T> lazy(Provider<T> provider) {
+    if (provider instanceof Lazy) {
+      @SuppressWarnings("unchecked")
+      final Lazy<T> lazy = (Lazy<T>) provider;
+      // Avoids memoizing a value that is already memoized.
+      return lazy;
+    }
+    return new LockFreeCheck<T>(checkNotNull(provider));
+  }
+}
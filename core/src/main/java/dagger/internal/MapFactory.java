@@ -16,11 +16,7 @@
 
 package dagger.internal;
 
-import static dagger.internal.DaggerCollections.newLinkedHashMapWithExpectedSize;
-import static java.util.Collections.unmodifiableMap;
-
 import java.util.Map;
-import java.util.Map.Entry;
 import javax.inject.Provider;
 
 /**
@@ -32,10 +28,10 @@ import javax.inject.Provider;
  *
  */
 public final class MapFactory<K, V> implements Factory<Map<K, V>> {
-  private final Map<K, Provider<V>> contributingMap;
+  private final CompactMap<K, Provider<V>> contributingMap;
 
   private MapFactory(Map<K, Provider<V>> map) {
-    this.contributingMap = unmodifiableMap(map);
+    this.contributingMap = CompactMap.copyOf(map);
   }
 
   /**
@@ -52,10 +48,10 @@ public final class MapFactory<K, V> implements Factory<Map<K, V>> {
    */
   @Override
   public Map<K, V> get() {
-    Map<K, V> result = newLinkedHashMapWithExpectedSize(contributingMap.size());
-    for (Entry<K, Provider<V>> entry: contributingMap.entrySet()) {
-      result.put(entry.getKey(), entry.getValue().get());
+    Object[] values = new Object[contributingMap.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = contributingMap.valueAt(i).get();
     }
-    return unmodifiableMap(result);
+    return contributingMap.withValues(values);
   }
 }
@@ -16,12 +16,7 @@
 
 package dagger.internal;
 
-import static dagger.internal.DaggerCollections.newLinkedHashMapWithExpectedSize;
-import static java.util.Collections.unmodifiableMap;
-
 import dagger.Lazy;
-import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import javax.inject.Provider;
 
@@ -35,9 +30,9 @@ import javax.inject.Provider;
 public final class MapProviderFactory<K, V>
     implements Factory<Map<K, Provider<V>>>, Lazy<Map<K, Provider<V>>> {
   private static final MapProviderFactory<Object, Object> EMPTY =
-      new MapProviderFactory<Object, Object>(Collections.<Object, Provider<Object>>emptyMap());
+      new MapProviderFactory<Object, Object>(CompactMap.<Object, Provider<Object>>of());
 
-  private final Map<K, Provider<V>> contributingMap;
+  private final CompactMap<K, Provider<V>> contributingMap;
 
   /**
    * Returns a new {@link Builder}
@@ -54,8 +49,8 @@ public final class MapProviderFactory<K, V>
     return (MapProviderFactory<K, V>) EMPTY;
   }
 
-  private MapProviderFactory(Map<K, Provider<V>> contributingMap) {
-    this.contributingMap = unmodifiableMap(contributingMap);
+  private MapProviderFactory(CompactMap<K, Provider<V>> contributingMap) {
+    this.contributingMap = contributingMap;
   }
 
   /**
@@ -72,18 +67,17 @@ public final class MapProviderFactory<K, V>
    * A builder to help build the {@link MapProviderFactory}
    */
   public static final class Builder<K, V> {
-    private final LinkedHashMap<K, Provider<V>> mapBuilder;
+    private final CompactMap.Builder<K, Provider<V>> mapBuilder;
 
     private Builder(int size) {
-      // TODO(user): consider which way to initialize mapBuilder is better
-      this.mapBuilder = newLinkedHashMapWithExpectedSize(size);
+      this.mapBuilder = CompactMap.builder(size);
     }
 
     /**
      * Returns a new {@link MapProviderFactory}
      */
     public MapProviderFactory<K, V> build() {
-      return new MapProviderFactory<K, V>(this.mapBuilder);
+      return new MapProviderFactory<K, V>(this.mapBuilder.build());
     }
 
     /**
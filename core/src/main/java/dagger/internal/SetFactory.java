@@ -17,11 +17,9 @@
 package dagger.internal;
 
 import static dagger.internal.DaggerCollections.hasDuplicates;
-import static dagger.internal.DaggerCollections.newHashSetWithExpectedSize;
 import static dagger.internal.DaggerCollections.presizedList;
 import static dagger.internal.Preconditions.checkNotNull;
 import static java.util.Collections.emptySet;
-import static java.util.Collections.unmodifiableSet;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -34,6 +32,10 @@ import javax.inject.Provider;
  * returns a new {@link Set} instance for each call to {@link #get} (as required by {@link Factory})
  * whose elements are populated by subsequent calls to their {@link Provider#get} methods.
  *
+ * <p>If every contributing provider always returns the same instance, as scoped providers do, a
+ * factory created with {@link Builder#buildMemoized()} instead builds the set once and returns
+ * that instance from every subsequent call.
+ *
  * @author Gregory Kick
  * @since 2.0
  */
@@ -90,28 +92,65 @@ public final class SetFactory<T> implements Factory<Set<T>> {
       assert !hasDuplicates(collectionProviders)
           : "Codegen error?  Duplicates in the provider list";
 
-      return new SetFactory<T>(individualProviders, collectionProviders);
+      return new SetFactory<T>(individualProviders, collectionProviders, false);
+    }
+
+    /**
+     * Returns a {@link SetFactory} that builds its set on the first call to {@link #get} and
+     * returns the same instance from then on. This is only correct if each provider returns the
+     * same value on every call.
+     */
+    public SetFactory<T> buildMemoized() {
+      assert !hasDuplicates(individualProviders)
+          : "Codegen error?  Duplicates in the provider list";
+      assert !hasDuplicates(collectionProviders)
+          : "Codegen error?  Duplicates in the provider list";
+
+      return new SetFactory<T>(individualProviders, collectionProviders, true);
     }
   }
 
   private final List<Provider<T>> individualProviders;
   private final List<Provider<Collection<T>>> collectionProviders;
+  private final boolean memoize;
+
+  /**
+   * The set returned by a memoizing factory, or {@code null} if it has not been built yet. Racing
+   * threads may each build the set, but they all build an equal one.
+   */
+  private volatile Set<T> memoizedSet;
 
   private SetFactory(
-      List<Provider<T>> individualProviders, List<Provider<Collection<T>>> collectionProviders) {
+      List<Provider<T>> individualProviders,
+      List<Provider<Collection<T>>> collectionProviders,
+      boolean memoize) {
     this.individualProviders = individualProviders;
     this.collectionProviders = collectionProviders;
+    this.memoize = memoize;
   }
 
   /**
    * Returns a {@link Set} whose iteration order is that of the elements given by each of the
-   * providers, which are invoked in the order given at creation.
+   * providers, which are invoked in the order given at creation. A factory created with {@link
+   * Builder#buildMemoized()} only invokes the providers until a set has been built successfully.
    *
    * @throws NullPointerException if any of the delegate {@link Set} instances or elements therein
    *     are {@code null}
    */
   @Override
   public Set<T> get() {
+    if (!memoize) {
+      return buildSet();
+    }
+    Set<T> result = memoizedSet;
+    if (result == null) {
+      result = buildSet();
+      memoizedSet = result;
+    }
+    return result;
+  }
+
+  private Set<T> buildSet() {
     int size = individualProviders.size();
     // Profiling revealed that this method was a CPU-consuming hotspot in some applications, so
     // these loops were changed to use c-style for.  Versus enhanced for-each loops, C-style for is
@@ -125,16 +164,17 @@ public final class SetFactory<T> implements Factory<Set<T>> {
       providedCollections.add(providedCollection);
     }
 
-    Set<T> providedValues = newHashSetWithExpectedSize(size);
+    Object[] providedValues = new Object[size];
+    int index = 0;
     for (int i = 0, c = individualProviders.size(); i < c; i++) {
-      providedValues.add(checkNotNull(individualProviders.get(i).get()));
+      providedValues[index++] = checkNotNull(individualProviders.get(i).get());
     }
     for (int i = 0, c = providedCollections.size(); i < c; i++) {
       for (T element : providedCollections.get(i)) {
-        providedValues.add(checkNotNull(element));
+        providedValues[index++] = checkNotNull(element);
       }
     }
 
-    return unmodifiableSet(providedValues);
+    return CompactSet.ownerOf(providedValues, index);
   }
 }
@@ -1,25 +1,34 @@
 package dagger.decoder;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
 
 import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
 import javax.xml.bind.DatatypeConverter;
 
 import dagger.Trigger;
+import dagger.internal.testsources.TestSources;
 
 class DecodingProcessingStep {
 
     private Filer filer;
+    private Messager messager;
 
-    DecodingProcessingStep(Filer filer) {
+    DecodingProcessingStep(Filer filer, Messager messager) {
         this.filer = filer;
+        this.messager = messager;
     }
 
     private static byte[] decodeClass(String value) {
@@ -27,6 +36,13 @@ class DecodingProcessingStep {
     }
 
     public void process(TypeElement typeElement) {
+        try {
+            processSources();
+        } catch (IOException e) {
+            printError("Could not recreate the test sources from " + TestSources.PACKAGE + "/"
+                    + TestSources.RESOURCE, e);
+        }
+        // Triggers generated before the sources moved to a resource still carry them inline.
         List<? extends Element> enclosedElements = typeElement.getEnclosedElements();
         enclosedElements.stream()
                         .filter(this::isMethod)
@@ -38,11 +54,15 @@ class DecodingProcessingStep {
                             try {
                                 process(trigger);
                             } catch (IOException e) {
-                                e.printStackTrace();
+                                printError("Could not recreate " + trigger.qualifiedName(), e);
                             }
                         });
     }
 
+    private void printError(String message, IOException e) {
+        messager.printMessage(Kind.ERROR, message + ": " + e);
+    }
+
     private boolean hasTriggerAnnotation(Element method) {
         return method.getAnnotation(Trigger.class) != null;
     }
@@ -64,4 +84,23 @@ class DecodingProcessingStep {
         os.flush();
         os.close();
     }
+
+    /**
+     * Recreates the sources from the {@link TestSources} resource that was written next to the
+     * trigger, streaming each one straight into its source file. Does nothing if the trigger was
+     * generated without the resource.
+     */
+    private void processSources() throws IOException {
+        final InputStream resourceStream;
+        try {
+            final FileObject resource = filer.getResource(
+                    StandardLocation.CLASS_PATH, TestSources.PACKAGE, TestSources.RESOURCE);
+            resourceStream = resource.openInputStream();
+        } catch (FileNotFoundException | IllegalArgumentException e) {
+            return;
+        }
+        TestSources.read(
+                resourceStream,
+                qualifiedName -> filer.createSourceFile(qualifiedName).openOutputStream());
+    }
 }
@@ -48,7 +48,7 @@ public class DecodingProcessor extends AbstractProcessor
             return false;
         }
         alreadyProcessed = true;
-        DecodingProcessingStep step = new DecodingProcessingStep(filer);
+        DecodingProcessingStep step = new DecodingProcessingStep(filer, processingEnv.getMessager());
         step.process(triggerElement);
         return false;
     }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.grpc.server;
+
+/**
+ * A hook for recording the timing of calls to one method of a {@link GrpcService @GrpcService}.
+ * Recorders are shared by all calls to the method, so implementations must be thread-safe.
+ *
+ * <p>The timings separate the work Dagger does for a call from the work of the service itself: the
+ * {@linkplain #recordCallStartup startup} of a call proxied by a {@code GrpcProxyModule} is
+ * dominated by building its call-scoped component and service definition, while the service's
+ * handler runs in the {@linkplain #recordHandler listener callbacks} that follow.
+ */
+public abstract class GrpcMethodTimingRecorder {
+  /**
+   * Reports that a call has started. Together with {@link #recordCallFinished}, this lets a
+   * recorder count calls and track how many are in flight.
+   */
+  public void recordCallStarted() {}
+
+  /**
+   * Reports how long it took to start a call, including building its call-scoped component and
+   * service definition. If the service runs on its own {@linkplain ForGrpcService executor}, that
+   * work happens on the executor and is counted in {@link #recordHandler} instead.
+   *
+   * @param durationNanos the wall-clock time, in nanoseconds, that starting the call took
+   */
+  public void recordCallStartup(long durationNanos) {}
+
+  /**
+   * Reports that one callback of the call's listener, such as the delivery of a request message
+   * or the half-close that runs a unary handler, has returned.
+   *
+   * @param durationNanos the wall-clock time, in nanoseconds, that the callback took
+   */
+  public void recordHandler(long durationNanos) {}
+
+  /**
+   * Reports that a call has finished.
+   *
+   * @param completed {@code true} if the call completed, {@code false} if it was cancelled or
+   *     failed to start
+   * @param latencyNanos the wall-clock time, in nanoseconds, from when the call started to when
+   *     it finished
+   */
+  public void recordCallFinished(boolean completed, long latencyNanos) {}
+
+  /** Returns a method recorder that does nothing. */
+  public static GrpcMethodTimingRecorder noOp() {
+    return NO_OP;
+  }
+
+  private static final GrpcMethodTimingRecorder NO_OP = new GrpcMethodTimingRecorder() {};
+}
@@ -51,4 +51,11 @@ import java.lang.annotation.Target;
 public @interface GrpcService {
   /** The class that gRPC generates from the proto service definition. */
   Class<?> grpcClass();
+
+  /**
+   * If {@code true}, {@code FooGrpcProxyModule} intercepts every call to the service with a
+   * {@link TimingServerInterceptor} that reports to the {@link GrpcServiceTimingRecorder.Factory}
+   * set binding.
+   */
+  boolean recordTimings() default false;
 }
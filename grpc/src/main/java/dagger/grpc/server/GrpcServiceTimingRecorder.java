@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.grpc.server;
+
+import io.grpc.MethodDescriptor;
+
+/**
+ * A hook for recording the timing of calls to a {@link GrpcService @GrpcService}. To install a
+ * {@code GrpcServiceTimingRecorder}, set {@link GrpcService#recordTimings()} on the service and
+ * contribute to a set binding of {@code GrpcServiceTimingRecorder.Factory} in the component that
+ * installs {@link ServerModule}. The factory will be asked to create one timing recorder for each
+ * service, and the resulting instance will be used to create individual timing recorders for its
+ * methods.
+ *
+ * <p>If any of these methods throw, then the exception will be logged, and the framework will act
+ * as though a no-op timing recorder was returned.
+ */
+public interface GrpcServiceTimingRecorder {
+  /** Returns a timing recorder for an individual method of the service. */
+  GrpcMethodTimingRecorder methodTimingRecorderFor(MethodDescriptor<?, ?> method);
+
+  public interface Factory {
+    /** Creates a service-specific timing recorder when the server is created. */
+    GrpcServiceTimingRecorder create(String serviceName);
+  }
+}
@@ -16,6 +16,10 @@
 
 package dagger.grpc.server;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Optional;
+import io.grpc.Context;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.MethodDescriptor.Marshaller;
@@ -26,11 +30,18 @@ import io.grpc.ServerMethodDefinition;
 import io.grpc.ServerServiceDefinition;
 import io.grpc.Status;
 import java.io.InputStream;
+import java.util.concurrent.Executor;
 
 /**
  * A {@link ServerCallHandler} that handles calls for a particular method by delegating to a handler
  * in a {@link ServerServiceDefinition} returned by a factory.
  *
+ * <p>The proxy never buffers payloads itself. Each request {@link InputStream} that the
+ * transport hands to the proxy is passed as is to the delegate's request marshaller. Each response
+ * stream from the delegate's response marshaller is passed as is to the transport. As a result,
+ * marshallers that read {@link io.grpc.KnownLength} streams or produce {@link io.grpc.Drainable}
+ * ones, like the protobuf marshallers, keep their single-copy fast paths behind the proxy.
+ *
  * @param <RequestT> the type of the request payloads
  * @param <ResponseT> the type of the response payloads
  */
@@ -50,7 +61,9 @@ public final class ProxyServerCallHandler<RequestT, ResponseT>
   }
 
   private final MethodDescriptor<RequestT, ResponseT> delegateMethodDescriptor;
+  private final String fullMethodName;
   private final ServiceDefinitionFactory delegateServiceDefinitionFactory;
+  private final Optional<Executor> callExecutor;
 
   /**
    * Returns a proxy method definition for {@code methodDescriptor}.
@@ -60,46 +73,84 @@ public final class ProxyServerCallHandler<RequestT, ResponseT>
   public static <RequestT, ResponseT> ServerMethodDefinition<InputStream, InputStream> proxyMethod(
       MethodDescriptor<RequestT, ResponseT> delegateMethodDescriptor,
       ServiceDefinitionFactory delegateServiceDefinitionFactory) {
+    return proxyMethod(
+        delegateMethodDescriptor, delegateServiceDefinitionFactory, Optional.<Executor>absent());
+  }
+
+  /**
+   * Returns a proxy method definition for {@code methodDescriptor}.
+   *
+   * @param delegateServiceDefinitionFactory factory for the delegate service definition
+   * @param callExecutor if present, the executor that builds the delegate service definition and
+   *     runs the delegate's handler for each call, instead of the server's executor
+   */
+  public static <RequestT, ResponseT> ServerMethodDefinition<InputStream, InputStream> proxyMethod(
+      MethodDescriptor<RequestT, ResponseT> delegateMethodDescriptor,
+      ServiceDefinitionFactory delegateServiceDefinitionFactory,
+      Optional<Executor> callExecutor) {
     return ServerMethodDefinition.create(
         MethodDescriptor.create(
             delegateMethodDescriptor.getType(),
             delegateMethodDescriptor.getFullMethodName(),
             IDENTITY_MARSHALLER,
             IDENTITY_MARSHALLER),
-        new ProxyServerCallHandler<>(delegateMethodDescriptor, delegateServiceDefinitionFactory));
+        new ProxyServerCallHandler<>(
+            delegateMethodDescriptor, delegateServiceDefinitionFactory, callExecutor));
   }
 
   ProxyServerCallHandler(
       MethodDescriptor<RequestT, ResponseT> delegateMethodDescriptor,
-      ServiceDefinitionFactory delegateServiceDefinitionFactory) {
+      ServiceDefinitionFactory delegateServiceDefinitionFactory,
+      Optional<Executor> callExecutor) {
     this.delegateMethodDescriptor = delegateMethodDescriptor;
+    this.fullMethodName = delegateMethodDescriptor.getFullMethodName();
     this.delegateServiceDefinitionFactory = delegateServiceDefinitionFactory;
+    this.callExecutor = checkNotNull(callExecutor);
   }
 
   @Override
   public Listener<InputStream> startCall(
       ServerCall<InputStream, InputStream> call,
       Metadata headers) {
+    if (callExecutor.isPresent()) {
+      DispatchingListener dispatchingListener =
+          new DispatchingListener(new SerializingExecutor(callExecutor.get()));
+      dispatchingListener.start(call, headers);
+      return new ServerCallListenerAdapter(dispatchingListener);
+    }
+    return new ServerCallListenerAdapter(startDelegateListener(call, headers));
+  }
+
+  /** Builds the delegate service definition for a call and starts the delegate's handler. */
+  private Listener<RequestT> startDelegateListener(
+      ServerCall<InputStream, InputStream> call,
+      Metadata headers) {
     ServerMethodDefinition<RequestT, ResponseT> delegateMethod = getMethodDefinition(headers);
-    Listener<RequestT> delegateListener =
-        delegateMethod
-            .getServerCallHandler()
-            .startCall(new ServerCallAdapter(call, delegateMethod.getMethodDescriptor()), headers);
-    return new ServerCallListenerAdapter(delegateListener);
+    return delegateMethod
+        .getServerCallHandler()
+        .startCall(new ServerCallAdapter(call, delegateMethod.getMethodDescriptor()), headers);
   }
 
+  /**
+   * Returns the delegate's definition of this handler's method. The service definition indexes its
+   * methods by full name, so this is a single hash lookup rather than a scan over every method of
+   * the service.
+   */
   @SuppressWarnings("unchecked") // Method definition is the correct type.
   private ServerMethodDefinition<RequestT, ResponseT> getMethodDefinition(Metadata headers) {
-    String fullMethodName = delegateMethodDescriptor.getFullMethodName();
-    for (ServerMethodDefinition<?, ?> methodDefinition :
-        delegateServiceDefinitionFactory.getServiceDefinition(headers).getMethods()) {
-      if (methodDefinition.getMethodDescriptor().getFullMethodName().equals(fullMethodName)) {
-        return (ServerMethodDefinition<RequestT, ResponseT>) methodDefinition;
-      }
-    }
-    throw new IllegalStateException("Could not find " + fullMethodName);
+    ServerMethodDefinition<?, ?> methodDefinition =
+        delegateServiceDefinitionFactory.getServiceDefinition(headers).getMethod(fullMethodName);
+    if (methodDefinition == null) {
+      throw new IllegalStateException("Could not find " + fullMethodName);
+    }
+    return (ServerMethodDefinition<RequestT, ResponseT>) methodDefinition;
   }
 
+  /**
+   * Passes streams through unchanged. Wrapping or copying them here would hide the {@link
+   * io.grpc.KnownLength} and {@link io.grpc.Drainable} interfaces the transport and the delegate
+   * marshallers check for.
+   */
   private static final Marshaller<InputStream> IDENTITY_MARSHALLER =
       new Marshaller<InputStream>() {
         @Override
@@ -143,6 +194,115 @@ public final class ProxyServerCallHandler<RequestT, ResponseT>
     }
   }
 
+  /**
+   * A {@link Listener} that starts the delegate call and forwards every callback to it on the
+   * service's executor, one at a time and in the order gRPC delivered them. Requests are parsed
+   * by {@link ServerCallListenerAdapter} before they get here, because gRPC closes each request
+   * stream as soon as {@link Listener#onMessage} returns.
+   */
+  private final class DispatchingListener extends Listener<RequestT> {
+
+    private final SerializingExecutor executor;
+
+    /** The delegate listener, or {@code null} if the call has not started or failed to start. */
+    private Listener<RequestT> delegate;
+
+    DispatchingListener(SerializingExecutor executor) {
+      this.executor = executor;
+    }
+
+    void start(final ServerCall<InputStream, InputStream> call, final Metadata headers) {
+      executor.execute(
+          Context.current()
+              .wrap(
+                  new Runnable() {
+                    @Override
+                    public void run() {
+                      try {
+                        delegate = startDelegateListener(call, headers);
+                      } catch (RuntimeException | Error e) {
+                        call.close(Status.fromThrowable(e), new Metadata());
+                      }
+                    }
+                  }));
+    }
+
+    /** Runs {@code callback} on the executor if the delegate call has started. */
+    private void dispatch(final DelegateCallback callback) {
+      executor.execute(
+          Context.current()
+              .wrap(
+                  new Runnable() {
+                    @Override
+                    public void run() {
+                      if (delegate != null) {
+                        callback.run(delegate);
+                      }
+                    }
+                  }));
+    }
+
+    @Override
+    public void onMessage(final RequestT message) {
+      dispatch(
+          new DelegateCallback() {
+            @Override
+            void run(Listener<RequestT> delegate) {
+              delegate.onMessage(message);
+            }
+          });
+    }
+
+    @Override
+    public void onHalfClose() {
+      dispatch(
+          new DelegateCallback() {
+            @Override
+            void run(Listener<RequestT> delegate) {
+              delegate.onHalfClose();
+            }
+          });
+    }
+
+    @Override
+    public void onCancel() {
+      dispatch(
+          new DelegateCallback() {
+            @Override
+            void run(Listener<RequestT> delegate) {
+              delegate.onCancel();
+            }
+          });
+    }
+
+    @Override
+    public void onComplete() {
+      dispatch(
+          new DelegateCallback() {
+            @Override
+            void run(Listener<RequestT> delegate) {
+              delegate.onComplete();
+            }
+          });
+    }
+
+    @Override
+    public void onReady() {
+      dispatch(
+          new DelegateCallback() {
+            @Override
+            void run(Listener<RequestT> delegate) {
+              delegate.onReady();
+            }
+          });
+    }
+  }
+
+  /** A callback that {@link DispatchingListener} runs against the delegate listener. */
+  private abstract class DelegateCallback {
+    abstract void run(Listener<RequestT> delegate);
+  }
+
   /**
    * A {@link ServerCall} that adapts {@code ServerCall<InputStream>} to {@code
    * ServerCall<ResponseT>}.
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.grpc.server;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An {@link Executor} that runs the tasks submitted to it one at a time, in submission order, on a
+ * delegate executor. {@link ProxyServerCallHandler} uses one per call so that the listener
+ * callbacks of a call keep gRPC's ordering guarantees when they are moved to a service's executor.
+ */
+final class SerializingExecutor implements Executor {
+
+  private final Executor delegate;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  private final Runnable drain =
+      new Runnable() {
+        @Override
+        public void run() {
+          drain();
+        }
+      };
+
+  SerializingExecutor(Executor delegate) {
+    this.delegate = checkNotNull(delegate);
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    tasks.add(checkNotNull(task));
+    schedule();
+  }
+
+  private void schedule() {
+    if (running.compareAndSet(false, true)) {
+      try {
+        delegate.execute(drain);
+      } catch (RuntimeException e) {
+        running.set(false);
+        throw e;
+      }
+    }
+  }
+
+  private void drain() {
+    try {
+      for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+        task.run();
+      }
+    } finally {
+      running.set(false);
+      // A task may have been added after the last poll but before running was cleared.
+      if (!tasks.isEmpty()) {
+        schedule();
+      }
+    }
+  }
+}
@@ -16,27 +16,56 @@
 
 package dagger.grpc.server;
 
+import com.google.common.base.Optional;
+import dagger.BindsOptionalOf;
 import dagger.Module;
 import dagger.Provides;
+import dagger.multibindings.Multibinds;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
 import io.grpc.ServerServiceDefinition;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import javax.inject.Singleton;
 
 /**
  * Provides a {@link Singleton @Singleton} {@link Server}.
+ *
+ * <p>If the component binds a {@link ForGrpcServer @ForGrpcServer} {@link Executor}, for example by
+ * installing {@link VirtualThreadExecutorModule}, the server runs all calls on it instead of
+ * gRPC's default executor.
  */
-@Module
+@Module(includes = ServerModule.Declarations.class)
 public final class ServerModule {
 
   @Provides
   @Singleton
   static Server provideServer(
-      ServerBuilder<?> serverBuilder, Set<ServerServiceDefinition> serviceDefinitions) {
+      ServerBuilder<?> serverBuilder,
+      Set<ServerServiceDefinition> serviceDefinitions,
+      @ForGrpcServer Optional<Executor> serverExecutor) {
+    if (serverExecutor.isPresent()) {
+      serverBuilder.executor(serverExecutor.get());
+    }
     for (ServerServiceDefinition serverServiceDefinition : serviceDefinitions) {
       serverBuilder.addService(serverServiceDefinition);
     }
     return serverBuilder.build();
   }
+
+  /**
+   * Declares the optional and multibound bindings that {@link ServerModule} depends on. Installing
+   * {@link ServerModule} installs this module too.
+   */
+  @Module
+  public abstract static class Declarations {
+    private Declarations() {}
+
+    @BindsOptionalOf
+    @ForGrpcServer
+    abstract Executor serverExecutor();
+
+    @Multibinds
+    abstract Set<GrpcServiceTimingRecorder.Factory> timingRecorderFactories();
+  }
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.grpc.server;
+
+import com.google.common.collect.ImmutableList;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link ServerInterceptor} that reports the timing of every call to a service to the {@link
+ * GrpcServiceTimingRecorder}s created by a set of factories. Generated {@code GrpcProxyModule}s
+ * install one for services with {@link GrpcService#recordTimings()} set.
+ *
+ * <p>Exceptions thrown by the recorders are logged and otherwise ignored.
+ */
+public final class TimingServerInterceptor implements ServerInterceptor {
+  private static final Logger logger = Logger.getLogger(TimingServerInterceptor.class.getName());
+
+  private final String serviceName;
+  private final ImmutableList<GrpcServiceTimingRecorder> serviceRecorders;
+  private final ConcurrentMap<String, GrpcMethodTimingRecorder> methodRecorders =
+      new ConcurrentHashMap<>();
+
+  public TimingServerInterceptor(
+      String serviceName, Collection<GrpcServiceTimingRecorder.Factory> factories) {
+    this.serviceName = serviceName;
+    ImmutableList.Builder<GrpcServiceTimingRecorder> serviceRecorders = ImmutableList.builder();
+    for (GrpcServiceTimingRecorder.Factory factory : factories) {
+      try {
+        GrpcServiceTimingRecorder recorder = factory.create(serviceName);
+        if (recorder != null) {
+          serviceRecorders.add(recorder);
+        }
+      } catch (RuntimeException e) {
+        logger.log(
+            Level.SEVERE,
+            "RuntimeException while calling GrpcServiceTimingRecorder.Factory.create on factory "
+                + factory
+                + " with service "
+                + serviceName,
+            e);
+      }
+    }
+    this.serviceRecorders = serviceRecorders.build();
+  }
+
+  @Override
+  public <RequestT, ResponseT> Listener<RequestT> interceptCall(
+      ServerCall<RequestT, ResponseT> call,
+      Metadata headers,
+      ServerCallHandler<RequestT, ResponseT> next) {
+    if (serviceRecorders.isEmpty()) {
+      return next.startCall(call, headers);
+    }
+    GrpcMethodTimingRecorder recorder = methodRecorderFor(call.getMethodDescriptor());
+    recorder.recordCallStarted();
+    long startNanos = System.nanoTime();
+    Listener<RequestT> delegate;
+    try {
+      delegate = next.startCall(call, headers);
+    } catch (RuntimeException | Error e) {
+      recorder.recordCallFinished(false, System.nanoTime() - startNanos);
+      throw e;
+    }
+    recorder.recordCallStartup(System.nanoTime() - startNanos);
+    return new TimingListener<RequestT>(delegate, recorder, startNanos);
+  }
+
+  private GrpcMethodTimingRecorder methodRecorderFor(MethodDescriptor<?, ?> method) {
+    GrpcMethodTimingRecorder recorder = methodRecorders.get(method.getFullMethodName());
+    if (recorder == null) {
+      ImmutableList.Builder<GrpcMethodTimingRecorder> recorders = ImmutableList.builder();
+      for (GrpcServiceTimingRecorder serviceRecorder : serviceRecorders) {
+        try {
+          GrpcMethodTimingRecorder methodRecorder = serviceRecorder.methodTimingRecorderFor(method);
+          if (methodRecorder != null) {
+            recorders.add(methodRecorder);
+          }
+        } catch (RuntimeException e) {
+          logger.log(
+              Level.SEVERE,
+              "RuntimeException while calling GrpcServiceTimingRecorder.methodTimingRecorderFor on "
+                  + "recorder "
+                  + serviceRecorder
+                  + " with method "
+                  + method.getFullMethodName(),
+              e);
+        }
+      }
+      GrpcMethodTimingRecorder newRecorder = new DelegatingMethodTimingRecorder(recorders.build());
+      recorder = methodRecorders.putIfAbsent(method.getFullMethodName(), newRecorder);
+      if (recorder == null) {
+        recorder = newRecorder;
+      }
+    }
+    return recorder;
+  }
+
+  @Override
+  public String toString() {
+    return "TimingServerInterceptor(" + serviceName + ")";
+  }
+
+  /** A listener that times each callback and reports when the call finishes. */
+  private static final class TimingListener<RequestT> extends Listener<RequestT> {
+    private final Listener<RequestT> delegate;
+    private final GrpcMethodTimingRecorder recorder;
+    private final long startNanos;
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    TimingListener(
+        Listener<RequestT> delegate, GrpcMethodTimingRecorder recorder, long startNanos) {
+      this.delegate = delegate;
+      this.recorder = recorder;
+      this.startNanos = startNanos;
+    }
+
+    @Override
+    public void onMessage(RequestT message) {
+      long callbackStartNanos = System.nanoTime();
+      try {
+        delegate.onMessage(message);
+      } finally {
+        recorder.recordHandler(System.nanoTime() - callbackStartNanos);
+      }
+    }
+
+    @Override
+    public void onHalfClose() {
+      long callbackStartNanos = System.nanoTime();
+      try {
+        delegate.onHalfClose();
+      } finally {
+        recorder.recordHandler(System.nanoTime() - callbackStartNanos);
+      }
+    }
+
+    @Override
+    public void onCancel() {
+      try {
+        delegate.onCancel();
+      } finally {
+        finish(false);
+      }
+    }
+
+    @Override
+    public void onComplete() {
+      try {
+        delegate.onComplete();
+      } finally {
+        finish(true);
+      }
+    }
+
+    @Override
+    public void onReady() {
+      delegate.onReady();
+    }
+
+    private void finish(boolean completed) {
+      if (finished.compareAndSet(false, true)) {
+        recorder.recordCallFinished(completed, System.nanoTime() - startNanos);
+      }
+    }
+  }
+
+  /**
+   * A method recorder that delegates to several recorders, and catches and logs all exceptions
+   * that they throw.
+   */
+  private static final class DelegatingMethodTimingRecorder extends GrpcMethodTimingRecorder {
+    private final ImmutableList<GrpcMethodTimingRecorder> delegates;
+
+    DelegatingMethodTimingRecorder(ImmutableList<GrpcMethodTimingRecorder> delegates) {
+      this.delegates = delegates;
+    }
+
+    @Override
+    public void recordCallStarted() {
+      for (GrpcMethodTimingRecorder delegate : delegates) {
+        try {
+          delegate.recordCallStarted();
+        } catch (RuntimeException e) {
+          logException(e, "recordCallStarted", delegate);
+        }
+      }
+    }
+
+    @Override
+    public void recordCallStartup(long durationNanos) {
+      for (GrpcMethodTimingRecorder delegate : delegates) {
+        try {
+          delegate.recordCallStartup(durationNanos);
+        } catch (RuntimeException e) {
+          logException(e, "recordCallStartup", delegate);
+        }
+      }
+    }
+
+    @Override
+    public void recordHandler(long durationNanos) {
+      for (GrpcMethodTimingRecorder delegate : delegates) {
+        try {
+          delegate.recordHandler(durationNanos);
+        } catch (RuntimeException e) {
+          logException(e, "recordHandler", delegate);
+        }
+      }
+    }
+
+    @Override
+    public void recordCallFinished(boolean completed, long latencyNanos) {
+      for (GrpcMethodTimingRecorder delegate : delegates) {
+        try {
+          delegate.recordCallFinished(completed, latencyNanos);
+        } catch (RuntimeException e) {
+          logException(e, "recordCallFinished", delegate);
+        }
+      }
+    }
+
+    private static void logException(
+        RuntimeException e, String method, GrpcMethodTimingRecorder recorder) {
+      logger.log(
+          Level.SEVERE,
+          "RuntimeException while calling GrpcMethodTimingRecorder." + method + " on " + recorder,
+          e);
+    }
+  }
+}
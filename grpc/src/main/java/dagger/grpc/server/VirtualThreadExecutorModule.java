@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.grpc.server;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dagger.Module;
+import dagger.Provides;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.inject.Singleton;
+
+/**
+ * Binds the {@link ForGrpcServer @ForGrpcServer} {@link Executor} that {@link ServerModule} uses to
+ * an executor that runs every task on a new virtual thread, so that blocking service
+ * implementations can serve many concurrent calls without exhausting a thread pool.
+ *
+ * <p>On JDKs without virtual threads, it falls back to an unbounded pool of daemon threads, which
+ * behaves like gRPC's default executor.
+ */
+@Module
+public final class VirtualThreadExecutorModule {
+
+  private VirtualThreadExecutorModule() {}
+
+  @Provides
+  @Singleton
+  @ForGrpcServer
+  static Executor serverExecutor() {
+    return newVirtualThreadPerTaskExecutor();
+  }
+
+  /**
+   * Returns {@code Executors.newVirtualThreadPerTaskExecutor()} if the JDK supports it, or else a
+   * cached pool of daemon threads. Bind the result as a {@link ForGrpcService @ForGrpcService}
+   * {@link Executor} to run the calls of one service on virtual threads.
+   */
+  public static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+      return Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("grpc-call-%d").build());
+    }
+  }
+}
@@ -44,6 +44,7 @@ import javax.tools.Diagnostic.Kind;
 class GrpcServiceModel {
 
   private static final String GRPC_SERVICE_PARAMETER_NAME = "grpcClass";
+  private static final String RECORD_TIMINGS_PARAMETER_NAME = "recordTimings";
 
   private final Types types;
   private final Elements elements;
@@ -107,6 +108,12 @@ class GrpcServiceModel {
     return GET_TYPE_ELEMENT_FROM_VALUE.visit(argument, argument);
   }
 
+  /** Returns {@link GrpcService#recordTimings()}. */
+  protected final boolean recordTimings() {
+    return (Boolean)
+        getAnnotationValue(grpcServiceAnnotation(), RECORD_TIMINGS_PARAMETER_NAME).getValue();
+  }
+
   /**
    * Returns the annotation spec for the {@link Generated @Generated} annotation to add to any
    * type generated by this processor.
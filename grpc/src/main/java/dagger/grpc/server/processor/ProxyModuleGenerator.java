@@ -17,22 +17,30 @@
 package dagger.grpc.server.processor;
 
 import static com.google.auto.common.MoreElements.hasModifiers;
+import static com.squareup.javapoet.MethodSpec.constructorBuilder;
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static com.squareup.javapoet.TypeSpec.anonymousClassBuilder;
 import static com.squareup.javapoet.TypeSpec.classBuilder;
+import static javax.lang.model.element.Modifier.ABSTRACT;
 import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
 import static javax.lang.model.util.ElementFilter.fieldsIn;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
+import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import dagger.grpc.server.ForGrpcService;
 import dagger.grpc.server.GrpcService;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import javax.lang.model.element.VariableElement;
 
 /**
@@ -41,6 +49,13 @@ import javax.lang.model.element.VariableElement;
  */
 final class ProxyModuleGenerator extends SourceGenerator {
 
+  private static final TypeName OPTIONAL_EXECUTOR =
+      ParameterizedTypeName.get(ClassName.get(Optional.class), ClassName.get(Executor.class));
+
+  private static final TypeName SET_OF_TIMING_RECORDER_FACTORIES =
+      ParameterizedTypeName.get(
+          ClassName.get(Set.class), Dagger.GrpcServer.TIMING_RECORDER_FACTORY);
+
   private final GrpcServiceModel grpcServiceModel;
 
   ProxyModuleGenerator(GrpcServiceModel grpcServiceModel) {
@@ -51,14 +66,21 @@ final class ProxyModuleGenerator extends SourceGenerator {
   @Override
   protected TypeSpec createType() {
     return classBuilder(grpcServiceModel.proxyModuleName)
-        .addModifiers(PUBLIC, FINAL)
+        .addModifiers(PUBLIC, ABSTRACT)
         .addJavadoc(
             "Install this module in the {@link $T @Singleton} server component.\n",
             JavaxInject.singleton().type)
+        .addJavadoc(
+            "\n<p>Bind {@code @$T($T.class) $T} to run calls to this service on that executor.\n",
+            ForGrpcService.class,
+            grpcServiceModel.grpcClass(),
+            Executor.class)
         .addAnnotation(grpcServiceModel.generatedAnnotation())
         .addAnnotation(Dagger.module())
         .addMethod(provideServiceDefinitionContribution())
         .addMethod(provideServiceDefinitionFactory())
+        .addMethod(declareOptionalCallExecutor())
+        .addMethod(constructorBuilder().addModifiers(PRIVATE).build())
         .build();
   }
 
@@ -79,21 +101,51 @@ final class ProxyModuleGenerator extends SourceGenerator {
                         Dagger.GrpcServer.SERVICE_DEFINITION_FACTORY, "serviceDefinitionFactory")
                     .addAnnotation(grpcServiceModel.forGrpcService())
                     .build())
-            .addCode(
-                "return $T.builder($T.SERVICE_NAME)",
-                IoGrpc.SERVER_SERVICE_DEFINITION,
-                grpcServiceModel.grpcClass());
+            .addParameter(
+                ParameterSpec.builder(OPTIONAL_EXECUTOR, "callExecutor")
+                    .addAnnotation(grpcServiceModel.forGrpcService())
+                    .build())
+            .addCode("return ");
+    if (grpcServiceModel.recordTimings()) {
+      method
+          .addParameter(SET_OF_TIMING_RECORDER_FACTORIES, "timingRecorderFactories")
+          .addCode("$T.intercept(", IoGrpc.SERVER_INTERCEPTORS);
+    }
+    method.addCode(
+        "$T.builder($T.SERVICE_NAME)",
+        IoGrpc.SERVER_SERVICE_DEFINITION,
+        grpcServiceModel.grpcClass());
     for (VariableElement methodDescriptorField : methodDescriptorFields()) {
       method.addCode(
-          ".addMethod($T.proxyMethod($T.$N, serviceDefinitionFactory))",
+          ".addMethod($T.proxyMethod($T.$N, serviceDefinitionFactory, callExecutor))",
           Dagger.GrpcServer.PROXY_SERVER_CALL_HANDLER,
           grpcServiceModel.grpcClass(),
           methodDescriptorField.getSimpleName());
     }
-    method.addCode(".build();");
+    method.addCode(".build()");
+    if (grpcServiceModel.recordTimings()) {
+      method.addCode(
+          ", new $T($T.SERVICE_NAME, timingRecorderFactories))",
+          Dagger.GrpcServer.TIMING_SERVER_INTERCEPTOR,
+          grpcServiceModel.grpcClass());
+    }
+    method.addCode(";");
     return method.build();
   }
 
+  /**
+   * Returns the {@link dagger.BindsOptionalOf @BindsOptionalOf} method that declares the optional
+   * {@link Executor} for calls to the service.
+   */
+  private MethodSpec declareOptionalCallExecutor() {
+    return methodBuilder("callExecutor")
+        .addAnnotation(Dagger.bindsOptionalOf())
+        .addAnnotation(grpcServiceModel.forGrpcService())
+        .addModifiers(ABSTRACT)
+        .returns(Executor.class)
+        .build();
+  }
+
   /**
    * Returns he {@link io.grpc.MethodDescriptor} {@code *_METHOD} fields on the class enclosing the
    * service interface.
@@ -49,6 +49,10 @@ abstract class SourceGenerator {
       return AnnotationSpec.builder(ClassName.get("dagger", "Binds")).build();
     }
 
+    static AnnotationSpec bindsOptionalOf() {
+      return AnnotationSpec.builder(ClassName.get("dagger", "BindsOptionalOf")).build();
+    }
+
     static AnnotationSpec intoSet() {
       return AnnotationSpec.builder(ClassName.get("dagger.multibindings", "IntoSet")).build();
     }
@@ -78,6 +82,12 @@ abstract class SourceGenerator {
 
       static final ClassName SERVICE_DEFINITION_FACTORY =
           PROXY_SERVER_CALL_HANDLER.nestedClass("ServiceDefinitionFactory");
+
+      static final ClassName TIMING_SERVER_INTERCEPTOR =
+          ClassName.get("dagger.grpc.server", "TimingServerInterceptor");
+
+      static final ClassName TIMING_RECORDER_FACTORY =
+          ClassName.get("dagger.grpc.server", "GrpcServiceTimingRecorder").nestedClass("Factory");
     }
   }
 
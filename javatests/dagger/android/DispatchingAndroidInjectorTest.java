@@ -22,7 +22,9 @@ import static org.junit.Assert.fail;
 import android.app.Activity;
 import org.robolectric.RobolectricTestRunner;
 import dagger.android.DispatchingAndroidInjector.InvalidInjectorBindingException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.inject.Provider;
 import org.junit.Before;
@@ -35,6 +37,7 @@ import org.robolectric.annotation.Config;
 @RunWith(RobolectricTestRunner.class)
 public final class DispatchingAndroidInjectorTest {
   private DispatchingAndroidInjector<Activity> dispatchingAndroidInjector;
+  private final CountingReusableBuilder reusableBuilder = new CountingReusableBuilder();
 
   @Before
   public void setup() {
@@ -43,6 +46,7 @@ public final class DispatchingAndroidInjectorTest {
     injectorFactories.put(FooActivity.class, FooInjector.Factory::new);
     injectorFactories.put(ReturnsNullActivity.class, () -> null);
     injectorFactories.put(WrongActivity.class, FooInjector.Factory::new);
+    injectorFactories.put(ReusableActivity.class, () -> reusableBuilder);
     dispatchingAndroidInjector = new DispatchingAndroidInjector<>(injectorFactories);
   }
 
@@ -80,6 +84,17 @@ public final class DispatchingAndroidInjectorTest {
     }
   }
 
+  @Test
+  public void reusableBuilder_buildsOneInjectorPerClass() {
+    ReusableActivity first = Robolectric.setupActivity(ReusableActivity.class);
+    ReusableActivity second = Robolectric.setupActivity(ReusableActivity.class);
+
+    assertThat(dispatchingAndroidInjector.maybeInject(first)).isTrue();
+    assertThat(dispatchingAndroidInjector.maybeInject(second)).isTrue();
+    assertThat(reusableBuilder.builds).isEqualTo(1);
+    assertThat(reusableBuilder.injector.injected).containsExactly(first, second).inOrder();
+  }
+
   static class FooActivity extends Activity {}
 
   static class BarActivity extends Activity {}
@@ -88,6 +103,28 @@ public final class DispatchingAndroidInjectorTest {
 
   static class WrongActivity extends Activity {}
 
+  static class ReusableActivity extends Activity {}
+
+  static class RecordingInjector implements AndroidInjector<ReusableActivity> {
+    final List<ReusableActivity> injected = new ArrayList<>();
+
+    @Override
+    public void inject(ReusableActivity instance) {
+      injected.add(instance);
+    }
+  }
+
+  static class CountingReusableBuilder extends AndroidInjector.ReusableBuilder<ReusableActivity> {
+    final RecordingInjector injector = new RecordingInjector();
+    int builds;
+
+    @Override
+    public AndroidInjector<ReusableActivity> build() {
+      builds++;
+      return injector;
+    }
+  }
+
   static class FooInjector implements AndroidInjector<FooActivity> {
     @Override
     public void inject(FooActivity instance) {}
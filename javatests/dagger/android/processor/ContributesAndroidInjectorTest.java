@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.android.processor;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ContributesAndroidInjectorTest {
+  private static final JavaFileObject TEST_ACTIVITY =
+      JavaFileObjects.forSourceLines(
+          "test.TestActivity",
+          "package test;",
+          "",
+          "import android.app.Activity;",
+          "",
+          "public class TestActivity extends Activity {}");
+
+  private static final JavaFileObject TEST_SCOPE =
+      JavaFileObjects.forSourceLines(
+          "test.TestScope",
+          "package test;",
+          "",
+          "import javax.inject.Scope;",
+          "",
+          "@Scope",
+          "@interface TestScope {}");
+
+  @Test
+  public void notReusable_extendsBuilder() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.android.ContributesAndroidInjector;",
+            "",
+            "@Module",
+            "abstract class TestModule {",
+            "  @ContributesAndroidInjector",
+            "  abstract TestActivity testActivity();",
+            "}");
+    JavaFileObject generatedModule =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule_TestActivity",
+            "package test;",
+            "",
+            "import android.app.Activity;",
+            "import dagger.Binds;",
+            "import dagger.Module;",
+            "import dagger.Subcomponent;",
+            "import dagger.android.ActivityKey;",
+            "import dagger.android.AndroidInjector;",
+            "import dagger.multibindings.IntoMap;",
+            "",
+            "@Module(subcomponents = TestModule_TestActivity.TestActivitySubcomponent.class)",
+            "public abstract class TestModule_TestActivity {",
+            "  private TestModule_TestActivity() {}",
+            "",
+            "  @Binds",
+            "  @IntoMap",
+            "  @ActivityKey(TestActivity.class)",
+            "  abstract AndroidInjector.Factory<? extends Activity> bindAndroidInjectorFactory(",
+            "      TestActivitySubcomponent.Builder builder);",
+            "",
+            "  @Subcomponent",
+            "  public interface TestActivitySubcomponent extends AndroidInjector<TestActivity> {",
+            "    @Subcomponent.Builder",
+            "    abstract class Builder extends AndroidInjector.Builder<TestActivity> {",
+            "      @Override",
+            "      public abstract TestActivitySubcomponent build();",
+            "    }",
+            "  }",
+            "}");
+    Compilation compilation = compile(module, TEST_ACTIVITY);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.TestModule_TestActivity")
+        .hasSourceEquivalentTo(generatedModule);
+  }
+
+  @Test
+  public void reusable_extendsReusableBuilder() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.android.ContributesAndroidInjector;",
+            "",
+            "@Module",
+            "abstract class TestModule {",
+            "  @ContributesAndroidInjector(reusable = true)",
+            "  abstract TestActivity testActivity();",
+            "}");
+    JavaFileObject generatedModule =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule_TestActivity",
+            "package test;",
+            "",
+            "import android.app.Activity;",
+            "import dagger.Binds;",
+            "import dagger.Module;",
+            "import dagger.Subcomponent;",
+            "import dagger.android.ActivityKey;",
+            "import dagger.android.AndroidInjector;",
+            "import dagger.multibindings.IntoMap;",
+            "",
+            "@Module(subcomponents = TestModule_TestActivity.TestActivitySubcomponent.class)",
+            "public abstract class TestModule_TestActivity {",
+            "  private TestModule_TestActivity() {}",
+            "",
+            "  @Binds",
+            "  @IntoMap",
+            "  @ActivityKey(TestActivity.class)",
+            "  abstract AndroidInjector.Factory<? extends Activity> bindAndroidInjectorFactory(",
+            "      TestActivitySubcomponent.Builder builder);",
+            "",
+            "  @Subcomponent",
+            "  public interface TestActivitySubcomponent extends AndroidInjector<TestActivity> {",
+            "    @Subcomponent.Builder",
+            "    abstract class Builder extends AndroidInjector.ReusableBuilder<TestActivity> {",
+            "      @Override",
+            "      public abstract TestActivitySubcomponent build();",
+            "    }",
+            "  }",
+            "}");
+    Compilation compilation = compile(module, TEST_ACTIVITY);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.TestModule_TestActivity")
+        .hasSourceEquivalentTo(generatedModule);
+  }
+
+  @Test
+  public void reusable_scoped() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.android.ContributesAndroidInjector;",
+            "",
+            "@Module",
+            "abstract class TestModule {",
+            "  @TestScope",
+            "  @ContributesAndroidInjector(reusable = true)",
+            "  abstract TestActivity testActivity();",
+            "}");
+    Compilation compilation = compile(module, TEST_ACTIVITY, TEST_SCOPE);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining(
+            "@ContributesAndroidInjector(reusable = true) methods cannot have scopes")
+        .inFile(module)
+        .onLine(8);
+  }
+
+  @Test
+  public void notReusable_scoped() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.android.ContributesAndroidInjector;",
+            "",
+            "@Module",
+            "abstract class TestModule {",
+            "  @TestScope",
+            "  @ContributesAndroidInjector",
+            "  abstract TestActivity testActivity();",
+            "}");
+    Compilation compilation = compile(module, TEST_ACTIVITY, TEST_SCOPE);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.TestModule_TestActivity")
+        .contentsAsUtf8String()
+        .contains("@TestScope");
+  }
+
+  private static Compilation compile(JavaFileObject... files) {
+    return javac().withProcessors(new AndroidProcessor()).compile(files);
+  }
+}
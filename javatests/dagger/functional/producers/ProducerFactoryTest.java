@@ -96,6 +96,34 @@ public class ProducerFactoryTest {
     assertThat(producer.get().get()).isEqualTo("str with arg");
   }
 
+  @Test
+  public void cheapMethodRunsWithoutTheExecutor() throws Exception {
+    Provider<Executor> neverRunningExecutorProvider =
+        new Provider<Executor>() {
+          @Override
+          public Executor get() {
+            return new Executor() {
+              @Override
+              public void execute(Runnable runnable) {}
+            };
+          }
+        };
+    SettableFuture<Integer> intFuture = SettableFuture.create();
+    Producer<Integer> intProducer = producerOfFuture(intFuture);
+    Producer<String> producer =
+        new SimpleProducerModule_CheapStrWithArgFactory(
+            neverRunningExecutorProvider, componentMonitorProvider, intProducer);
+    assertThat(producer.get().isDone()).isFalse();
+    intFuture.set(42);
+    assertThat(producer.get().isDone()).isTrue();
+    assertThat(producer.get().get()).isEqualTo("cheap str with arg");
+    InOrder order = inOrder(monitor);
+    order.verify(monitor).ready();
+    order.verify(monitor).methodStarting();
+    order.verify(monitor).methodFinished();
+    order.verify(monitor).succeeded("cheap str with arg");
+  }
+
   @Test
   public void successMonitor() throws Exception {
     ProducerToken token = ProducerToken.create(SimpleProducerModule_SettableFutureStrFactory.class);
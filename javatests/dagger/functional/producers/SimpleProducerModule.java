@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.SettableFuture;
 import dagger.Lazy;
 import dagger.multibindings.ElementsIntoSet;
 import dagger.multibindings.IntoSet;
+import dagger.producers.Cheap;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
 import dagger.producers.ProducerModule;
@@ -158,6 +159,13 @@ final class SimpleProducerModule {
     return "str with framework type args";
   }
 
+  @Produces
+  @Cheap
+  @Qual(13)
+  static String cheapStrWithArg(@SuppressWarnings("unused") int i) {
+    return "cheap str with arg";
+  }
+
   // Set bindings.
 
   @Produces
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.grpc.server;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import dagger.grpc.server.ProxyServerCallHandler.ServiceDefinitionFactory;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.MethodDescriptor.Marshaller;
+import io.grpc.MethodDescriptor.MethodType;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that {@link ProxyServerCallHandler} hands payload streams between the transport and the
+ * delegate marshallers without copying them.
+ */
+@RunWith(Parameterized.class)
+public class ProxyServerCallHandlerTest {
+
+  @Parameters(name = "{0} bytes")
+  public static Iterable<Object[]> payloadSizes() {
+    return ImmutableList.copyOf(
+        new Object[][] {{1 << 10}, {64 << 10}, {1 << 20}, {4 << 20}});
+  }
+
+  private final int payloadSize;
+
+  public ProxyServerCallHandlerTest(int payloadSize) {
+    this.payloadSize = payloadSize;
+  }
+
+  /** A payload that remembers the stream it was parsed from or streamed to. */
+  private static final class Payload {
+    final InputStream stream;
+    final int size;
+
+    Payload(InputStream stream, int size) {
+      this.stream = stream;
+      this.size = size;
+    }
+  }
+
+  /** A marshaller that counts every byte it reads and records every stream it creates. */
+  private static final class CountingMarshaller implements Marshaller<Payload> {
+    final List<InputStream> streams = new ArrayList<>();
+    long bytesRead;
+
+    @Override
+    public InputStream stream(Payload value) {
+      InputStream stream = new ByteArrayInputStream(new byte[value.size]);
+      streams.add(stream);
+      return stream;
+    }
+
+    @Override
+    public Payload parse(InputStream stream) {
+      byte[] buffer = new byte[8192];
+      int size = 0;
+      try {
+        for (int read = stream.read(buffer); read >= 0; read = stream.read(buffer)) {
+          size += read;
+        }
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+      bytesRead += size;
+      return new Payload(stream, size);
+    }
+  }
+
+  /** A transport-side call that records the streams sent to it. */
+  private static final class RecordingServerCall extends ServerCall<InputStream, InputStream> {
+    final List<InputStream> sentMessages = new ArrayList<>();
+    private final MethodDescriptor<InputStream, InputStream> method;
+
+    RecordingServerCall(MethodDescriptor<InputStream, InputStream> method) {
+      this.method = method;
+    }
+
+    @Override
+    public MethodDescriptor<InputStream, InputStream> getMethodDescriptor() {
+      return method;
+    }
+
+    @Override
+    public void request(int numMessages) {}
+
+    @Override
+    public void sendHeaders(Metadata headers) {}
+
+    @Override
+    public void sendMessage(InputStream message) {
+      sentMessages.add(message);
+    }
+
+    @Override
+    public void close(Status status, Metadata trailers) {}
+
+    @Override
+    public boolean isCancelled() {
+      return false;
+    }
+  }
+
+  @Test
+  public void streamsPassThroughUncopied() {
+    final CountingMarshaller requestMarshaller = new CountingMarshaller();
+    final CountingMarshaller responseMarshaller = new CountingMarshaller();
+    final MethodDescriptor<Payload, Payload> delegateMethod =
+        MethodDescriptor.create(
+            MethodType.UNARY, "test.Service/Method", requestMarshaller, responseMarshaller);
+    final List<Payload> received = new ArrayList<>();
+    final ServerServiceDefinition delegateService =
+        ServerServiceDefinition.builder("test.Service")
+            .addMethod(
+                delegateMethod,
+                new ServerCallHandler<Payload, Payload>() {
+                  @Override
+                  public Listener<Payload> startCall(
+                      final ServerCall<Payload, Payload> call, Metadata headers) {
+                    return new Listener<Payload>() {
+                      @Override
+                      public void onMessage(Payload message) {
+                        received.add(message);
+                        call.sendMessage(new Payload(null, message.size));
+                      }
+                    };
+                  }
+                })
+            .build();
+    ServerMethodDefinition<InputStream, InputStream> proxyMethod =
+        ProxyServerCallHandler.proxyMethod(
+            delegateMethod,
+            new ServiceDefinitionFactory() {
+              @Override
+              public ServerServiceDefinition getServiceDefinition(Metadata headers) {
+                return delegateService;
+              }
+            });
+    RecordingServerCall call = new RecordingServerCall(proxyMethod.getMethodDescriptor());
+
+    InputStream request = new ByteArrayInputStream(new byte[payloadSize]);
+    proxyMethod.getServerCallHandler().startCall(call, new Metadata()).onMessage(request);
+
+    assertThat(received).hasSize(1);
+    assertThat(received.get(0).stream).isSameAs(request);
+    assertThat(requestMarshaller.bytesRead).isEqualTo(payloadSize);
+    assertThat(responseMarshaller.streams).hasSize(1);
+    assertThat(call.sentMessages).hasSize(1);
+    assertThat(call.sentMessages.get(0)).isSameAs(responseMarshaller.streams.get(0));
+  }
+}
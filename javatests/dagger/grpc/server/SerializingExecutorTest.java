@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.grpc.server;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SerializingExecutorTest {
+
+  /** An executor that queues tasks until they are run explicitly. */
+  private static final class QueueingExecutor implements Executor {
+    final List<Runnable> tasks = new ArrayList<>();
+
+    @Override
+    public void execute(Runnable task) {
+      tasks.add(task);
+    }
+
+    void runNext() {
+      tasks.remove(0).run();
+    }
+  }
+
+  @Test
+  public void runsTasksInOrderInOneDelegateTask() {
+    QueueingExecutor delegate = new QueueingExecutor();
+    SerializingExecutor executor = new SerializingExecutor(delegate);
+    final List<Integer> ran = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final int task = i;
+      executor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              ran.add(task);
+            }
+          });
+    }
+    assertThat(delegate.tasks).hasSize(1);
+
+    delegate.runNext();
+    assertThat(ran).containsExactly(0, 1, 2).inOrder();
+    assertThat(delegate.tasks).isEmpty();
+  }
+
+  @Test
+  public void schedulesAgainAfterDraining() {
+    QueueingExecutor delegate = new QueueingExecutor();
+    SerializingExecutor executor = new SerializingExecutor(delegate);
+    final List<String> ran = new ArrayList<>();
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            ran.add("first");
+          }
+        });
+    delegate.runNext();
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            ran.add("second");
+          }
+        });
+
+    assertThat(delegate.tasks).hasSize(1);
+    delegate.runNext();
+    assertThat(ran).containsExactly("first", "second").inOrder();
+  }
+
+  @Test
+  public void continuesAfterFailingTask() {
+    QueueingExecutor delegate = new QueueingExecutor();
+    SerializingExecutor executor = new SerializingExecutor(delegate);
+    final List<String> ran = new ArrayList<>();
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            throw new IllegalStateException("expected");
+          }
+        });
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            ran.add("second");
+          }
+        });
+
+    try {
+      delegate.runNext();
+    } catch (IllegalStateException expected) {
+    }
+    assertThat(delegate.tasks).hasSize(1);
+    delegate.runNext();
+    assertThat(ran).containsExactly("second");
+  }
+}
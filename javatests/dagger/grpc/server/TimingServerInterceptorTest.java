@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.grpc.server;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableSet;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.MethodDescriptor.Marshaller;
+import io.grpc.MethodDescriptor.MethodType;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TimingServerInterceptorTest {
+
+  private static final Marshaller<String> STRING_MARSHALLER =
+      new Marshaller<String>() {
+        @Override
+        public InputStream stream(String value) {
+          return new ByteArrayInputStream(value.getBytes());
+        }
+
+        @Override
+        public String parse(InputStream stream) {
+          throw new UnsupportedOperationException();
+        }
+      };
+
+  private static final MethodDescriptor<String, String> METHOD =
+      MethodDescriptor.create(
+          MethodType.UNARY, "test.Service/Method", STRING_MARSHALLER, STRING_MARSHALLER);
+
+  /** Records the events reported for each method. */
+  private static final class RecordingFactory implements GrpcServiceTimingRecorder.Factory {
+    final List<String> events = new ArrayList<>();
+
+    @Override
+    public GrpcServiceTimingRecorder create(final String serviceName) {
+      return new GrpcServiceTimingRecorder() {
+        @Override
+        public GrpcMethodTimingRecorder methodTimingRecorderFor(
+            final MethodDescriptor<?, ?> method) {
+          events.add("recorderFor " + method.getFullMethodName() + " in " + serviceName);
+          return new GrpcMethodTimingRecorder() {
+            @Override
+            public void recordCallStarted() {
+              events.add("started");
+            }
+
+            @Override
+            public void recordCallStartup(long durationNanos) {
+              events.add("startup");
+            }
+
+            @Override
+            public void recordHandler(long durationNanos) {
+              events.add("handler");
+            }
+
+            @Override
+            public void recordCallFinished(boolean completed, long latencyNanos) {
+              events.add(completed ? "completed" : "not completed");
+            }
+          };
+        }
+      };
+    }
+  }
+
+  private static final class ThrowingFactory implements GrpcServiceTimingRecorder.Factory {
+    @Override
+    public GrpcServiceTimingRecorder create(String serviceName) {
+      return new GrpcServiceTimingRecorder() {
+        @Override
+        public GrpcMethodTimingRecorder methodTimingRecorderFor(MethodDescriptor<?, ?> method) {
+          return new GrpcMethodTimingRecorder() {
+            @Override
+            public void recordCallStarted() {
+              throw new IllegalStateException("expected");
+            }
+
+            @Override
+            public void recordHandler(long durationNanos) {
+              throw new IllegalStateException("expected");
+            }
+          };
+        }
+      };
+    }
+  }
+
+  private static final class FakeServerCall extends ServerCall<String, String> {
+    @Override
+    public MethodDescriptor<String, String> getMethodDescriptor() {
+      return METHOD;
+    }
+
+    @Override
+    public void request(int numMessages) {}
+
+    @Override
+    public void sendHeaders(Metadata headers) {}
+
+    @Override
+    public void sendMessage(String message) {}
+
+    @Override
+    public void close(Status status, Metadata trailers) {}
+
+    @Override
+    public boolean isCancelled() {
+      return false;
+    }
+  }
+
+  private static final ServerCallHandler<String, String> NO_OP_HANDLER =
+      new ServerCallHandler<String, String>() {
+        @Override
+        public Listener<String> startCall(ServerCall<String, String> call, Metadata headers) {
+          return new Listener<String>() {};
+        }
+      };
+
+  @Test
+  public void recordsCallLifecycle() {
+    RecordingFactory factory = new RecordingFactory();
+    TimingServerInterceptor interceptor =
+        new TimingServerInterceptor(
+            "test.Service", ImmutableSet.of(factory, new ThrowingFactory()));
+
+    for (int i = 0; i < 2; i++) {
+      Listener<String> listener =
+          interceptor.interceptCall(new FakeServerCall(), new Metadata(), NO_OP_HANDLER);
+      listener.onMessage("request");
+      listener.onHalfClose();
+      listener.onComplete();
+    }
+
+    assertThat(factory.events)
+        .containsExactly(
+            "recorderFor test.Service/Method in test.Service",
+            "started",
+            "startup",
+            "handler",
+            "handler",
+            "completed",
+            "started",
+            "startup",
+            "handler",
+            "handler",
+            "completed")
+        .inOrder();
+  }
+
+  @Test
+  public void recordsFailureToStart() {
+    RecordingFactory factory = new RecordingFactory();
+    TimingServerInterceptor interceptor =
+        new TimingServerInterceptor("test.Service", ImmutableSet.of(factory));
+
+    try {
+      interceptor.interceptCall(
+          new FakeServerCall(),
+          new Metadata(),
+          new ServerCallHandler<String, String>() {
+            @Override
+            public Listener<String> startCall(ServerCall<String, String> call, Metadata headers) {
+              throw new IllegalStateException("expected");
+            }
+          });
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+
+    assertThat(factory.events).containsAllOf("started", "not completed").inOrder();
+    assertThat(factory.events).doesNotContain("startup");
+  }
+
+  @Test
+  public void cancelAfterCompleteIsRecordedOnce() {
+    RecordingFactory factory = new RecordingFactory();
+    TimingServerInterceptor interceptor =
+        new TimingServerInterceptor("test.Service", ImmutableSet.of(factory));
+
+    Listener<String> listener =
+        interceptor.interceptCall(new FakeServerCall(), new Metadata(), NO_OP_HANDLER);
+    listener.onCancel();
+    listener.onComplete();
+
+    assertThat(factory.events).contains("not completed");
+    assertThat(factory.events).doesNotContain("completed");
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CompactMapTest {
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void empty() {
+    assertThat(CompactMap.builder(0).build()).isEmpty();
+    assertThat(CompactMap.builder(4).build()).isSameAs(CompactMap.of());
+  }
+
+  @Test
+  public void small_putReplacesValueButKeepsPosition() {
+    Map<String, Integer> map =
+        CompactMap.<String, Integer>builder(2)
+            .put("two", 2)
+            .put("one", 1)
+            .put("three", 3)
+            .put("two", 22)
+            .build();
+    assertThat(map).containsExactly("two", 22, "one", 1, "three", 3).inOrder();
+    assertThat(map).isEqualTo(ImmutableMap.of("one", 1, "two", 22, "three", 3));
+    assertThat(map.hashCode())
+        .isEqualTo(ImmutableMap.of("one", 1, "two", 22, "three", 3).hashCode());
+    assertThat(map.get("four")).isNull();
+    assertThat(map.containsKey(null)).isFalse();
+  }
+
+  @Test
+  public void large_matchesLinkedHashMap() {
+    CompactMap.Builder<Integer, String> builder = CompactMap.builder(10);
+    Map<Integer, String> expected = new LinkedHashMap<>();
+    for (int i = 0; i < 100; i++) {
+      int key = (i * 37) % 61;
+      builder.put(key, "value" + i);
+      expected.put(key, "value" + i);
+    }
+    Map<Integer, String> map = builder.build();
+    assertThat(map).containsExactlyEntriesIn(expected).inOrder();
+    assertThat(map.keySet()).containsExactlyElementsIn(expected.keySet()).inOrder();
+    for (int i = -1; i <= 61; i++) {
+      assertThat(map.get(i)).isEqualTo(expected.get(i));
+    }
+  }
+
+  @Test
+  public void withValues_sharesKeys() {
+    CompactMap<String, Integer> map =
+        CompactMap.<String, Integer>builder(2).put("a", 1).put("b", 2).build();
+    Map<String, String> mapped = map.withValues(new Object[] {"x", "y"});
+    assertThat(mapped).containsExactly("a", "x", "b", "y").inOrder();
+    assertThat(mapped.get("b")).isEqualTo("y");
+  }
+
+  @Test
+  public void isUnmodifiable() {
+    Map<String, Integer> map = CompactMap.<String, Integer>builder(1).put("a", 1).build();
+    thrown.expect(UnsupportedOperationException.class);
+    map.put("b", 2);
+  }
+}
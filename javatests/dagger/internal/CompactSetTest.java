@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CompactSetTest {
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void empty() {
+    Set<Object> set = CompactSet.ownerOf(new Object[0], 0);
+    assertThat(set).isEmpty();
+    assertThat(set).isSameAs(CompactSet.of());
+  }
+
+  @Test
+  public void small_keepsInsertionOrderWithoutDuplicates() {
+    Set<String> set = CompactSet.ownerOf(new Object[] {"b", "a", "b", "c", "a"}, 5);
+    assertThat(set).containsExactly("b", "a", "c").inOrder();
+    assertThat(set).isEqualTo(ImmutableSet.of("a", "b", "c"));
+    assertThat(set.hashCode()).isEqualTo(ImmutableSet.of("a", "b", "c").hashCode());
+    assertThat(set.contains("d")).isFalse();
+    assertThat(set.contains(null)).isFalse();
+  }
+
+  @Test
+  public void large_keepsInsertionOrderWithoutDuplicates() {
+    Object[] elements = new Object[100];
+    Set<Integer> expected = new LinkedHashSet<>();
+    for (int i = 0; i < elements.length; i++) {
+      int element = (i * 37) % 61;
+      elements[i] = element;
+      expected.add(element);
+    }
+    Set<Integer> set = CompactSet.ownerOf(elements, elements.length);
+    assertThat(set).containsExactlyElementsIn(expected).inOrder();
+    for (int i = -1; i <= 61; i++) {
+      assertThat(set.contains(i)).isEqualTo(expected.contains(i));
+    }
+  }
+
+  @Test
+  public void ignoresElementsPastSize() {
+    Set<String> set = CompactSet.ownerOf(new Object[] {"a", "b", "c"}, 2);
+    assertThat(set).containsExactly("a", "b").inOrder();
+  }
+
+  @Test
+  public void isUnmodifiable() {
+    Set<String> set = CompactSet.ownerOf(new Object[] {"a"}, 1);
+    thrown.expect(UnsupportedOperationException.class);
+    set.add("b");
+  }
+
+  @Test
+  public void iterator_isUnmodifiable() {
+    Iterator<String> iterator = CompactSet.<String>ownerOf(new Object[] {"a"}, 1).iterator();
+    iterator.next();
+    thrown.expect(UnsupportedOperationException.class);
+    iterator.remove();
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Uninterruptibles;
+import dagger.Lazy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LockFreeCheckTest {
+  @Test
+  public void provider_nullPointerException() {
+    try {
+      LockFreeCheck.provider(null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  @Test
+  public void lazy_nullPointerException() {
+    try {
+      LockFreeCheck.lazy(null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  private static final Provider<Object> LOCK_FREE_CHECK_OBJECT_PROVIDER =
+      LockFreeCheck.provider(Object::new);
+
+  @Test
+  public void doubleWrapping_provider() {
+    assertThat(LockFreeCheck.provider(LOCK_FREE_CHECK_OBJECT_PROVIDER))
+        .isSameAs(LOCK_FREE_CHECK_OBJECT_PROVIDER);
+  }
+
+  @Test
+  public void doubleWrapping_lazy() {
+    assertThat(LockFreeCheck.lazy(LOCK_FREE_CHECK_OBJECT_PROVIDER))
+        .isSameAs(LOCK_FREE_CHECK_OBJECT_PROVIDER);
+  }
+
+  @Test
+  public void get() throws Exception {
+    int numThreads = 10;
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+    final CountDownLatch latch = new CountDownLatch(numThreads);
+    LatchedProvider provider = new LatchedProvider(latch);
+    final Lazy<Object> lazy = LockFreeCheck.lazy(provider);
+
+    List<Callable<Object>> tasks = Lists.newArrayListWithCapacity(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      tasks.add(
+          () -> {
+            latch.countDown();
+            return lazy.get();
+          });
+    }
+
+    List<Future<Object>> futures = executor.invokeAll(tasks);
+
+    assertThat(provider.provisions.get()).isEqualTo(1);
+    Set<Object> results = Sets.newIdentityHashSet();
+    for (Future<Object> future : futures) {
+      results.add(future.get());
+    }
+    assertThat(results).hasSize(1);
+  }
+
+  private static class LatchedProvider implements Provider<Object> {
+    final AtomicInteger provisions;
+    final CountDownLatch latch;
+
+    LatchedProvider(CountDownLatch latch) {
+      this.latch = latch;
+      this.provisions = new AtomicInteger();
+    }
+
+    @Override
+    public Object get() {
+      if (latch != null) {
+        Uninterruptibles.awaitUninterruptibly(latch);
+      }
+      provisions.incrementAndGet();
+      return new Object();
+    }
+  }
+
+  @Test public void reentranceWithoutCondition_throwsStackOverflow() {
+    final AtomicReference<Provider<Object>> lockFreeCheckReference =
+        new AtomicReference<>();
+    Provider<Object> lockFreeCheck = LockFreeCheck.provider(() -> lockFreeCheckReference.get().get());
+    lockFreeCheckReference.set(lockFreeCheck);
+    try {
+      lockFreeCheck.get();
+      fail();
+    } catch (StackOverflowError expected) {}
+  }
+
+  @Test public void reentranceReturningSameInstance() {
+    final AtomicReference<Provider<Object>> lockFreeCheckReference =
+        new AtomicReference<>();
+    final AtomicInteger invocationCount = new AtomicInteger();
+    final Object object = new Object();
+    Provider<Object> lockFreeCheck = LockFreeCheck.provider(() -> {
+        if (invocationCount.incrementAndGet() == 1) {
+         lockFreeCheckReference.get().get();
+       }
+       return object;
+     });
+    lockFreeCheckReference.set(lockFreeCheck);
+    assertThat(lockFreeCheck.get()).isSameAs(object);
+  }
+
+  @Test public void reentranceReturningDifferentInstances_throwsIllegalStateException() {
+    final AtomicReference<Provider<Object>> lockFreeCheckReference =
+        new AtomicReference<>();
+    final AtomicInteger invocationCount = new AtomicInteger();
+    Provider<Object> lockFreeCheck = LockFreeCheck.provider(() -> {
+       if (invocationCount.incrementAndGet() == 1) {
+         lockFreeCheckReference.get().get();
+       }
+       return new Object();
+     });
+    lockFreeCheckReference.set(lockFreeCheck);
+    try {
+      lockFreeCheck.get();
+      fail();
+    } catch (IllegalStateException expected) {}
+  }
+
+  @Test
+  public void instanceFactoryAsLazyDoesNotWrap() {
+    Factory<Object> factory = InstanceFactory.create(new Object());
+    assertThat(LockFreeCheck.lazy(factory)).isSameAs(factory);
+  }
+
+  @Test
+  public void doubleCheckIsNotRewrapped() {
+    Provider<Object> doubleCheck = DoubleCheck.provider(Object::new);
+    assertThat(LockFreeCheck.provider(doubleCheck)).isSameAs(doubleCheck);
+  }
+
+  @Test
+  public void exceptionDuringInitialization_allowsRetry() {
+    final AtomicInteger invocationCount = new AtomicInteger();
+    final Object object = new Object();
+    Provider<Object> lockFreeCheck = LockFreeCheck.provider(() -> {
+      if (invocationCount.incrementAndGet() == 1) {
+        throw new UnsupportedOperationException();
+      }
+      return object;
+    });
+    try {
+      lockFreeCheck.get();
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+    assertThat(lockFreeCheck.get()).isSameAs(object);
+    assertThat(lockFreeCheck.get()).isSameAs(object);
+    assertThat(invocationCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void checkedExceptionDuringInitialization_allowsRetry() {
+    final AtomicInteger invocationCount = new AtomicInteger();
+    final Object object = new Object();
+    Provider<Object> lockFreeCheck = LockFreeCheck.provider(() -> {
+      if (invocationCount.incrementAndGet() == 1) {
+        throw LockFreeCheckTest.<RuntimeException>sneakyThrow(new IOException());
+      }
+      return object;
+    });
+    try {
+      lockFreeCheck.get();
+      fail();
+    } catch (Exception expected) {
+      assertThat(expected).isInstanceOf(IOException.class);
+    }
+    assertThat(lockFreeCheck.get()).isSameAs(object);
+    assertThat(invocationCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void exceptionAfterReentrantPublish_keepsPublishedValue() {
+    final AtomicReference<Provider<Object>> lockFreeCheckReference =
+        new AtomicReference<>();
+    final AtomicInteger invocationCount = new AtomicInteger();
+    final Object object = new Object();
+    Provider<Object> lockFreeCheck = LockFreeCheck.provider(() -> {
+      if (invocationCount.incrementAndGet() == 1) {
+        lockFreeCheckReference.get().get();
+        throw new UnsupportedOperationException();
+      }
+      return object;
+    });
+    lockFreeCheckReference.set(lockFreeCheck);
+    try {
+      lockFreeCheck.get();
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+    assertThat(lockFreeCheck.get()).isSameAs(object);
+    assertThat(invocationCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void slowInitialization_blocksRacingThreadUntilPublished() throws Exception {
+    final CountDownLatch initializing = new CountDownLatch(1);
+    final CountDownLatch publish = new CountDownLatch(1);
+    final Object object = new Object();
+    final Provider<Object> lockFreeCheck = LockFreeCheck.provider(() -> {
+      initializing.countDown();
+      Uninterruptibles.awaitUninterruptibly(publish);
+      return object;
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Object> initializer = executor.submit(lockFreeCheck::get);
+      initializing.await();
+
+      final AtomicReference<Thread> racingThread = new AtomicReference<>();
+      Future<Object> racer =
+          executor.submit(
+              () -> {
+                racingThread.set(Thread.currentThread());
+                return lockFreeCheck.get();
+              });
+      while (racingThread.get() == null
+          || racingThread.get().getState() != Thread.State.WAITING) {
+        Thread.sleep(1);
+      }
+
+      publish.countDown();
+      assertThat(initializer.get()).isSameAs(object);
+      assertThat(racer.get()).isSameAs(object);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Throwable> E sneakyThrow(Throwable t) throws E {
+    throw (E) t;
+  }
+}
@@ -17,6 +17,7 @@
 package dagger.internal;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
 
 import com.google.common.collect.ImmutableSet;
 import java.util.Arrays;
@@ -74,6 +75,41 @@ public class SetFactoryTest {
     assertThat(factory.get()).containsExactly(2, 12, 24, 25, 34, 35);
   }
 
+  @Test
+  public void memoized_invokesProvidersOnce() {
+    Factory<Set<Integer>> factory =
+        SetFactory.<Integer>builder(1, 1)
+            .addProvider(incrementingIntegerProvider(0))
+            .addCollectionProvider(incrementingIntegerSetProvider(10))
+            .buildMemoized();
+    Set<Integer> first = factory.get();
+    assertThat(first).containsExactly(0, 10, 11);
+    assertThat(factory.get()).isSameAs(first);
+  }
+
+  @Test
+  public void memoized_retriesAfterException() {
+    AtomicInteger calls = new AtomicInteger();
+    Factory<Set<Integer>> factory =
+        SetFactory.<Integer>builder(1, 0)
+            .addProvider(
+                () -> {
+                  if (calls.getAndIncrement() == 0) {
+                    throw new IllegalStateException();
+                  }
+                  return 1;
+                })
+            .buildMemoized();
+    try {
+      factory.get();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    assertThat(factory.get()).containsExactly(1);
+    assertThat(factory.get()).containsExactly(1);
+    assertThat(calls.get()).isEqualTo(2);
+  }
+
   private static Provider<Integer> incrementingIntegerProvider(int seed) {
     final AtomicInteger value = new AtomicInteger(seed);
     return value::getAndIncrement;
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import com.google.common.collect.ImmutableList;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+
+/**
+ * The application sources that {@link ComponentProcessor} needs to generate components: a stub of
+ * {@code android.app.Application}, and a {@code test.TestApplication} that extends the generated
+ * {@code test.DaggerHookApplication} and is named by a {@link dagger.Config @Config}.
+ *
+ * <p>Components compiled with these sources must be public and have a builder, since the generated
+ * application and injector refer to them from other packages.
+ */
+final class ApplicationSources {
+
+  /** Returns {@code sources} and the application sources of a release build. */
+  static ImmutableList<JavaFileObject> withApplication(JavaFileObject... sources) {
+    return withApplication(false, sources);
+  }
+
+  /** Returns {@code sources} and the application sources of a debug build. */
+  static ImmutableList<JavaFileObject> withDebugApplication(JavaFileObject... sources) {
+    return withApplication(true, sources);
+  }
+
+  private static ImmutableList<JavaFileObject> withApplication(
+      boolean debug, JavaFileObject... sources) {
+    return ImmutableList.<JavaFileObject>builder()
+        .add(
+            JavaFileObjects.forSourceLines(
+                "android.app.Application",
+                "package android.app;",
+                "",
+                "public class Application {}"),
+            JavaFileObjects.forSourceLines(
+                "test.TestApplication",
+                "package test;",
+                "",
+                "public class TestApplication extends DaggerHookApplication {}"),
+            JavaFileObjects.forSourceLines(
+                "test.TestConfig",
+                "package test;",
+                "",
+                "import dagger.Config;",
+                "",
+                "@Config(applicationClass = TestApplication.class, debug = " + debug + ")",
+                "final class TestConfig {}"))
+        .add(sources)
+        .build();
+  }
+
+  private ApplicationSources() {}
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.googlejavaformat.java.FormatterException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BackgroundFormattingFilerTest {
+  private final InMemoryFiler filer = new InMemoryFiler();
+  private final RecordingMessager messager = new RecordingMessager();
+
+  @Test
+  public void flush_writesFormattedSources() throws IOException {
+    BackgroundFormattingFiler formattingFiler =
+        new BackgroundFormattingFiler(filer, messager, source -> "formatted " + source);
+    write(formattingFiler, "test.A", "a");
+    write(formattingFiler, "test.B", "b");
+
+    formattingFiler.close();
+
+    assertThat(filer.sources).containsExactly("test.A", "formatted a", "test.B", "formatted b");
+    assertThat(messager.messages).isEmpty();
+  }
+
+  @Test
+  public void flush_formatterException_writesUnformattedSourceWithNote() throws IOException {
+    BackgroundFormattingFiler formattingFiler =
+        new BackgroundFormattingFiler(
+            filer,
+            messager,
+            source -> {
+              throw new FormatterException("expected");
+            });
+    write(formattingFiler, "test.A", "a");
+
+    formattingFiler.close();
+
+    assertThat(filer.sources).containsExactly("test.A", "a");
+    assertThat(messager.messages).containsExactly("NOTE: Error formatting test/A.java");
+  }
+
+  @Test
+  public void flush_unexpectedFailure_writesEverySourceAndWarns() throws IOException {
+    BackgroundFormattingFiler formattingFiler =
+        new BackgroundFormattingFiler(
+            filer,
+            messager,
+            source -> {
+              if (source.equals("b")) {
+                throw new IllegalStateException("formatter bug");
+              }
+              return "formatted " + source;
+            });
+    write(formattingFiler, "test.A", "a");
+    write(formattingFiler, "test.B", "b");
+    write(formattingFiler, "test.C", "c");
+
+    formattingFiler.close();
+
+    assertThat(filer.sources)
+        .containsExactly("test.A", "formatted a", "test.B", "b", "test.C", "formatted c")
+        .inOrder();
+    assertThat(messager.messages).hasSize(1);
+    assertThat(messager.messages.get(0)).startsWith("WARNING: Could not format test/B.java");
+    assertThat(messager.messages.get(0)).contains("formatter bug");
+  }
+
+  private static void write(Filer filer, String name, String source) throws IOException {
+    try (Writer writer = filer.createSourceFile(name).openWriter()) {
+      writer.write(source);
+    }
+  }
+
+  /** A filer that keeps the sources written to it, by name, in the order they were written. */
+  private static final class InMemoryFiler implements Filer {
+    final Map<String, String> sources = new LinkedHashMap<>();
+
+    @Override
+    public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) {
+      String className = name.toString();
+      String path = className.replace('.', '/') + ".java";
+      return new SimpleJavaFileObject(URI.create("mem:///" + path), JavaFileObject.Kind.SOURCE) {
+        @Override
+        public String getName() {
+          return path;
+        }
+
+        @Override
+        public Writer openWriter() {
+          return new StringWriter() {
+            @Override
+            public void close() {
+              sources.put(className, toString());
+            }
+          };
+        }
+      };
+    }
+
+    @Override
+    public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileObject createResource(
+        Location location,
+        CharSequence pkg,
+        CharSequence relativeName,
+        Element... originatingElements) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileObject getResource(
+        Location location, CharSequence pkg, CharSequence relativeName) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /** A messager that records each message as {@code "KIND: message"}. */
+  private static final class RecordingMessager implements Messager {
+    final List<String> messages = new ArrayList<>();
+
+    @Override
+    public void printMessage(Diagnostic.Kind kind, CharSequence msg) {
+      messages.add(kind + ": " + msg);
+    }
+
+    @Override
+    public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e) {
+      printMessage(kind, msg);
+    }
+
+    @Override
+    public void printMessage(
+        Diagnostic.Kind kind, CharSequence msg, Element e, AnnotationMirror a) {
+      printMessage(kind, msg);
+    }
+
+    @Override
+    public void printMessage(
+        Diagnostic.Kind kind,
+        CharSequence msg,
+        Element e,
+        AnnotationMirror a,
+        AnnotationValue v) {
+      printMessage(kind, msg);
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import static dagger.internal.codegen.ApplicationSources.withApplication;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests the cache of {@link BindingGraph.Factory}. */
+@RunWith(JUnit4.class)
+public class BindingGraphCacheTest {
+  private static final JavaFileObject FOO =
+      JavaFileObjects.forSourceLines(
+          "test.Foo",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "final class Foo {",
+          "  @Inject Foo() {}",
+          "}");
+
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "",
+          "@Component",
+          "public interface TestComponent {",
+          "  Foo foo();",
+          "",
+          "  @Component.Builder",
+          "  interface Builder {",
+          "    TestComponent build();",
+          "  }",
+          "}");
+
+  @Test
+  public void graphRequestedAgainInRound_isCacheHit() {
+    ComponentProcessor processor = new ComponentProcessor();
+    Compilation compilation =
+        javac().withProcessors(processor).compile(withApplication(FOO, COMPONENT));
+    assertThat(compilation).succeeded();
+    BindingGraph.Factory bindingGraphFactory = processor.bindingGraphFactory();
+    assertThat(bindingGraphFactory.cacheMisses()).isEqualTo(1);
+    assertThat(bindingGraphFactory.cacheHits()).isGreaterThan(0);
+  }
+
+  @Test
+  public void postRound_clearsCache() {
+    ComponentProcessor processor = new ComponentProcessor();
+    CachedGraphCountRecorder recorder = new CachedGraphCountRecorder(processor);
+    Compilation compilation =
+        javac().withProcessors(processor, recorder).compile(withApplication(FOO, COMPONENT));
+    assertThat(compilation).succeeded();
+    assertThat(processor.bindingGraphFactory().cacheMisses()).isEqualTo(1);
+    assertThat(recorder.cachedGraphCounts.size()).isGreaterThan(1);
+    assertThat(ImmutableSet.copyOf(recorder.cachedGraphCounts)).containsExactly(0);
+  }
+
+  @Test
+  public void printBindingGraphCacheStats_printsCounters() {
+    ComponentProcessor processor = new ComponentProcessor();
+    Compilation compilation =
+        javac()
+            .withProcessors(processor)
+            .withOptions("-Adagger.printBindingGraphCacheStats=enabled")
+            .compile(withApplication(FOO, COMPONENT));
+    assertThat(compilation).succeeded();
+    BindingGraph.Factory bindingGraphFactory = processor.bindingGraphFactory();
+    assertThat(compilation)
+        .hadNoteContaining(
+            String.format(
+                "Dagger binding graph cache: %d hits, %d misses",
+                bindingGraphFactory.cacheHits(), bindingGraphFactory.cacheMisses()));
+  }
+
+  @Test
+  public void printBindingGraphCacheStats_disabledByDefault() {
+    Compilation compilation =
+        javac()
+            .withProcessors(new ComponentProcessor())
+            .compile(withApplication(FOO, COMPONENT));
+    assertThat(compilation).succeeded();
+    for (Diagnostic<? extends JavaFileObject> note : compilation.notes()) {
+      assertThat(note.getMessage(Locale.getDefault()))
+          .doesNotContain("Dagger binding graph cache");
+    }
+  }
+
+  /**
+   * Records how many graphs are cached at the end of each round. It runs after {@link
+   * ComponentProcessor}, so it sees the cache once the round's {@code postRound} has run.
+   */
+  private static final class CachedGraphCountRecorder extends AbstractProcessor {
+    private final ComponentProcessor componentProcessor;
+    final List<Integer> cachedGraphCounts = new ArrayList<>();
+
+    CachedGraphCountRecorder(ComponentProcessor componentProcessor) {
+      this.componentProcessor = componentProcessor;
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return ImmutableSet.of("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      cachedGraphCounts.add(componentProcessor.bindingGraphFactory().cachedGraphCount());
+      return false;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.ApplicationSources.withApplication;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Locale;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CompilerProfilerTest {
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import javax.inject.Inject;",
+          "",
+          "@Component",
+          "public interface TestComponent {",
+          "  Foo foo();",
+          "",
+          "  @Component.Builder",
+          "  interface Builder {",
+          "    TestComponent build();",
+          "  }",
+          "",
+          "  final class Foo {",
+          "    @Inject Foo() {}",
+          "  }",
+          "}");
+
+  @Test
+  public void profileEnabled_printsReport() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.profile=enabled")
+            .compile(withApplication(COMPONENT));
+    assertThat(compilation).succeeded();
+    String report = profileReport(compilation);
+    assertThat(report).contains("test.TestComponent");
+    assertThat(report).contains("resolve binding graph");
+    assertThat(report).contains("validate binding graph");
+    assertThat(report).contains("generate component");
+    assertThat(report).contains("ComponentProcessingStep");
+  }
+
+  @Test
+  public void profileDisabled_printsNoReport() {
+    Compilation compilation = daggerCompiler().compile(withApplication(COMPONENT));
+    assertThat(compilation).succeeded();
+    assertThat(profileReport(compilation)).isEmpty();
+  }
+
+  /** Returns the text of the profile report note, or an empty string if there is none. */
+  private static String profileReport(Compilation compilation) {
+    for (Diagnostic<? extends JavaFileObject> note : compilation.notes()) {
+      String message = note.getMessage(Locale.getDefault());
+      if (message.startsWith("Dagger profile")) {
+        return message;
+      }
+    }
+    return "";
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static dagger.internal.codegen.ApplicationSources.withApplication;
+import static dagger.internal.codegen.ApplicationSources.withDebugApplication;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests {@code -Adagger.skipUnchangedComponents} across builds that share their output
+ * directories, like incremental builds do.
+ */
+@RunWith(JUnit4.class)
+public class ComponentFingerprintsTest {
+  /** A comment added to the source recorded by a build, to tell when it is written again. */
+  private static final String MARKER = "// Written from the previous build's output.";
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File classOutput;
+  private File sourceOutput;
+
+  @Before
+  public void setUp() throws IOException {
+    classOutput = temporaryFolder.newFolder("classes");
+    sourceOutput = temporaryFolder.newFolder("sources");
+  }
+
+  private static final JavaFileObject FOO =
+      JavaFileObjects.forSourceLines(
+          "test.Foo",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "public final class Foo {",
+          "  @Inject Foo() {}",
+          "}");
+
+  private static JavaFileObject component(String... entryPoints) {
+    ImmutableList.Builder<String> lines =
+        ImmutableList.<String>builder()
+            .add(
+                "package test;",
+                "",
+                "import dagger.Component;",
+                "",
+                "@Component",
+                "public interface TestComponent {")
+            .add(entryPoints)
+            .add(
+                "  @Component.Builder",
+                "  interface Builder {",
+                "    TestComponent build();",
+                "  }",
+                "}");
+    return JavaFileObjects.forSourceLines("test.TestComponent", lines.build());
+  }
+
+  @Test
+  public void unchangedComponent_writesPreviousSourceAgain() throws IOException {
+    compile(withApplication(FOO, component("  Foo foo();")));
+    markRecordedSource();
+
+    compile(withApplication(FOO, component("  Foo foo();")));
+
+    assertThat(generatedComponent()).contains(MARKER);
+    assertThat(fingerprintFile().exists()).isTrue();
+  }
+
+  @Test
+  public void changedComponent_isGeneratedAgain() throws IOException {
+    compile(withApplication(FOO, component("  Foo foo();")));
+    markRecordedSource();
+
+    compile(withApplication(FOO, component("  Foo foo();", "  Foo otherFoo();")));
+
+    assertThat(generatedComponent()).doesNotContain(MARKER);
+    assertThat(generatedComponent()).contains("otherFoo()");
+  }
+
+  @Test
+  public void changedVisibilityOfDependency_isGeneratedAgain() throws IOException {
+    compile(withApplication(bar(), foo("public final class Foo {"), component("  other.Bar bar();")));
+    markRecordedSource();
+
+    // Only the visibility changes, which decides whether the component may refer to Foo.
+    compile(withApplication(bar(), foo("final class Foo {"), component("  other.Bar bar();")));
+
+    assertThat(generatedComponent()).doesNotContain(MARKER);
+  }
+
+  private static JavaFileObject foo(String declaration) {
+    return JavaFileObjects.forSourceLines(
+        "other.Foo",
+        "package other;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        declaration,
+        "  @Inject Foo() {}",
+        "}");
+  }
+
+  private static JavaFileObject bar() {
+    return JavaFileObjects.forSourceLines(
+        "other.Bar",
+        "package other;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "public final class Bar {",
+        "  @Inject Bar(Foo foo) {}",
+        "}");
+  }
+
+  @Test
+  public void disabled_recordsNothing() throws IOException {
+    compile(
+        withApplication(FOO, component("  Foo foo();")),
+        "-Adagger.skipUnchangedComponents=disabled");
+
+    assertThat(fingerprintFile().exists()).isFalse();
+  }
+
+  @Test
+  public void debugBuild_recordsNothing() throws IOException {
+    compile(withDebugApplication(FOO, component("  Foo foo();")));
+
+    assertThat(fingerprintFile().exists()).isFalse();
+  }
+
+  private void compile(ImmutableList<JavaFileObject> sources) throws IOException {
+    compile(sources, "-Adagger.skipUnchangedComponents=enabled");
+  }
+
+  private void compile(
+      ImmutableList<JavaFileObject> sources, String skipUnchangedComponentsOption)
+      throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, null, UTF_8)) {
+      ImmutableList<String> options =
+          ImmutableList.of(
+              "-d",
+              classOutput.getPath(),
+              "-s",
+              sourceOutput.getPath(),
+              "-classpath",
+              System.getProperty("java.class.path"),
+              "-proc:only",
+              skipUnchangedComponentsOption);
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+      task.setProcessors(ImmutableList.of(new ComponentProcessor()));
+      assertWithMessage(diagnostics.getDiagnostics().toString()).that(task.call()).isTrue();
+    }
+  }
+
+  /** Adds {@link #MARKER} to the source that the last build recorded for the component. */
+  private void markRecordedSource() throws IOException {
+    assertWithMessage("recorded fingerprint").that(fingerprintFile().exists()).isTrue();
+    Files.write(
+        fingerprintFile().toPath(), (MARKER + "\n").getBytes(UTF_8), StandardOpenOption.APPEND);
+  }
+
+  private File fingerprintFile() {
+    return new File(classOutput, "test/TestComponent.dagger_fingerprint");
+  }
+
+  private String generatedComponent() throws IOException {
+    Path path = new File(sourceOutput, "test/DaggerTestComponent.java").toPath();
+    return new String(Files.readAllBytes(path), UTF_8);
+  }
+}
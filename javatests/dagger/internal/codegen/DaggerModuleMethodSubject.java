@@ -151,6 +151,22 @@ final class DaggerModuleMethodSubject extends Subject<DaggerModuleMethodSubject,
         .onLine(methodLine(source));
   }
 
+  /**
+   * Fails if compiling the module with the method doesn't succeed with a warning at the method
+   * declaration whose message contains {@code warningSubstring}.
+   */
+  void hasWarning(String warningSubstring) {
+    String source = moduleSource();
+    JavaFileObject module = JavaFileObjects.forSourceLines("test.TestModule", source);
+    assertAbout(javaSources())
+        .that(FluentIterable.from(additionalSources).append(module))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .withWarningContaining(warningSubstring)
+        .in(module)
+        .onLine(methodLine(source));
+  }
+
   private int methodLine(String source) {
     String beforeMethod = source.substring(0, source.indexOf(actual()));
     int methodLine = 1;
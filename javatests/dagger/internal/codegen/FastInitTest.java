@@ -0,0 +1,304 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.ApplicationSources.withApplication;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_ANNOTATION;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@code -Adagger.fastInit}. */
+@RunWith(JUnit4.class)
+public class FastInitTest {
+  private static final JavaFileObject MODULE =
+      JavaFileObjects.forSourceLines(
+          "test.TestModule",
+          "package test;",
+          "",
+          "import dagger.Module;",
+          "import dagger.Provides;",
+          "import javax.annotation.Nullable;",
+          "",
+          "@Module",
+          "final class TestModule {",
+          "  @Provides",
+          "  static String string() {",
+          "    return \"string\";",
+          "  }",
+          "",
+          "  @Provides",
+          "  @Nullable",
+          "  static Integer nullableInteger() {",
+          "    return null;",
+          "  }",
+          "}");
+
+  private static final JavaFileObject FOO =
+      JavaFileObjects.forSourceLines(
+          "test.Foo",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "final class Foo {",
+          "  @Inject Foo(String string) {}",
+          "}");
+
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import javax.annotation.Nullable;",
+          "import javax.inject.Provider;",
+          "",
+          "@Component(modules = TestModule.class)",
+          "public interface TestComponent {",
+          "  Provider<String> string();",
+          "  @Nullable Provider<Integer> nullableInteger();",
+          "  Provider<Foo> foo();",
+          "",
+          "  @Component.Builder",
+          "  interface Builder {",
+          "    TestComponent build();",
+          "  }",
+          "}");
+
+  @Test
+  public void enabled_usesSwitchingProvider() {
+    JavaFileObject generatedComponent =
+        JavaFileObjects.forSourceLines(
+            "test.DaggerTestComponent",
+            "package test;",
+            "",
+            "import dagger.internal.Preconditions;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            GENERATED_ANNOTATION,
+            "public class DaggerTestComponent implements TestComponent {",
+            "  Provider<String> stringProvider;",
+            "  Provider<Integer> nullableIntegerProvider;",
+            "  Provider<Foo> fooProvider;",
+            "",
+            "  DaggerTestComponent(Builder builder) {",
+            "    assert builder != null;",
+            "    initialize(builder);",
+            "  }",
+            "",
+            "  public static TestComponent.Builder builder(TestApplication application) {",
+            "    return application.decorateTestComponent(new Builder());",
+            "  }",
+            "",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  private void initialize(final Builder builder) {",
+            "    this.stringProvider = new SwitchingProvider<String>(0);",
+            "    this.nullableIntegerProvider = new SwitchingProvider<Integer>(1);",
+            "    this.fooProvider = new SwitchingProvider<Foo>(2);",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<String> string() {",
+            "    return stringProvider;",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<Integer> nullableInteger() {",
+            "    return nullableIntegerProvider;",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<Foo> foo() {",
+            "    return fooProvider;",
+            "  }",
+            "",
+            "  public static final class Builder implements TestComponent.Builder {",
+            "    @Override",
+            "    public TestComponent build() {",
+            "      return new DaggerTestComponent(this);",
+            "    }",
+            "  }",
+            "",
+            "  private final class SwitchingProvider<T> implements Provider<T> {",
+            "    private final int id;",
+            "",
+            "    SwitchingProvider(int id) {",
+            "      this.id = id;",
+            "    }",
+            "",
+            "    @SuppressWarnings(\"unchecked\")",
+            "    @Override",
+            "    public T get() {",
+            "      switch (id) {",
+            "        case 0:",
+            "          return (T) Preconditions.checkNotNull(",
+            "              TestModule.string(),",
+            "              \"Cannot return null from a non-@Nullable @Provides method\");",
+            "        case 1:",
+            "          return (T) TestModule.nullableInteger();",
+            "        case 2:",
+            "          return (T) new Foo(TestModule.string());",
+            "        default:",
+            "          throw new AssertionError(id);",
+            "      }",
+            "    }",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.fastInit=enabled")
+            .compile(withApplication(MODULE, FOO, COMPONENT));
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .hasSourceEquivalentTo(generatedComponent);
+  }
+
+  @Test
+  public void disabled_usesFactories() {
+    JavaFileObject generatedComponent =
+        JavaFileObjects.forSourceLines(
+            "test.DaggerTestComponent",
+            "package test;",
+            "",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            GENERATED_ANNOTATION,
+            "public class DaggerTestComponent implements TestComponent {",
+            "  Provider<String> stringProvider;",
+            "  Provider<Integer> nullableIntegerProvider;",
+            "  Provider<Foo> fooProvider;",
+            "",
+            "  DaggerTestComponent(Builder builder) {",
+            "    assert builder != null;",
+            "    initialize(builder);",
+            "  }",
+            "",
+            "  public static TestComponent.Builder builder(TestApplication application) {",
+            "    return application.decorateTestComponent(new Builder());",
+            "  }",
+            "",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  private void initialize(final Builder builder) {",
+            "    this.stringProvider = TestModule_StringFactory.create();",
+            "    this.nullableIntegerProvider = TestModule_NullableIntegerFactory.create();",
+            "    this.fooProvider = Foo_Factory.create(stringProvider);",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<String> string() {",
+            "    return stringProvider;",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<Integer> nullableInteger() {",
+            "    return nullableIntegerProvider;",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<Foo> foo() {",
+            "    return fooProvider;",
+            "  }",
+            "",
+            "  public static final class Builder implements TestComponent.Builder {",
+            "    @Override",
+            "    public TestComponent build() {",
+            "      return new DaggerTestComponent(this);",
+            "    }",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.fastInit=disabled")
+            .compile(withApplication(MODULE, FOO, COMPONENT));
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .hasSourceEquivalentTo(generatedComponent);
+  }
+
+  @Test
+  public void enabled_multibindingContributions() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.MultibindingModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntoMap;",
+            "import dagger.multibindings.IntoSet;",
+            "import dagger.multibindings.StringKey;",
+            "",
+            "@Module",
+            "final class MultibindingModule {",
+            "  @Provides",
+            "  @IntoSet",
+            "  static String setContribution() {",
+            "    return \"set\";",
+            "  }",
+            "",
+            "  @Provides",
+            "  @IntoMap",
+            "  @StringKey(\"key\")",
+            "  static Integer mapContribution() {",
+            "    return 1;",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Map;",
+            "import java.util.Set;",
+            "",
+            "@Component(modules = MultibindingModule.class)",
+            "public interface TestComponent {",
+            "  Set<String> set();",
+            "  Map<String, Integer> map();",
+            "",
+            "  @Component.Builder",
+            "  interface Builder {",
+            "    TestComponent build();",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.fastInit=enabled")
+            .compile(withApplication(module, component));
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("new SwitchingProvider<String>(0)");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("new SwitchingProvider<Integer>(1)");
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.ApplicationSources.withApplication;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.googlejavaformat.java.Formatter;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.IOException;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@code -Adagger.formatGeneratedSource}. */
+@RunWith(JUnit4.class)
+public class GeneratedSourceFormattingTest {
+  private static final String SOURCE_OUTPUT = "/SOURCE_OUTPUT/";
+
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import javax.inject.Inject;",
+          "",
+          "@Component",
+          "public interface TestComponent {",
+          "  Foo foo();",
+          "",
+          "  @Component.Builder",
+          "  interface Builder {",
+          "    TestComponent build();",
+          "  }",
+          "",
+          "  final class Foo {",
+          "    @Inject Foo() {}",
+          "  }",
+          "}");
+
+  @Test
+  public void background_writesSameSourcesAsEnabled() throws IOException {
+    Compilation enabled = compile("enabled");
+    Compilation background = compile("background");
+
+    assertThat(background.generatedSourceFiles()).hasSize(enabled.generatedSourceFiles().size());
+    for (JavaFileObject file : enabled.generatedSourceFiles()) {
+      assertThat(generatedSource(background, file)).isEqualTo(file.getCharContent(false));
+    }
+  }
+
+  @Test
+  public void disabled_writesSourcesAsGenerated() throws Exception {
+    Compilation disabled = compile("disabled");
+    Compilation enabled = compile("enabled");
+
+    String unformatted = generatedSource(disabled, "test/DaggerTestComponent.java");
+    String formatted = generatedSource(enabled, "test/DaggerTestComponent.java");
+    assertThat(unformatted).isNotEqualTo(formatted);
+    assertThat(new Formatter().formatSource(unformatted)).isEqualTo(formatted);
+  }
+
+  private static Compilation compile(String formatGeneratedSource) {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.formatGeneratedSource=" + formatGeneratedSource)
+            .compile(withApplication(COMPONENT));
+    assertThat(compilation).succeeded();
+    return compilation;
+  }
+
+  private static String generatedSource(Compilation compilation, JavaFileObject file)
+      throws IOException {
+    String uriPath = file.toUri().getPath();
+    return generatedSource(
+        compilation, uriPath.substring(uriPath.indexOf(SOURCE_OUTPUT) + SOURCE_OUTPUT.length()));
+  }
+
+  private static String generatedSource(Compilation compilation, String path) throws IOException {
+    for (JavaFileObject file : compilation.generatedSourceFiles()) {
+      if (file.toUri().getPath().endsWith(SOURCE_OUTPUT + path)) {
+        return file.getCharContent(false).toString();
+      }
+    }
+    throw new AssertionError("No generated source " + path);
+  }
+}
@@ -18,12 +18,16 @@ package dagger.internal.codegen;
 
 import static com.google.common.truth.Truth.assertAbout;
 import static com.google.testing.compile.JavaSourceSubjectFactory.javaSource;
+import static com.google.testing.compile.CompilationSubject.assertThat;
 import static com.google.testing.compile.JavaSourcesSubject.assertThat;
 import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static dagger.internal.codegen.ApplicationSources.withApplication;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
 import static dagger.internal.codegen.ErrorMessages.nullableToNonNullable;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.testing.compile.Compilation;
 import com.google.testing.compile.JavaFileObjects;
 import java.util.Arrays;
 import javax.tools.JavaFileObject;
@@ -106,6 +110,67 @@ public class GraphValidationTest {
         .onLine(13);
   }
 
+  @Test public void missingBindingReportedAtEachEntryPointThatReachesIt() {
+    JavaFileObject types =
+        JavaFileObjects.forSourceLines(
+            "test.TestClass",
+            "package test;",
+            "",
+            "import javax.inject.Inject;",
+            "",
+            "public final class TestClass {",
+            "  public interface Missing {}",
+            "",
+            "  public static class Shared {",
+            "    @Inject Shared(Missing missing) {}",
+            "  }",
+            "",
+            "  public static class A {",
+            "    @Inject A(Shared shared) {}",
+            "  }",
+            "",
+            "  public static class B {",
+            "    @Inject B(Shared shared) {}",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "",
+            "@Component",
+            "public interface TestComponent {",
+            "  TestClass.A a();",
+            "  TestClass.B b();",
+            "",
+            "  @Component.Builder",
+            "  interface Builder {",
+            "    TestComponent build();",
+            "  }",
+            "}");
+    Compilation compilation = daggerCompiler().compile(withApplication(types, component));
+    assertThat(compilation).failed();
+    // The shared part of the trace is only resolved once, but each entry point gets its own.
+    for (String entryPoint : ImmutableList.of("A", "B")) {
+      assertThat(compilation)
+          .hadErrorContaining(
+              Joiner.on('\n')
+                  .join(
+                      "test.TestClass.Missing cannot be provided without an @Provides-annotated "
+                          + "method.",
+                      "      test.TestClass.Missing is injected at",
+                      "          test.TestClass.Shared.<init>(missing)",
+                      "      test.TestClass.Shared is injected at",
+                      "          test.TestClass." + entryPoint + ".<init>(shared)",
+                      "      test.TestClass." + entryPoint + " is provided at",
+                      "          test.TestComponent." + entryPoint.toLowerCase() + "()"))
+          .inFile(component)
+          .onLine(entryPoint.equals("A") ? 7 : 8);
+    }
+  }
+
   @Test public void constructorInjectionWithoutAnnotation() {
     JavaFileObject component = JavaFileObjects.forSourceLines("test.TestClass",
         "package test;",
@@ -344,6 +409,60 @@ public class GraphValidationTest {
         .onLine(27);
   }
 
+  @Test
+  public void cyclicDependencyFirstReachedThroughProvider() {
+    JavaFileObject types =
+        JavaFileObjects.forSourceLines(
+            "test.Outer",
+            "package test;",
+            "",
+            "import javax.inject.Inject;",
+            "import javax.inject.Provider;",
+            "",
+            "public final class Outer {",
+            "  public static class A {",
+            "    @Inject A(Provider<B> bProvider, B bParam) {}",
+            "  }",
+            "",
+            "  public static class B {",
+            "    @Inject B(A aParam, Provider<B> bProvider) {}",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.AComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "",
+            "@Component",
+            "public interface AComponent {",
+            "  Outer.A getA();",
+            "",
+            "  @Component.Builder",
+            "  interface Builder {",
+            "    AComponent build();",
+            "  }",
+            "}");
+
+    // The traversal from getA() only reaches the cycle through Provider<B>, which breaks it, so
+    // the cycle is reported by the strongly connected components fallback.
+    String expectedError =
+        Joiner.on('\n')
+            .join(
+                "Found a dependency cycle:",
+                "      test.Outer.A is injected at",
+                "          test.Outer.B.<init>(aParam, …)",
+                "      test.Outer.B is injected at",
+                "          test.Outer.A.<init>(…, bParam)",
+                "      test.Outer.A is injected at",
+                "          test.Outer.B.<init>(aParam, …)");
+
+    Compilation compilation = daggerCompiler().compile(withApplication(types, component));
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContaining(expectedError).inFile(component).onLine(6);
+  }
+
   @Test
   public void cyclicDependencyNotBrokenByMapBinding() {
     JavaFileObject component =
@@ -29,6 +29,7 @@ import dagger.multibindings.ElementsIntoSet;
 import dagger.multibindings.IntoSet;
 import dagger.producers.ProducerModule;
 import dagger.producers.Produces;
+import java.util.Optional;
 import java.util.Set;
 import javax.inject.Inject;
 import javax.inject.Qualifier;
@@ -228,6 +229,26 @@ public class KeyTest {
     assertThat(integerKey.toString()).isEqualTo("java.lang.Integer");
   }
 
+  @Test public void factoryInternsEquivalentKeys() {
+    TypeElement moduleElement =
+        elements.getTypeElement(QualifiedProvidesMethodModule.class.getCanonicalName());
+    ExecutableElement providesMethod =
+        Iterables.getOnlyElement(ElementFilter.methodsIn(moduleElement.getEnclosedElements()));
+    Key provisionKey = keyFactory.forProvidesMethod(providesMethod, moduleElement);
+
+    TypeMirror type = elements.getTypeElement(String.class.getCanonicalName()).asType();
+    TypeElement injectableElement =
+        elements.getTypeElement(QualifiedFieldHolder.class.getCanonicalName());
+    Element injectionField =
+        Iterables.getOnlyElement(ElementFilter.fieldsIn(injectableElement.getEnclosedElements()));
+    AnnotationMirror qualifier = Iterables.getOnlyElement(injectionField.getAnnotationMirrors());
+    Key injectionKey = keyFactory.forQualifiedType(Optional.of(qualifier), type);
+
+    assertThat(injectionKey).isSameAs(provisionKey);
+    assertThat(keyFactory.forQualifiedType(Optional.empty(), type))
+        .isNotEqualTo(provisionKey);
+  }
+
   @Test public void forProducesMethod() {
     TypeMirror stringType = elements.getTypeElement(String.class.getCanonicalName()).asType();
     TypeElement moduleElement =
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.ApplicationSources.withApplication;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.IOException;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@code -Adagger.lockFreeScopedProviders}. */
+@RunWith(JUnit4.class)
+public class LockFreeScopedProvidersTest {
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import dagger.Reusable;",
+          "import javax.inject.Inject;",
+          "import javax.inject.Singleton;",
+          "",
+          "@Singleton",
+          "@Component",
+          "public interface TestComponent {",
+          "  ScopedType scopedType();",
+          "  ReusableType reusableType();",
+          "",
+          "  @Component.Builder",
+          "  interface Builder {",
+          "    TestComponent build();",
+          "  }",
+          "",
+          "  @Singleton",
+          "  final class ScopedType {",
+          "    @Inject ScopedType() {}",
+          "  }",
+          "",
+          "  @Reusable",
+          "  final class ReusableType {",
+          "    @Inject ReusableType() {}",
+          "  }",
+          "}");
+
+  @Test
+  public void enabled_usesLockFreeCheckForScopedBindings() throws IOException {
+    String component = generatedComponent("-Adagger.lockFreeScopedProviders=enabled");
+
+    assertThat(component)
+        .contains("LockFreeCheck.provider(TestComponent_ScopedType_Factory.create())");
+    assertThat(component)
+        .contains("SingleCheck.provider(TestComponent_ReusableType_Factory.create())");
+    assertThat(component).doesNotContain("DoubleCheck");
+  }
+
+  @Test
+  public void disabled_usesDoubleCheckForScopedBindings() throws IOException {
+    String component = generatedComponent("-Adagger.lockFreeScopedProviders=disabled");
+
+    assertThat(component)
+        .contains("DoubleCheck.provider(TestComponent_ScopedType_Factory.create())");
+    assertThat(component)
+        .contains("SingleCheck.provider(TestComponent_ReusableType_Factory.create())");
+    assertThat(component).doesNotContain("LockFreeCheck");
+  }
+
+  private static String generatedComponent(String lockFreeScopedProvidersOption)
+      throws IOException {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(lockFreeScopedProvidersOption)
+            .compile(withApplication(COMPONENT));
+    assertThat(compilation).succeeded();
+    return compilation
+        .generatedFile(StandardLocation.SOURCE_OUTPUT, "test/DaggerTestComponent.java")
+        .get()
+        .getCharContent(false)
+        .toString();
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.JavaSourceSubjectFactory.javaSource;
+import static dagger.internal.codegen.ApplicationSources.withApplication;
+import static dagger.internal.codegen.ApplicationSources.withDebugApplication;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_ANNOTATION;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import dagger.internal.testsources.TestSources;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests that set multibindings are memoized when all their contributions are. */
+@RunWith(JUnit4.class)
+public class MemoizedSetMultibindingTest {
+  private static final JavaFileObject MODULE =
+      JavaFileObjects.forSourceLines(
+          "test.TestModule",
+          "package test;",
+          "",
+          "import dagger.Binds;",
+          "import dagger.Module;",
+          "import dagger.Provides;",
+          "import dagger.multibindings.IntoSet;",
+          "import javax.inject.Singleton;",
+          "",
+          "@Module",
+          "abstract class TestModule {",
+          "  @Provides",
+          "  @Singleton",
+          "  @IntoSet",
+          "  static Object scoped() {",
+          "    return \"scoped\";",
+          "  }",
+          "",
+          "  @Binds",
+          "  @IntoSet",
+          "  abstract Object boundInstance(String instance);",
+          "}");
+
+  private static final JavaFileObject UNSCOPED_MODULE =
+      JavaFileObjects.forSourceLines(
+          "test.UnscopedModule",
+          "package test;",
+          "",
+          "import dagger.Module;",
+          "import dagger.Provides;",
+          "import dagger.multibindings.IntoSet;",
+          "",
+          "@Module",
+          "final class UnscopedModule {",
+          "  @Provides",
+          "  @IntoSet",
+          "  static Object unscoped() {",
+          "    return new Object();",
+          "  }",
+          "}");
+
+  @Test
+  public void alwaysSameInstances_memoizesSet() {
+    JavaFileObject generatedComponent =
+        JavaFileObjects.forSourceLines(
+            "test.DaggerTestComponent",
+            "package test;",
+            "",
+            "import dagger.internal.DoubleCheck;",
+            "import dagger.internal.InstanceFactory;",
+            "import dagger.internal.Preconditions;",
+            "import dagger.internal.SetFactory;",
+            "import java.util.Set;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            GENERATED_ANNOTATION,
+            "public class DaggerTestComponent implements TestComponent {",
+            "  Provider<Object> scopedProvider;",
+            "  Provider<String> instanceProvider;",
+            "  Provider<Object> boundInstanceProvider;",
+            "  Provider<Set<Object>> setOfObjectProvider;",
+            "",
+            "  DaggerTestComponent(Builder builder) {",
+            "    assert builder != null;",
+            "    initialize(builder);",
+            "  }",
+            "",
+            "  public static TestComponent.Builder builder(TestApplication application) {",
+            "    return application.decorateTestComponent(new Builder());",
+            "  }",
+            "",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  private void initialize(final Builder builder) {",
+            "    this.scopedProvider = DoubleCheck.provider(TestModule_ScopedFactory.create());",
+            "    this.instanceProvider = InstanceFactory.create(builder.instance);",
+            "    this.boundInstanceProvider = (Provider) instanceProvider;",
+            "    this.setOfObjectProvider =",
+            "        SetFactory.<Object>builder(2, 0)",
+            "            .addProvider(scopedProvider)",
+            "            .addProvider(boundInstanceProvider)",
+            "            .buildMemoized();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Set<Object> set() {",
+            "    return setOfObjectProvider.get();",
+            "  }",
+            "",
+            "  public static final class Builder implements TestComponent.Builder {",
+            "    private String instance;",
+            "",
+            "    @Override",
+            "    public TestComponent build() {",
+            "      if (instance == null) {",
+            "        throw new IllegalStateException(",
+            "            String.class.getCanonicalName() + \" must be set\");",
+            "      }",
+            "      return new DaggerTestComponent(this);",
+            "    }",
+            "",
+            "    @Override",
+            "    public Builder instance(String instance) {",
+            "      this.instance = Preconditions.checkNotNull(instance);",
+            "      return this;",
+            "    }",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler().compile(withApplication(MODULE, component("TestModule.class")));
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .hasSourceEquivalentTo(generatedComponent);
+  }
+
+  @Test
+  public void unscopedContribution_doesNotMemoizeSet() {
+    Compilation compilation =
+        daggerCompiler()
+            .compile(
+                withApplication(
+                    MODULE, UNSCOPED_MODULE, component("TestModule.class, UnscopedModule.class")));
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("buildMemoized()");
+  }
+
+  @Test
+  public void testComponent_doesNotMemoizeSet() throws IOException {
+    JavaFileObject generatedTestComponent =
+        JavaFileObjects.forSourceLines(
+            "test.TestDaggerTestComponent",
+            "package test;",
+            "",
+            "import dagger.internal.DoubleCheck;",
+            "import dagger.internal.InstanceFactory;",
+            "import dagger.internal.Preconditions;",
+            "import dagger.internal.SetFactory;",
+            "import java.util.Set;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            GENERATED_ANNOTATION,
+            "public class TestDaggerTestComponent implements TestComponent {",
+            "  Provider<Object> scopedProvider;",
+            "  Provider<String> instanceProvider;",
+            "  Provider<Object> boundInstanceProvider;",
+            "  Provider<Set<Object>> setOfObjectProvider;",
+            "",
+            "  TestDaggerTestComponent(Builder builder) {",
+            "    assert builder != null;",
+            "    initialize(builder);",
+            "  }",
+            "",
+            "  public static TestComponent.Builder builder(TestApplication application) {",
+            "    return application.decorateTestComponent(new Builder());",
+            "  }",
+            "",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  private void initialize(final Builder builder) {",
+            "    this.scopedProvider = DoubleCheck.provider(TestModule_ScopedFactory.create());",
+            "    this.instanceProvider = InstanceFactory.create(builder.instance);",
+            "    this.boundInstanceProvider = (Provider) instanceProvider;",
+            "    this.setOfObjectProvider =",
+            "        SetFactory.<Object>builder(2, 0)",
+            "            .addProvider(scopedProvider)",
+            "            .addProvider(boundInstanceProvider)",
+            "            .build();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Set<Object> set() {",
+            "    return setOfObjectProvider.get();",
+            "  }",
+            "",
+            "  public Provider<String> getString() {",
+            "    return instanceProvider;",
+            "  }",
+            "",
+            "  public static final class Builder implements TestComponent.Builder {",
+            "    private String instance;",
+            "",
+            "    @Override",
+            "    public TestComponent build() {",
+            "      if (instance == null) {",
+            "        throw new IllegalStateException(",
+            "            String.class.getCanonicalName() + \" must be set\");",
+            "      }",
+            "      return new TestDaggerTestComponent(this);",
+            "    }",
+            "",
+            "    @Override",
+            "    public Builder instance(String instance) {",
+            "      this.instance = Preconditions.checkNotNull(instance);",
+            "      return this;",
+            "    }",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler().compile(withDebugApplication(MODULE, component("TestModule.class")));
+    assertThat(compilation).succeeded();
+    assertAbout(javaSource())
+        .that(
+            JavaFileObjects.forSourceString(
+                "test.TestDaggerTestComponent",
+                testSources(compilation).get("test.TestDaggerTestComponent")))
+        .parsesAs(generatedTestComponent);
+  }
+
+  private static JavaFileObject component(String modules) {
+    return JavaFileObjects.forSourceLines(
+        "test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.BindsInstance;",
+        "import dagger.Component;",
+        "import java.util.Set;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "@Component(modules = {" + modules + "})",
+        "public interface TestComponent {",
+        "  Set<Object> set();",
+        "",
+        "  @Component.Builder",
+        "  interface Builder {",
+        "    @BindsInstance Builder instance(String instance);",
+        "    TestComponent build();",
+        "  }",
+        "}");
+  }
+
+  /** Returns the test sources that a debug build shipped to the test compilation, by name. */
+  private static Map<String, String> testSources(Compilation compilation) throws IOException {
+    Map<String, String> sources = new HashMap<>();
+    JavaFileObject resource =
+        compilation
+            .generatedFile(StandardLocation.CLASS_OUTPUT, TestSources.PACKAGE, TestSources.RESOURCE)
+            .get();
+    try (InputStream inputStream = resource.openInputStream()) {
+      TestSources.read(
+          inputStream,
+          qualifiedName ->
+              new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                  sources.put(qualifiedName, new String(toByteArray(), UTF_8));
+                }
+              });
+    }
+    return sources;
+  }
+}
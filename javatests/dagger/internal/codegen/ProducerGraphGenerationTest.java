@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.ApplicationSources.withApplication;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_ANNOTATION;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests the {@code ProducerGraph} generated for each production component. */
+@RunWith(JUnit4.class)
+public class ProducerGraphGenerationTest {
+  private static final JavaFileObject MODULE =
+      JavaFileObjects.forSourceLines(
+          "test.TestModule",
+          "package test;",
+          "",
+          "import dagger.Provides;",
+          "import dagger.producers.Produced;",
+          "import dagger.producers.ProducerModule;",
+          "import dagger.producers.Produces;",
+          "import dagger.producers.Production;",
+          "import dagger.multibindings.IntoSet;",
+          "import java.util.Set;",
+          "import java.util.concurrent.Executor;",
+          "import javax.inject.Provider;",
+          "",
+          "@ProducerModule",
+          "final class TestModule {",
+          "  @Provides",
+          "  @Production",
+          "  static Executor executor() {",
+          "    return Runnable::run;",
+          "  }",
+          "",
+          "  @Provides",
+          "  static Long provided() {",
+          "    return 1L;",
+          "  }",
+          "",
+          "  @Produces",
+          "  static Integer integer(Long provided) {",
+          "    return 2;",
+          "  }",
+          "",
+          "  @Produces",
+          "  @IntoSet",
+          "  static CharSequence first(Integer integer) {",
+          "    return \"first\";",
+          "  }",
+          "",
+          "  @Produces",
+          "  @IntoSet",
+          "  static CharSequence second() {",
+          "    return \"second\";",
+          "  }",
+          "",
+          "  @Produces",
+          "  static String string(",
+          "      Produced<Integer> integer, Set<CharSequence> set, Provider<Long> provided) {",
+          "    return \"string\";",
+          "  }",
+          "}");
+
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import com.google.common.util.concurrent.ListenableFuture;",
+          "import dagger.producers.ProductionComponent;",
+          "",
+          "@ProductionComponent(modules = TestModule.class)",
+          "public interface TestComponent {",
+          "  ListenableFuture<String> string();",
+          "",
+          "  @ProductionComponent.Builder",
+          "  interface Builder {",
+          "    TestComponent build();",
+          "  }",
+          "}");
+
+  /** The application hooks are only generated for applications with a {@code @Component}. */
+  private static final JavaFileObject APPLICATION_COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.ApplicationComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "",
+          "@Component",
+          "public interface ApplicationComponent {",
+          "  @Component.Builder",
+          "  interface Builder {",
+          "    ApplicationComponent build();",
+          "  }",
+          "}");
+
+  @Test
+  public void producerGraph() {
+    JavaFileObject generatedGraph =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent_ProducerGraph",
+            "package test;",
+            "",
+            "import dagger.producers.monitoring.ProducerGraph;",
+            "import dagger.producers.monitoring.ProducerToken;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "final class TestComponent_ProducerGraph {",
+            "  static final ProducerGraph GRAPH =",
+            "      ProducerGraph.builder()",
+            "          .addDependency(",
+            "              ProducerToken.create(TestModule_FirstFactory.class),",
+            "              ProducerToken.create(TestModule_IntegerFactory.class))",
+            "          .addDependency(",
+            "              ProducerToken.create(TestModule_StringFactory.class),",
+            "              ProducerToken.create(TestModule_IntegerFactory.class))",
+            "          .addDependency(",
+            "              ProducerToken.create(TestModule_StringFactory.class),",
+            "              ProducerToken.create(TestModule_FirstFactory.class))",
+            "          .addDependency(",
+            "              ProducerToken.create(TestModule_StringFactory.class),",
+            "              ProducerToken.create(TestModule_SecondFactory.class))",
+            "          .build();",
+            "",
+            "  private TestComponent_ProducerGraph() {}",
+            "}");
+    Compilation compilation = compile();
+    assertThat(compilation)
+        .generatedSourceFile("test.TestComponent_ProducerGraph")
+        .hasSourceEquivalentTo(generatedGraph);
+  }
+
+  @Test
+  public void monitoringModuleBindsProducerGraph() {
+    Compilation compilation = compile();
+    assertThat(compilation)
+        .generatedSourceFile("test.TestComponent_MonitoringModule")
+        .contentsAsUtf8String()
+        .contains(
+            "static ProducerGraph producerGraph() {\n"
+                + "    return TestComponent_ProducerGraph.GRAPH;\n"
+                + "  }");
+  }
+
+  /**
+   * Runs the processor without compiling what it generates: the application hooks only decorate
+   * {@code @Component}s, so the generated production component itself does not compile yet.
+   */
+  private static Compilation compile() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-proc:only")
+            .compile(withApplication(MODULE, COMPONENT, APPLICATION_COMPONENT));
+    assertThat(compilation).succeeded();
+    return compilation;
+  }
+}
@@ -31,6 +31,7 @@ import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_PRIVATE;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_SET_VALUES_RAW_SET;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_TYPE_PARAMETER;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_WITH_SAME_NAME;
+import static dagger.internal.codegen.ErrorMessages.CHEAP_PRODUCES_METHOD_BLOCKS;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RAW_FUTURE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RETURN_TYPE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_SCOPE;
@@ -204,6 +205,13 @@ public class ProducerModuleFactoryGeneratorTest {
         .hasError(PRODUCES_METHOD_SCOPE);
   }
 
+  @Test
+  public void cheapProducesMethodThrowsInterruptedException() {
+    assertThatProductionModuleMethod(
+            "@Produces @Cheap String str() throws InterruptedException { return \"\"; }")
+        .hasWarning(CHEAP_PRODUCES_METHOD_BLOCKS);
+  }
+
   @Test
   public void privateModule() {
     JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.Enclosing",
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multiset;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class StronglyConnectedComponentsTest {
+  @Test
+  public void acyclic_reverseTopologicalOrder() {
+    ImmutableListMultimap<String, String> edges =
+        ImmutableListMultimap.of("a", "b", "a", "c", "b", "c");
+    assertThat(components(edges, "a"))
+        .containsExactly(ImmutableList.of("c"), ImmutableList.of("b"), ImmutableList.of("a"))
+        .inOrder();
+  }
+
+  @Test
+  public void selfLoop_isSingletonComponent() {
+    ImmutableListMultimap<String, String> edges = ImmutableListMultimap.of("a", "a", "a", "b");
+    assertThat(components(edges, "a"))
+        .containsExactly(ImmutableList.of("b"), ImmutableList.of("a"))
+        .inOrder();
+  }
+
+  @Test
+  public void cycle_membersInOrderFirstReached() {
+    ImmutableListMultimap<String, String> edges =
+        ImmutableListMultimap.of("a", "b", "b", "c", "c", "a");
+    assertThat(components(edges, "b")).containsExactly(ImmutableList.of("b", "c", "a"));
+  }
+
+  @Test
+  public void nestedCycles_oneComponent() {
+    // b <-> c is a cycle inside the larger cycle a -> b -> c -> a.
+    ImmutableListMultimap<String, String> edges =
+        ImmutableListMultimap.<String, String>builder()
+            .put("a", "b")
+            .put("b", "c")
+            .put("c", "b")
+            .put("c", "a")
+            .build();
+    assertThat(components(edges, "a")).containsExactly(ImmutableList.of("a", "b", "c"));
+  }
+
+  @Test
+  public void componentsReachableFromComponents() {
+    ImmutableListMultimap<String, String> edges =
+        ImmutableListMultimap.<String, String>builder()
+            .put("a", "b")
+            .put("b", "a")
+            .put("b", "c")
+            .put("c", "d")
+            .put("d", "c")
+            .put("d", "e")
+            .build();
+    assertThat(components(edges, "a"))
+        .containsExactly(
+            ImmutableList.of("e"), ImmutableList.of("c", "d"), ImmutableList.of("a", "b"))
+        .inOrder();
+  }
+
+  @Test
+  public void multipleRoots_nodesReportedOnce() {
+    ImmutableListMultimap<String, String> edges =
+        ImmutableListMultimap.of("a", "c", "b", "c", "c", "b");
+    assertThat(components(edges, "a", "b", "c"))
+        .containsExactly(ImmutableList.of("c", "b"), ImmutableList.of("a"))
+        .inOrder();
+  }
+
+  @Test
+  public void successorsRequestedOncePerNode() {
+    ImmutableListMultimap<String, String> edges =
+        ImmutableListMultimap.of("a", "b", "b", "a", "a", "c", "b", "c");
+    Multiset<String> requested = HashMultiset.create();
+    StronglyConnectedComponents.of(
+        ImmutableList.of("a", "b", "c"),
+        node -> {
+          requested.add(node);
+          return edges.get(node);
+        });
+    assertThat(requested).containsExactly("a", "b", "c");
+  }
+
+  @Test
+  public void longCycle_doesNotOverflowStack() {
+    int length = 100_000;
+    ImmutableList<ImmutableList<Integer>> components =
+        StronglyConnectedComponents.of(
+            ImmutableList.of(0), node -> ImmutableList.of((node + 1) % length));
+    assertThat(components).hasSize(1);
+    assertThat(components.get(0)).hasSize(length);
+    assertThat(components.get(0).get(0)).isEqualTo(0);
+  }
+
+  private static ImmutableList<ImmutableList<String>> components(
+      ImmutableListMultimap<String, String> edges, String... roots) {
+    return StronglyConnectedComponents.of(ImmutableList.copyOf(roots), edges::get);
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
+import dagger.internal.testsources.TestSources;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests that the sources collected by {@link TestRegistry} can be read back unchanged. */
+@RunWith(JUnit4.class)
+public class TestRegistryTest {
+  @Test
+  public void writeSources_roundTrip() throws IOException {
+    ClassName foo = ClassName.get("test", "TestFoo");
+    ClassName bar = ClassName.get("test.sub", "TestBar");
+    JavaFile fooFile = JavaFile.builder("test", TypeSpec.classBuilder(foo).build()).build();
+    JavaFile barFile = JavaFile.builder("test.sub", TypeSpec.classBuilder(bar).build()).build();
+    TestRegistry registry = new TestRegistry();
+    registry.addEncodedClass(foo, fooFile);
+    registry.addEncodedClass(bar, barFile);
+
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    registry.writeSources(encoded);
+
+    Map<String, String> decoded = new LinkedHashMap<>();
+    TestSources.read(
+        new ByteArrayInputStream(encoded.toByteArray()),
+        qualifiedName ->
+            new ByteArrayOutputStream() {
+              @Override
+              public void close() {
+                decoded.put(qualifiedName, new String(toByteArray(), UTF_8));
+              }
+            });
+    assertThat(decoded)
+        .containsExactly("test.TestFoo", fooFile.toString(), "test.sub.TestBar", barFile.toString())
+        .inOrder();
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.ApplicationSources.withApplication;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_ANNOTATION;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@code -Adagger.virtualThreadProducers}. */
+@RunWith(JUnit4.class)
+public class VirtualThreadProducersTest {
+  private static final JavaFileObject MODULE =
+      JavaFileObjects.forSourceLines(
+          "test.TestModule",
+          "package test;",
+          "",
+          "import dagger.Provides;",
+          "import dagger.producers.ProducerModule;",
+          "import dagger.producers.Produces;",
+          "import dagger.producers.Production;",
+          "import java.util.concurrent.Executor;",
+          "",
+          "@ProducerModule",
+          "final class TestModule {",
+          "  @Provides",
+          "  @Production",
+          "  static Executor executor() {",
+          "    return Runnable::run;",
+          "  }",
+          "",
+          "  @Produces",
+          "  static String string() {",
+          "    return \"string\";",
+          "  }",
+          "}");
+
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import com.google.common.util.concurrent.ListenableFuture;",
+          "import dagger.producers.ProductionComponent;",
+          "",
+          "@ProductionComponent(modules = TestModule.class)",
+          "public interface TestComponent {",
+          "  ListenableFuture<String> string();",
+          "",
+          "  @ProductionComponent.Builder",
+          "  interface Builder {",
+          "    TestComponent build();",
+          "  }",
+          "}");
+
+  /** The application hooks are only generated for applications with a {@code @Component}. */
+  private static final JavaFileObject APPLICATION_COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.ApplicationComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "",
+          "@Component",
+          "public interface ApplicationComponent {",
+          "  @Component.Builder",
+          "  interface Builder {",
+          "    ApplicationComponent build();",
+          "  }",
+          "}");
+
+  @Test
+  public void enabled_prefersVirtualThreads() {
+    JavaFileObject generatedModule =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent_ProductionExecutorModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.producers.Production;",
+            "import dagger.producers.ProductionScope;",
+            "import dagger.producers.internal.ProductionExecutors;",
+            "import dagger.producers.internal.ProductionImplementation;",
+            "import java.util.concurrent.Executor;",
+            "import javax.annotation.Generated;",
+            "",
+            "@Module",
+            GENERATED_ANNOTATION,
+            "final class TestComponent_ProductionExecutorModule {",
+            "  @Provides",
+            "  @ProductionScope",
+            "  @ProductionImplementation",
+            "  static Executor executor(@Production Executor executor) {",
+            "    return ProductionExecutors.virtualThreadPerTaskOr(executor);",
+            "  }",
+            "}");
+    Compilation compilation = compile("-Adagger.virtualThreadProducers=enabled");
+    assertThat(compilation)
+        .generatedSourceFile("test.TestComponent_ProductionExecutorModule")
+        .hasSourceEquivalentTo(generatedModule);
+  }
+
+  @Test
+  public void disabled_usesProductionExecutor() {
+    JavaFileObject generatedModule =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent_ProductionExecutorModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.producers.Production;",
+            "import dagger.producers.ProductionScope;",
+            "import dagger.producers.internal.ProductionImplementation;",
+            "import java.util.concurrent.Executor;",
+            "import javax.annotation.Generated;",
+            "",
+            "@Module",
+            GENERATED_ANNOTATION,
+            "final class TestComponent_ProductionExecutorModule {",
+            "  @Provides",
+            "  @ProductionScope",
+            "  @ProductionImplementation",
+            "  static Executor executor(@Production Executor executor) {",
+            "    return executor;",
+            "  }",
+            "}");
+    Compilation compilation = compile("-Adagger.virtualThreadProducers=disabled");
+    assertThat(compilation)
+        .generatedSourceFile("test.TestComponent_ProductionExecutorModule")
+        .hasSourceEquivalentTo(generatedModule);
+  }
+
+  /**
+   * Runs the processor without compiling what it generates: the application hooks only decorate
+   * {@code @Component}s, so the generated production component itself does not compile yet.
+   */
+  private static Compilation compile(String virtualThreadProducersOption) {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-proc:only", virtualThreadProducersOption)
+            .compile(withApplication(MODULE, COMPONENT, APPLICATION_COMPONENT));
+    assertThat(compilation).succeeded();
+    return compilation;
+  }
+}
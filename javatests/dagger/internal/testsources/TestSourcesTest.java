@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.testsources;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.fail;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestSourcesTest {
+  @Test
+  public void roundTrip() throws IOException {
+    byte[] large = new byte[3 * 8192 + 17];
+    for (int i = 0; i < large.length; i++) {
+      large[i] = (byte) i;
+    }
+    Map<String, byte[]> sources = new LinkedHashMap<>();
+    sources.put("test.Foo", "package test; class Foo {}".getBytes(UTF_8));
+    sources.put("test.Empty", new byte[0]);
+    sources.put("test.Large", large);
+
+    Map<String, byte[]> read = read(write(sources));
+
+    assertThat(read.keySet()).containsExactlyElementsIn(sources.keySet()).inOrder();
+    for (Map.Entry<String, byte[]> source : sources.entrySet()) {
+      assertThat(read.get(source.getKey())).isEqualTo(source.getValue());
+    }
+  }
+
+  @Test
+  public void roundTrip_noSources() throws IOException {
+    assertThat(read(write(new LinkedHashMap<String, byte[]>()))).isEmpty();
+  }
+
+  @Test
+  public void read_unsupportedFormat() throws IOException {
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    try (DeflaterOutputStream out = new DeflaterOutputStream(encoded)) {
+      out.write(new byte[] {0, 0, 0, 1, 0, 0, 0, 0});
+    }
+    try {
+      read(encoded.toByteArray());
+      fail();
+    } catch (IOException expected) {
+      assertThat(expected).hasMessage("Unsupported format of dagger/TestTrigger.sources");
+    }
+  }
+
+  @Test
+  public void read_truncatedSource() throws IOException {
+    Map<String, byte[]> sources = new LinkedHashMap<>();
+    sources.put("test.Foo", new byte[100]);
+    byte[] inflated = inflate(write(sources));
+    ByteArrayOutputStream truncated = new ByteArrayOutputStream();
+    try (DeflaterOutputStream out = new DeflaterOutputStream(truncated)) {
+      out.write(inflated, 0, inflated.length - 1);
+    }
+    try {
+      read(truncated.toByteArray());
+      fail();
+    } catch (IOException expected) {
+      assertThat(expected).hasMessage("Truncated source for test.Foo");
+    }
+  }
+
+  private static byte[] write(Map<String, byte[]> sources) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    TestSources.write(sources, out);
+    return out.toByteArray();
+  }
+
+  private static Map<String, byte[]> read(byte[] encoded) throws IOException {
+    final Map<String, byte[]> sources = new LinkedHashMap<>();
+    TestSources.read(
+        new ByteArrayInputStream(encoded),
+        new TestSources.Sink() {
+          @Override
+          public ByteArrayOutputStream open(final String qualifiedName) {
+            return new ByteArrayOutputStream() {
+              @Override
+              public void close() {
+                sources.put(qualifiedName, toByteArray());
+              }
+            };
+          }
+        });
+    return sources;
+  }
+
+  private static byte[] inflate(byte[] encoded) throws IOException {
+    try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(encoded))) {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+}
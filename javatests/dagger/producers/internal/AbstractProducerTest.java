@@ -19,6 +19,7 @@ package dagger.producers.internal;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -125,6 +126,69 @@ public class AbstractProducerTest {
     verifyNoMoreInteractions(monitor);
   }
 
+  @Test
+  public void cancel_sharedUntilLastConsumerCancels() throws Exception {
+    SettableFuture<Integer> delegateFuture = SettableFuture.create();
+    Producer<Integer> producer = new DelegateProducer<>(componentMonitorProvider, delegateFuture);
+
+    ListenableFuture<Integer> first = producer.get();
+    ListenableFuture<Integer> second = producer.get();
+    assertThat(first.cancel(true)).isTrue();
+    assertThat(first.isCancelled()).isTrue();
+    assertThat(delegateFuture.isCancelled()).isFalse();
+    assertThat(second.isDone()).isFalse();
+
+    assertThat(second.cancel(true)).isTrue();
+    assertThat(delegateFuture.isCancelled()).isTrue();
+  }
+
+  @Test
+  public void cancel_remainingConsumerStillCompletes() throws Exception {
+    SettableFuture<Integer> delegateFuture = SettableFuture.create();
+    Producer<Integer> producer = new DelegateProducer<>(componentMonitorProvider, delegateFuture);
+
+    ListenableFuture<Integer> first = producer.get();
+    ListenableFuture<Integer> second = producer.get();
+    first.cancel(false);
+    // Cancelling an already cancelled view must not release another consumer.
+    first.cancel(false);
+    assertThat(delegateFuture.isCancelled()).isFalse();
+
+    delegateFuture.set(42);
+    assertThat(second.get()).isEqualTo(42);
+    assertThat(producer.get().get()).isEqualTo(42);
+  }
+
+  @Test
+  public void cancel_consumersAfterLastCancellationGetCancelledFuture() throws Exception {
+    SettableFuture<Integer> delegateFuture = SettableFuture.create();
+    Producer<Integer> producer = new DelegateProducer<>(componentMonitorProvider, delegateFuture);
+
+    producer.get().cancel(false);
+    assertThat(delegateFuture.isCancelled()).isTrue();
+
+    ListenableFuture<Integer> later = producer.get();
+    assertThat(later.isCancelled()).isTrue();
+    // Cancelling it again must not count as releasing another consumer.
+    later.cancel(false);
+    assertThat(producer.get().isCancelled()).isTrue();
+  }
+
+  @Test
+  public void monitor_cancelled() throws Exception {
+    doNothing().when(monitor).cancelled();
+    SettableFuture<Integer> delegateFuture = SettableFuture.create();
+    Producer<Integer> producer = new DelegateProducer<>(componentMonitorProvider, delegateFuture);
+
+    ListenableFuture<Integer> future = producer.get();
+    verify(monitor).requested();
+    verify(monitor).addCallbackTo(anyListenableFuture());
+    future.cancel(false);
+    assertThat(delegateFuture.isCancelled()).isTrue();
+    verify(monitor).cancelled();
+    verifyNoMoreInteractions(monitor);
+  }
+
   private ListenableFuture<?> anyListenableFuture() {
     return any(ListenableFuture.class);
   }
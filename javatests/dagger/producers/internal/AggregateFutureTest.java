@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.Produced;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@link AggregateFuture}. */
+@RunWith(JUnit4.class)
+public class AggregateFutureTest {
+  private static final AggregateFuture.Combiner<Integer, List<Integer>> TO_LIST =
+      new AggregateFuture.Combiner<Integer, List<Integer>>() {
+        @Override
+        public List<Integer> combine(List<Integer> values) {
+          return ImmutableList.copyOf(values);
+        }
+      };
+
+  private static final AggregateFuture.Combiner<Produced<Integer>, List<Produced<Integer>>>
+      OUTCOMES_TO_LIST =
+          new AggregateFuture.Combiner<Produced<Integer>, List<Produced<Integer>>>() {
+            @Override
+            public List<Produced<Integer>> combine(List<Produced<Integer>> outcomes) {
+              return ImmutableList.copyOf(outcomes);
+            }
+          };
+
+  @Test
+  public void whenAllSucceed_combinesInInputOrder() throws Exception {
+    SettableFuture<Integer> first = SettableFuture.create();
+    SettableFuture<Integer> second = SettableFuture.create();
+    ListenableFuture<List<Integer>> aggregate =
+        AggregateFuture.whenAllSucceed(ImmutableList.of(first, second), TO_LIST);
+    second.set(2);
+    assertThat(aggregate.isDone()).isFalse();
+    first.set(1);
+    assertThat(aggregate.get()).containsExactly(1, 2).inOrder();
+  }
+
+  @Test
+  public void whenAllSucceed_noInputs() throws Exception {
+    ListenableFuture<List<Integer>> aggregate =
+        AggregateFuture.whenAllSucceed(ImmutableList.<ListenableFuture<Integer>>of(), TO_LIST);
+    assertThat(aggregate.get()).isEmpty();
+  }
+
+  @Test
+  public void whenAllSucceed_failsAsSoonAsAnInputFails() throws Exception {
+    SettableFuture<Integer> pending = SettableFuture.create();
+    SettableFuture<Integer> failing = SettableFuture.create();
+    ListenableFuture<List<Integer>> aggregate =
+        AggregateFuture.whenAllSucceed(ImmutableList.of(pending, failing), TO_LIST);
+    RuntimeException failure = new RuntimeException("monkey");
+    failing.setException(failure);
+    try {
+      aggregate.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(failure);
+    }
+  }
+
+  @Test
+  public void whenAllSucceed_cancelledWhenAnInputIsCancelled() {
+    SettableFuture<Integer> pending = SettableFuture.create();
+    SettableFuture<Integer> cancelled = SettableFuture.create();
+    ListenableFuture<List<Integer>> aggregate =
+        AggregateFuture.whenAllSucceed(ImmutableList.of(pending, cancelled), TO_LIST);
+    cancelled.cancel(false);
+    assertThat(aggregate.isCancelled()).isTrue();
+  }
+
+  @Test
+  public void whenAllSucceed_failsIfTheCombinerThrows() throws Exception {
+    ListenableFuture<List<Integer>> aggregate =
+        AggregateFuture.whenAllSucceed(
+            ImmutableList.of(Futures.<Integer>immediateFuture(null)), TO_LIST);
+    try {
+      aggregate.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(NullPointerException.class);
+    }
+  }
+
+  @Test
+  public void cancellingTheAggregateCancelsAllInputs() {
+    SettableFuture<Integer> first = SettableFuture.create();
+    SettableFuture<Integer> second = SettableFuture.create();
+    ListenableFuture<List<Integer>> aggregate =
+        AggregateFuture.whenAllSucceed(ImmutableList.of(first, second), TO_LIST);
+    assertThat(aggregate.cancel(true)).isTrue();
+    assertThat(first.isCancelled()).isTrue();
+    assertThat(second.isCancelled()).isTrue();
+  }
+
+  @Test
+  public void whenAllComplete_collectsEveryOutcome() throws Exception {
+    SettableFuture<Integer> succeeding = SettableFuture.create();
+    SettableFuture<Integer> failing = SettableFuture.create();
+    SettableFuture<Integer> cancelled = SettableFuture.create();
+    ListenableFuture<List<Produced<Integer>>> aggregate =
+        AggregateFuture.whenAllComplete(
+            ImmutableList.of(succeeding, failing, cancelled), OUTCOMES_TO_LIST);
+    RuntimeException failure = new RuntimeException("monkey");
+    failing.setException(failure);
+    cancelled.cancel(false);
+    assertThat(aggregate.isDone()).isFalse();
+    succeeding.set(1);
+
+    List<Produced<Integer>> outcomes = aggregate.get();
+    assertThat(outcomes.get(0).get()).isEqualTo(1);
+    try {
+      outcomes.get(1).get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(failure);
+    }
+    try {
+      outcomes.get(2).get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(CancellationException.class);
+    }
+  }
+}
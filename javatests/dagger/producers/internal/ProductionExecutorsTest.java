@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@link ProductionExecutors}. */
+@RunWith(JUnit4.class)
+public class ProductionExecutorsTest {
+  private static final int PRODUCER_COUNT = 200;
+
+  private ExecutorService fallback;
+  private Executor executor;
+
+  @Before
+  public void setUp() {
+    fallback = Executors.newCachedThreadPool();
+    executor = ProductionExecutors.virtualThreadPerTaskOr(fallback);
+  }
+
+  @After
+  public void tearDown() {
+    fallback.shutdownNow();
+  }
+
+  @Test
+  public void blockingProducersDoNotHoldUpEachOther() throws Exception {
+    final CountDownLatch allStarted = new CountDownLatch(PRODUCER_COUNT);
+    List<ListenableFuture<Boolean>> futures = new ArrayList<>();
+    for (int i = 0; i < PRODUCER_COUNT; i++) {
+      futures.add(
+          Futures.transformAsync(
+              Futures.immediateFuture(i),
+              new AsyncFunction<Integer, Boolean>() {
+                @Override
+                public ListenableFuture<Boolean> apply(Integer input) throws Exception {
+                  allStarted.countDown();
+                  return Futures.immediateFuture(allStarted.await(10, SECONDS));
+                }
+              },
+              executor));
+    }
+    assertThat(Futures.allAsList(futures).get(10, SECONDS)).doesNotContain(false);
+  }
+
+  @Test
+  public void failuresPropagate() throws Exception {
+    final IllegalStateException failure = new IllegalStateException("expected");
+    ListenableFuture<Object> future =
+        Futures.transformAsync(
+            Futures.immediateFuture("input"),
+            new AsyncFunction<String, Object>() {
+              @Override
+              public ListenableFuture<Object> apply(String input) {
+                throw failure;
+              }
+            },
+            executor);
+    try {
+      future.get(10, SECONDS);
+      throw new AssertionError("expected the future to fail");
+    } catch (ExecutionException expected) {
+      assertThat(expected.getCause()).isSameAs(failure);
+    }
+  }
+
+  @Test
+  public void cancelledProducersAreNeverStarted() throws Exception {
+    SettableFuture<String> input = SettableFuture.create();
+    final AtomicBoolean started = new AtomicBoolean();
+    ListenableFuture<String> future =
+        Futures.transformAsync(
+            input,
+            new AsyncFunction<String, String>() {
+              @Override
+              public ListenableFuture<String> apply(String value) {
+                started.set(true);
+                return Futures.immediateFuture(value);
+              }
+            },
+            executor);
+    assertThat(future.cancel(true)).isTrue();
+    assertThat(input.isCancelled()).isTrue();
+    input.set("too late");
+    assertThat(started.get()).isFalse();
+  }
+}
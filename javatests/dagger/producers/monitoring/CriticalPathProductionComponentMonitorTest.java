@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.testing.FakeTicker;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CriticalPathProductionComponentMonitorTest {
+  private static final ProducerToken A = ProducerToken.create("A");
+  private static final ProducerToken B = ProducerToken.create("B");
+  private static final ProducerToken C = ProducerToken.create("C");
+  private static final ProducerToken D = ProducerToken.create("D");
+
+  /** A depends on B and C, which both depend on D. */
+  private static final ProducerGraph DIAMOND =
+      ProducerGraph.builder()
+          .addDependency(A, B)
+          .addDependency(A, C)
+          .addDependency(B, D)
+          .addDependency(C, D)
+          .build();
+
+  private final List<ProductionTrace> traces = new ArrayList<>();
+  private FakeTicker ticker;
+  private ProductionComponentMonitor monitor;
+
+  @Before
+  public void setUp() {
+    ticker = new FakeTicker();
+    monitor =
+        new CriticalPathProductionComponentMonitor.Factory(
+                DIAMOND,
+                new ProductionTraceRecorder.Factory() {
+                  @Override
+                  public ProductionTraceRecorder create(Object component) {
+                    return new ProductionTraceRecorder() {
+                      @Override
+                      public void recordTrace(ProductionTrace trace) {
+                        traces.add(trace);
+                      }
+                    };
+                  }
+                },
+                ticker)
+            .create(new Object());
+  }
+
+  @Test
+  public void criticalPathSlackAndQueueing() {
+    ProducerMonitor a = monitor.producerMonitorFor(A);
+    ProducerMonitor b = monitor.producerMonitorFor(B);
+    ProducerMonitor c = monitor.producerMonitorFor(C);
+    ProducerMonitor d = monitor.producerMonitorFor(D);
+    a.requested();
+    b.requested();
+    d.requested();
+    c.requested();
+    d.ready();
+    ticker.advance(10);
+    d.methodStarting();
+    ticker.advance(100);
+    d.methodFinished();
+    d.succeeded(new Object());
+    b.ready();
+    c.ready();
+    ticker.advance(10);
+    c.methodStarting();
+    ticker.advance(10);
+    b.methodStarting();
+    ticker.advance(40);
+    c.methodFinished();
+    c.succeeded(new Object());
+    ticker.advance(160);
+    b.methodFinished();
+    b.succeeded(new Object());
+    a.ready();
+    ticker.advance(10);
+    a.methodStarting();
+    ticker.advance(20);
+    a.methodFinished();
+    assertThat(traces).isEmpty();
+    ticker.advance(40);
+    a.succeeded(new Object());
+
+    assertThat(traces).hasSize(1);
+    ProductionTrace trace = traces.get(0);
+    assertThat(trace.durationNanos()).isEqualTo(400);
+    List<ProducerToken> criticalPath = new ArrayList<>();
+    for (ProductionTrace.Node node : trace.criticalPath()) {
+      criticalPath.add(node.token());
+    }
+    assertThat(criticalPath).containsExactly(D, B, A).inOrder();
+
+    ProductionTrace.Node nodeB = trace.nodes().get(1);
+    assertThat(nodeB.token()).isEqualTo(B);
+    assertThat(nodeB.queueingNanos()).isEqualTo(20);
+    assertThat(nodeB.methodNanos()).isEqualTo(200);
+    assertThat(nodeB.slackNanos()).isEqualTo(0);
+
+    ProductionTrace.Node nodeA = trace.nodes().get(0);
+    assertThat(nodeA.asyncNanos()).isEqualTo(40);
+
+    ProductionTrace.Node nodeC = trace.nodes().get(3);
+    assertThat(nodeC.token()).isEqualTo(C);
+    assertThat(nodeC.isOnCriticalPath()).isFalse();
+    assertThat(nodeC.queueingNanos()).isEqualTo(10);
+    assertThat(nodeC.slackNanos()).isEqualTo(160);
+    assertThat(trace.toString()).contains("critical path: D ");
+    assertThat(trace.toString()).contains("slack: C=160ns");
+  }
+
+  @Test
+  public void skippedProducersAreTraced() {
+    ProducerMonitor b = monitor.producerMonitorFor(B);
+    ProducerMonitor d = monitor.producerMonitorFor(D);
+    b.requested();
+    d.requested();
+    d.ready();
+    d.methodStarting();
+    ticker.advance(100);
+    d.methodFinished();
+    RuntimeException failure = new RuntimeException("monkey");
+    d.failed(failure);
+    b.ready();
+    b.failed(failure);
+
+    assertThat(traces).hasSize(1);
+    ProductionTrace.Node nodeB = traces.get(0).nodes().get(0);
+    assertThat(nodeB.ran()).isFalse();
+    assertThat(nodeB.succeeded()).isFalse();
+    assertThat(nodeB.isOnCriticalPath()).isTrue();
+  }
+
+  @Test
+  public void eachRequestGetsItsOwnTrace() {
+    ProducerMonitor c = monitor.producerMonitorFor(C);
+    c.requested();
+    c.ready();
+    c.methodStarting();
+    c.methodFinished();
+    c.succeeded(new Object());
+    ProducerMonitor d = monitor.producerMonitorFor(D);
+    d.requested();
+    d.ready();
+    d.methodStarting();
+    d.methodFinished();
+    d.succeeded(new Object());
+
+    assertThat(traces).hasSize(2);
+    assertThat(traces.get(0).nodes()).hasSize(1);
+    assertThat(traces.get(1).nodes().get(0).token()).isEqualTo(D);
+  }
+}
@@ -158,6 +158,24 @@ public final class MonitorsTest {
     verifyNoMoreInteractions(mockProducerMonitor);
   }
 
+  @Test
+  public void singleMonitor_normalProducerMonitorCancelled() {
+    setUpNormalSingleMonitor();
+    ProductionComponentMonitor.Factory factory =
+        Monitors.delegatingProductionComponentMonitorFactory(
+            ImmutableList.of(mockProductionComponentMonitorFactory));
+    ProductionComponentMonitor monitor = factory.create(new Object());
+    ProducerMonitor producerMonitor =
+        monitor.producerMonitorFor(ProducerToken.create(Object.class));
+    producerMonitor.requested();
+    producerMonitor.cancelled();
+
+    InOrder order = inOrder(mockProducerMonitor);
+    order.verify(mockProducerMonitor).requested();
+    order.verify(mockProducerMonitor).cancelled();
+    verifyNoMoreInteractions(mockProducerMonitor);
+  }
+
   @Test
   public void singleMonitor_throwingProducerMonitorSuccess() {
     setUpNormalSingleMonitor();
@@ -384,6 +402,32 @@ public final class MonitorsTest {
     verifyNoMoreInteractions(mockProducerMonitorA, mockProducerMonitorB, mockProducerMonitorC);
   }
 
+  @Test
+  public void multipleMonitors_normalProductionComponentMonitorCancelled() {
+    setUpNormalMultipleMonitors();
+    ProductionComponentMonitor.Factory factory =
+        Monitors.delegatingProductionComponentMonitorFactory(
+            ImmutableList.of(
+                mockProductionComponentMonitorFactoryA,
+                mockProductionComponentMonitorFactoryB,
+                mockProductionComponentMonitorFactoryC));
+    ProductionComponentMonitor monitor = factory.create(new Object());
+    ProducerMonitor producerMonitor =
+        monitor.producerMonitorFor(ProducerToken.create(Object.class));
+
+    producerMonitor.requested();
+    producerMonitor.cancelled();
+
+    InOrder order = inOrder(mockProducerMonitorA, mockProducerMonitorB, mockProducerMonitorC);
+    order.verify(mockProducerMonitorA).requested();
+    order.verify(mockProducerMonitorB).requested();
+    order.verify(mockProducerMonitorC).requested();
+    order.verify(mockProducerMonitorC).cancelled();
+    order.verify(mockProducerMonitorB).cancelled();
+    order.verify(mockProducerMonitorA).cancelled();
+    verifyNoMoreInteractions(mockProducerMonitorA, mockProducerMonitorB, mockProducerMonitorC);
+  }
+
   @Test
   public void multipleMonitors_someThrowingProducerMonitorsSuccess() {
     setUpNormalMultipleMonitors();
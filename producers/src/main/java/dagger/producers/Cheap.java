@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+import dagger.internal.Beta;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link Produces @Produces} method as cheap enough to run without being scheduled on the
+ * component's {@link Production @Production} executor. Once its inputs are done, the method runs
+ * directly on the thread that completed the last of them, which saves a queue hop and a context
+ * switch per node in deep graphs of trivial transforms.
+ *
+ * <p>Only annotate methods that do little work and never block: a slow cheap producer stalls
+ * whichever thread happens to complete its inputs, which may be another producer's executor thread
+ * or the thread that requested the component's entry point. Methods that return a
+ * {@link com.google.common.util.concurrent.ListenableFuture} for work started elsewhere are good
+ * candidates.
+ *
+ * <p>This annotation has no effect on methods that are not annotated with {@link Produces}.
+ */
+@Documented
+@Target(METHOD)
+@Retention(CLASS)
+@Beta
+public @interface Cheap {}
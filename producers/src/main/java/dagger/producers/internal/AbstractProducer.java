@@ -17,19 +17,30 @@
 package dagger.producers.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
+import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Producer;
 import dagger.producers.monitoring.ProducerMonitor;
 import dagger.producers.monitoring.ProducerToken;
 import dagger.producers.monitoring.ProductionComponentMonitor;
 import dagger.producers.monitoring.internal.Monitors;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import javax.annotation.Nullable;
 import javax.inject.Provider;
 
 /**
  * An abstract {@link Producer} implementation that memoizes the result of its compute method.
  *
+ * <p>While the memoized future is pending, each call to {@link #get} returns a separate view of it
+ * for that consumer. Cancelling a view only detaches that consumer; the memoized future, and with
+ * it the producers it depends on, is cancelled once every consumer that received a view has
+ * cancelled it. A dependency shared by several producers therefore keeps running for as long as any
+ * of them still needs it, while a request whose entry point is cancelled stops the work that only
+ * it was waiting for: producer methods that have not started yet are skipped, and futures returned
+ * by producer methods are cancelled.
+ *
  * @author Jesse Beder
  * @since 2.0
  */
@@ -39,6 +50,19 @@ public abstract class AbstractProducer<T> implements Producer<T> {
   private volatile ListenableFuture<T> instance = null;
   protected volatile ProducerMonitor monitor = null;
 
+  /**
+   * The number of views handed out by {@link #get} that have not been cancelled, or {@link
+   * #RELEASED} once the last of them was cancelled and the memoized future with it.
+   */
+  @SuppressWarnings("unused") // updated through PENDING_CONSUMERS
+  private volatile int pendingConsumers;
+
+  private static final int RELEASED = -1;
+
+  @SuppressWarnings("rawtypes") // class literals can't be parameterized
+  private static final AtomicIntegerFieldUpdater<AbstractProducer> PENDING_CONSUMERS =
+      AtomicIntegerFieldUpdater.newUpdater(AbstractProducer.class, "pendingConsumers");
+
   protected AbstractProducer() {
     this(Monitors.noOpProductionComponentMonitorProvider(), null);
   }
@@ -73,6 +97,71 @@ public abstract class AbstractProducer<T> implements Producer<T> {
         }
       }
     }
-    return result;
+    // Cancelling a completed future does nothing, so there is no need for a view. Once the
+    // memoized future has been released, it is cancelled (or about to be), so every consumer gets
+    // it as is.
+    return result.isDone() || !consumerAdded() ? result : new ConsumerFuture<T>(this, result);
+  }
+
+  /**
+   * Counts a new consumer, unless the memoized future has already been released. The count and the
+   * release in {@link #consumerCancelled} change the same state with compare-and-set, so a consumer
+   * is never counted between the last consumer's cancellation and the memoized future's.
+   */
+  private boolean consumerAdded() {
+    while (true) {
+      int consumers = pendingConsumers;
+      if (consumers == RELEASED) {
+        return false;
+      }
+      if (PENDING_CONSUMERS.compareAndSet(this, consumers, consumers + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /** Called when a consumer cancels its view; cancels the memoized future if it was the last. */
+  private void consumerCancelled(boolean mayInterruptIfRunning) {
+    while (true) {
+      int consumers = pendingConsumers;
+      if (consumers == 1) {
+        if (PENDING_CONSUMERS.compareAndSet(this, 1, RELEASED)) {
+          instance.cancel(mayInterruptIfRunning);
+          return;
+        }
+      } else if (PENDING_CONSUMERS.compareAndSet(this, consumers, consumers - 1)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * One consumer's view of the memoized future. It completes with the memoized future, but
+   * cancelling it does not cancel the memoized future unless no other consumer is left.
+   */
+  private static final class ConsumerFuture<T> extends AbstractFuture<T> implements Runnable {
+    private final AbstractProducer<T> producer;
+    private final ListenableFuture<T> delegate;
+
+    ConsumerFuture(AbstractProducer<T> producer, ListenableFuture<T> delegate) {
+      this.producer = producer;
+      this.delegate = delegate;
+      delegate.addListener(this, directExecutor());
+    }
+
+    /** Completes this view once the memoized future is done. */
+    @Override
+    public void run() {
+      setFuture(delegate);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      if (!super.cancel(mayInterruptIfRunning)) {
+        return false;
+      }
+      producer.consumerCancelled(mayInterruptIfRunning);
+      return true;
+    }
   }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import dagger.producers.Produced;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A future that waits for a list of input futures and then combines their results, in input order,
+ * into a single value.
+ *
+ * <p>This replaces chains of {@link com.google.common.util.concurrent.Futures#allAsList}, per-input
+ * {@link com.google.common.util.concurrent.Futures#transform} futures and intermediate lists in
+ * the multibinding producers. Each input stores its result into a presized array when it completes,
+ * and the input that brings a single atomic countdown to zero runs the combiner on that array. That
+ * is one listener per input and one future per aggregate, however many inputs there are.
+ *
+ * <p>Cancelling an aggregate cancels all of its inputs.
+ *
+ * @param <R> the type of the combined value
+ */
+final class AggregateFuture<R> extends AbstractFuture<R> {
+  /** Combines the results of all inputs, given in input order, into the aggregate's value. */
+  interface Combiner<V, R> {
+    R combine(List<V> values);
+  }
+
+  /**
+   * Returns a future that succeeds with the combination of the values of all {@code inputs} if they
+   * all succeed, or fails or is cancelled as soon as any one of them does.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"}) // the combiner sees the values the inputs produced
+  static <V, R> ListenableFuture<R> whenAllSucceed(
+      List<? extends ListenableFuture<? extends V>> inputs, Combiner<V, R> combiner) {
+    return start(new AggregateFuture<R>(inputs, (Combiner) combiner, false));
+  }
+
+  /**
+   * Returns a future that succeeds with the combination of the outcomes of all {@code inputs} once
+   * they are all done, whether they succeeded, failed or were cancelled.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"}) // the combiner sees the outcomes of the inputs
+  static <V, R> ListenableFuture<R> whenAllComplete(
+      List<? extends ListenableFuture<? extends V>> inputs, Combiner<Produced<V>, R> combiner) {
+    return start(new AggregateFuture<R>(inputs, (Combiner) combiner, true));
+  }
+
+  private static <R> AggregateFuture<R> start(final AggregateFuture<R> aggregate) {
+    if (aggregate.inputs.isEmpty()) {
+      aggregate.combine();
+      return aggregate;
+    }
+    for (int i = 0; i < aggregate.inputs.size(); i++) {
+      final int index = i;
+      aggregate.inputs.get(i).addListener(
+          new Runnable() {
+            @Override
+            public void run() {
+              aggregate.collect(index);
+            }
+          },
+          directExecutor());
+    }
+    aggregate.addListener(
+        new Runnable() {
+          @Override
+          public void run() {
+            if (aggregate.isCancelled()) {
+              aggregate.cancelInputs();
+            }
+          }
+        },
+        directExecutor());
+    return aggregate;
+  }
+
+  private final List<? extends ListenableFuture<?>> inputs;
+  private final Combiner<Object, R> combiner;
+  private final boolean collectOutcomes;
+  /**
+   * The results of the inputs. Each slot is written once, before that input's decrement of {@link
+   * #remaining}, so the input that brings it to zero sees all of them.
+   */
+  private final Object[] values;
+  private final AtomicInteger remaining;
+
+  private AggregateFuture(
+      List<? extends ListenableFuture<?>> inputs,
+      Combiner<Object, R> combiner,
+      boolean collectOutcomes) {
+    this.inputs = checkNotNull(inputs);
+    this.combiner = checkNotNull(combiner);
+    this.collectOutcomes = collectOutcomes;
+    this.values = new Object[inputs.size()];
+    this.remaining = new AtomicInteger(inputs.size());
+  }
+
+  private void collect(int index) {
+    if (isDone()) {
+      // A previous input already failed this aggregate, or it was cancelled.
+      return;
+    }
+    ListenableFuture<?> input = inputs.get(index);
+    try {
+      Object value = Uninterruptibles.getUninterruptibly(input);
+      values[index] = collectOutcomes ? Produced.successful(value) : value;
+    } catch (ExecutionException e) {
+      if (!collectOutcomes) {
+        setException(e.getCause());
+        return;
+      }
+      values[index] = Produced.failed(e.getCause());
+    } catch (CancellationException e) {
+      if (!collectOutcomes) {
+        cancel(false);
+        return;
+      }
+      values[index] = Produced.failed(e);
+    }
+    if (remaining.decrementAndGet() == 0) {
+      combine();
+    }
+  }
+
+  private void combine() {
+    try {
+      set(combiner.combine(Arrays.asList(values)));
+    } catch (RuntimeException | Error e) {
+      setException(e);
+    }
+  }
+
+  private void cancelInputs() {
+    boolean mayInterruptIfRunning = wasInterrupted();
+    for (ListenableFuture<?> input : inputs) {
+      input.cancel(mayInterruptIfRunning);
+    }
+  }
+}
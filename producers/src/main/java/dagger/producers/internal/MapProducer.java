@@ -16,17 +16,15 @@
 
 package dagger.producers.internal;
 
-import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Producer;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -65,45 +63,25 @@ public final class MapProducer<K, V> extends AbstractProducer<Map<K, V>> {
         new AsyncFunction<Map<K, Producer<V>>, Map<K, V>>() {
           @Override
           public ListenableFuture<Map<K, V>> apply(final Map<K, Producer<V>> map) {
-            // TODO(beder): Use Futures.whenAllComplete when Guava 20 is released.
-            return transform(
-                Futures.allAsList(
-                    Iterables.transform(map.entrySet(), MapProducer.<K, V>entryUnwrapper())),
-                new Function<List<Map.Entry<K, V>>, Map<K, V>>() {
+            List<ListenableFuture<V>> valueFutures = new ArrayList<ListenableFuture<V>>(map.size());
+            for (Producer<V> producer : map.values()) {
+              valueFutures.add(checkNotNull(producer.get()));
+            }
+            return AggregateFuture.whenAllSucceed(
+                valueFutures,
+                new AggregateFuture.Combiner<V, Map<K, V>>() {
                   @Override
-                  public Map<K, V> apply(List<Map.Entry<K, V>> entries) {
-                    return ImmutableMap.copyOf(entries);
+                  public Map<K, V> combine(List<V> values) {
+                    ImmutableMap.Builder<K, V> builder = ImmutableMap.builder();
+                    int i = 0;
+                    for (K key : map.keySet()) {
+                      builder.put(key, values.get(i++));
+                    }
+                    return builder.build();
                   }
-                },
-                directExecutor());
+                });
           }
         },
         directExecutor());
   }
-
-  private static final Function<
-          Map.Entry<Object, Producer<Object>>, ListenableFuture<Map.Entry<Object, Object>>>
-      ENTRY_UNWRAPPER =
-          new Function<
-              Map.Entry<Object, Producer<Object>>, ListenableFuture<Map.Entry<Object, Object>>>() {
-            @Override
-            public ListenableFuture<Map.Entry<Object, Object>> apply(
-                final Map.Entry<Object, Producer<Object>> entry) {
-              return transform(
-                  entry.getValue().get(),
-                  new Function<Object, Map.Entry<Object, Object>>() {
-                    @Override
-                    public Map.Entry<Object, Object> apply(Object value) {
-                      return Maps.immutableEntry(entry.getKey(), value);
-                    }
-                  },
-                  directExecutor());
-            }
-          };
-
-  @SuppressWarnings({"unchecked", "rawtypes"}) // bivariate implementation
-  private static <K, V>
-      Function<Map.Entry<K, Producer<V>>, ListenableFuture<Map.Entry<K, V>>> entryUnwrapper() {
-    return (Function) ENTRY_UNWRAPPER;
-  }
 }
@@ -22,6 +22,7 @@ import static com.google.common.util.concurrent.Futures.transform;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
@@ -106,15 +107,14 @@ public final class Producers {
    */
   public static <T> ListenableFuture<Set<T>> allAsSet(
       Iterable<? extends ListenableFuture<? extends T>> futures) {
-    return transform(
-        Futures.allAsList(futures),
-        new Function<List<T>, Set<T>>() {
+    return AggregateFuture.whenAllSucceed(
+        ImmutableList.copyOf(futures),
+        new AggregateFuture.Combiner<T, Set<T>>() {
           @Override
-          public Set<T> apply(List<T> values) {
+          public Set<T> combine(List<T> values) {
             return ImmutableSet.copyOf(values);
           }
-        },
-        directExecutor());
+        });
   }
 
   /**
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Executors that generated production executor modules may bind as the
+ * {@link ProductionImplementation @ProductionImplementation} executor of a component.
+ */
+public final class ProductionExecutors {
+  /**
+   * Returns an executor that runs every task on a new virtual thread, or {@code fallback} if the
+   * running JVM has no virtual threads.
+   *
+   * <p>Producer methods are scheduled on this executor only once all of their inputs are done, so
+   * each one gets a thread of its own for exactly as long as it runs and may block without holding
+   * up any other producer. Failures and cancellation keep flowing through the component's futures
+   * as they do with any other executor: a producer that throws fails its future, and a producer
+   * whose future is cancelled before its inputs complete is never started.
+   */
+  public static Executor virtualThreadPerTaskOr(Executor fallback) {
+    checkNotNull(fallback);
+    ThreadFactory threadFactory = VirtualThreadFactoryHolder.INSTANCE;
+    return threadFactory == null ? fallback : new ThreadPerTaskExecutor(threadFactory);
+  }
+
+  private static final class ThreadPerTaskExecutor implements Executor {
+    private final ThreadFactory threadFactory;
+
+    ThreadPerTaskExecutor(ThreadFactory threadFactory) {
+      this.threadFactory = threadFactory;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+      threadFactory.newThread(checkNotNull(task)).start();
+    }
+
+    @Override
+    public String toString() {
+      return "ProductionExecutors.virtualThreadPerTask()";
+    }
+  }
+
+  /** Lazily looks up {@code Thread.ofVirtual().factory()}, which is {@code null} before JDK 21. */
+  private static final class VirtualThreadFactoryHolder {
+    static final ThreadFactory INSTANCE = virtualThreadFactory();
+
+    private static ThreadFactory virtualThreadFactory() {
+      try {
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+        return (ThreadFactory) factory.invoke(builder);
+      } catch (NoSuchMethodException
+          | ClassNotFoundException
+          | IllegalAccessException
+          | InvocationTargetException e) {
+        return null;
+      }
+    }
+  }
+
+  private ProductionExecutors() {}
+}
@@ -17,13 +17,10 @@
 package dagger.producers.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static dagger.internal.DaggerCollections.hasDuplicates;
 import static dagger.internal.DaggerCollections.presizedList;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
@@ -118,59 +115,61 @@ public final class SetOfProducedProducer<T> extends AbstractProducer<Set<Produce
    */
   @Override
   public ListenableFuture<Set<Produced<T>>> compute() {
-    List<ListenableFuture<? extends Produced<? extends Collection<T>>>> futureProducedCollections =
-        new ArrayList<ListenableFuture<? extends Produced<? extends Collection<T>>>>(
-            individualProducers.size() + collectionProducers.size());
+    final int individualCount = individualProducers.size();
+    List<ListenableFuture<?>> futures =
+        new ArrayList<ListenableFuture<?>>(individualCount + collectionProducers.size());
     for (Producer<T> producer : individualProducers) {
-      // TODO(ronshapiro): Don't require individual productions to be added to a collection just to
-      // be materialized into futureProducedCollections.
-      futureProducedCollections.add(
-          Producers.createFutureProduced(
-              Producers.createFutureSingletonSet(checkNotNull(producer.get()))));
+      futures.add(checkNotNull(producer.get()));
     }
     for (Producer<Collection<T>> producer : collectionProducers) {
-      futureProducedCollections.add(Producers.createFutureProduced(checkNotNull(producer.get())));
+      futures.add(checkNotNull(producer.get()));
     }
-
-    return Futures.transform(
-        Futures.allAsList(futureProducedCollections),
-        new Function<List<Produced<? extends Collection<T>>>, Set<Produced<T>>>() {
+    return AggregateFuture.whenAllComplete(
+        futures,
+        new AggregateFuture.Combiner<Produced<Object>, Set<Produced<T>>>() {
+          @SuppressWarnings("unchecked") // individual values come first, then the collections
           @Override
-          public Set<Produced<T>> apply(
-              List<Produced<? extends Collection<T>>> producedCollections) {
+          public Set<Produced<T>> combine(List<Produced<Object>> outcomes) {
             ImmutableSet.Builder<Produced<T>> builder = ImmutableSet.builder();
-            for (Produced<? extends Collection<T>> producedCollection : producedCollections) {
+            for (int i = 0; i < outcomes.size(); i++) {
+              Object value;
               try {
-                Collection<T> collection = producedCollection.get();
-                if (collection == null) {
-                  // TODO(beder): This is a vague exception. Can we somehow point to the failing
-                  // producer? See the similar comment in the component writer about null
-                  // provisions.
-                  builder.add(
-                      Produced.<T>failed(
-                          new NullPointerException(
-                              "Cannot contribute a null collection into a producer set binding when"
-                                  + " it's injected as Set<Produced<T>>.")));
-                } else {
-                  for (T value : collection) {
-                    if (value == null) {
-                      builder.add(
-                          Produced.<T>failed(
-                              new NullPointerException(
-                                  "Cannot contribute a null element into a producer set binding"
-                                      + " when it's injected as Set<Produced<T>>.")));
-                    } else {
-                      builder.add(Produced.successful(value));
-                    }
-                  }
-                }
+                value = outcomes.get(i).get();
               } catch (ExecutionException e) {
                 builder.add(Produced.<T>failed(e.getCause()));
+                continue;
+              }
+              if (i < individualCount) {
+                addElement(builder, (T) value);
+              } else if (value == null) {
+                // TODO(beder): This is a vague exception. Can we somehow point to the failing
+                // producer? See the similar comment in the component writer about null
+                // provisions.
+                builder.add(
+                    Produced.<T>failed(
+                        new NullPointerException(
+                            "Cannot contribute a null collection into a producer set binding when"
+                                + " it's injected as Set<Produced<T>>.")));
+              } else {
+                for (T element : (Collection<T>) value) {
+                  addElement(builder, element);
+                }
               }
             }
             return builder.build();
           }
-        },
-        directExecutor());
+        });
+  }
+
+  private static <T> void addElement(ImmutableSet.Builder<Produced<T>> builder, T element) {
+    if (element == null) {
+      builder.add(
+          Produced.<T>failed(
+              new NullPointerException(
+                  "Cannot contribute a null element into a producer set binding"
+                      + " when it's injected as Set<Produced<T>>.")));
+    } else {
+      builder.add(Produced.successful(element));
+    }
   }
 }
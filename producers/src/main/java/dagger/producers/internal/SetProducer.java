@@ -17,12 +17,9 @@
 package dagger.producers.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.util.concurrent.Futures.transform;
-import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static dagger.internal.DaggerCollections.hasDuplicates;
 import static dagger.internal.DaggerCollections.presizedList;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -125,32 +122,30 @@ public final class SetProducer<T> extends AbstractProducer<Set<T>> {
    */
   @Override
   public ListenableFuture<Set<T>> compute() {
-    List<ListenableFuture<T>> individualFutures =
-        new ArrayList<ListenableFuture<T>>(individualProducers.size());
+    final int individualCount = individualProducers.size();
+    List<ListenableFuture<?>> futures =
+        new ArrayList<ListenableFuture<?>>(individualCount + collectionProducers.size());
     for (Producer<T> producer : individualProducers) {
-      individualFutures.add(checkNotNull(producer.get()));
+      futures.add(checkNotNull(producer.get()));
     }
-
-    // Presize the list of collections produced by the amount of collectionProducers, with one more
-    // for the consolidate individualFutures from Futures.allAsList.
-    List<ListenableFuture<? extends Collection<T>>> futureCollections =
-        new ArrayList<ListenableFuture<? extends Collection<T>>>(collectionProducers.size() + 1);
-    futureCollections.add(Futures.allAsList(individualFutures));
     for (Producer<Collection<T>> producer : collectionProducers) {
-      futureCollections.add(checkNotNull(producer.get()));
+      futures.add(checkNotNull(producer.get()));
     }
-    return transform(
-        Futures.allAsList(futureCollections),
-        new Function<List<Collection<T>>, Set<T>>() {
+    return AggregateFuture.whenAllSucceed(
+        futures,
+        new AggregateFuture.Combiner<Object, Set<T>>() {
+          @SuppressWarnings("unchecked") // individual values come first, then the collections
           @Override
-          public Set<T> apply(List<Collection<T>> sets) {
+          public Set<T> combine(List<Object> values) {
             ImmutableSet.Builder<T> builder = ImmutableSet.builder();
-            for (Collection<T> set : sets) {
-              builder.addAll(set);
+            for (int i = 0; i < individualCount; i++) {
+              builder.add((T) values.get(i));
+            }
+            for (int i = individualCount; i < values.size(); i++) {
+              builder.addAll((Collection<T>) values.get(i));
             }
             return builder.build();
           }
-        },
-        directExecutor());
+        });
   }
 }
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import dagger.internal.Beta;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A monitor that explains where the time of each request to a production component went. It
+ * records when every producer was requested, became ready, started, finished and completed, and
+ * once no requested producer is outstanding it combines those timings with the component's
+ * {@link ProducerGraph} into a {@link ProductionTrace}: the critical path of the request, the
+ * executor queueing delay of each producer and how much slack every other producer had.
+ *
+ * <p>To install it, contribute its factory to the component's set of
+ * {@link ProductionComponentMonitor.Factory} bindings. Every {@code @ProductionComponent} binds its
+ * own {@link ProducerGraph}, generated from its producers and those of its subcomponents:
+ *
+ * <pre><code>
+ *   {@literal @Provides @IntoSet} static ProductionComponentMonitor.Factory criticalPathMonitor(
+ *       ProducerGraph graph, ProductionTraceRecorder.Factory recorderFactory) {
+ *     return new CriticalPathProductionComponentMonitor.Factory(graph, recorderFactory);
+ *   }
+ * </code></pre>
+ *
+ * <p>Recording synchronizes on the component's monitor for every producer event, so this is meant
+ * for profiling, or for sampling a fraction of production traffic, rather than for every request.
+ */
+@Beta
+public final class CriticalPathProductionComponentMonitor extends ProductionComponentMonitor {
+  private static final Logger logger =
+      Logger.getLogger(CriticalPathProductionComponentMonitor.class.getName());
+
+  private final ProducerGraph graph;
+  private final ProductionTraceRecorder recorder;
+  private final Stopwatch stopwatch;
+  private final Object lock = new Object();
+
+  /** The producers requested since the last trace, in the order they were requested. */
+  private final List<NodeMonitor> requested = new ArrayList<>();
+
+  private int outstanding;
+
+  CriticalPathProductionComponentMonitor(
+      ProducerGraph graph, ProductionTraceRecorder recorder, Ticker ticker) {
+    this.graph = graph;
+    this.recorder = recorder;
+    this.stopwatch = Stopwatch.createStarted(ticker);
+  }
+
+  @Override
+  public ProducerMonitor producerMonitorFor(ProducerToken token) {
+    return new NodeMonitor(checkNotNull(token));
+  }
+
+  private long now() {
+    return stopwatch.elapsed(NANOSECONDS);
+  }
+
+  private final class NodeMonitor extends ProducerMonitor {
+    final ProducerToken token;
+    long requestedNanos = -1;
+    long readyNanos = -1;
+    long startedNanos = -1;
+    long finishedNanos = -1;
+    long completedNanos = -1;
+    boolean succeeded;
+
+    NodeMonitor(ProducerToken token) {
+      this.token = token;
+    }
+
+    @Override
+    public void requested() {
+      synchronized (lock) {
+        requestedNanos = now();
+        requested.add(this);
+        outstanding++;
+      }
+    }
+
+    @Override
+    public void ready() {
+      synchronized (lock) {
+        readyNanos = now();
+      }
+    }
+
+    @Override
+    public void methodStarting() {
+      synchronized (lock) {
+        startedNanos = now();
+      }
+    }
+
+    @Override
+    public void methodFinished() {
+      synchronized (lock) {
+        finishedNanos = now();
+      }
+    }
+
+    @Override
+    public void succeeded(Object value) {
+      completed(true);
+    }
+
+    @Override
+    public void failed(Throwable t) {
+      completed(false);
+    }
+
+    private void completed(boolean success) {
+      ProductionTrace trace = null;
+      synchronized (lock) {
+        completedNanos = now();
+        succeeded = success;
+        if (--outstanding == 0) {
+          trace = trace();
+        }
+      }
+      if (trace != null) {
+        record(trace);
+      }
+    }
+  }
+
+  /** Builds the trace of the producers requested since the last one and starts a new one. */
+  private ProductionTrace trace() {
+    List<NodeMonitor> nodes = new ArrayList<>(requested);
+    requested.clear();
+
+    Map<ProducerToken, NodeMonitor> nodesByToken = new HashMap<>();
+    for (NodeMonitor node : nodes) {
+      nodesByToken.put(node.token, node);
+    }
+    Map<NodeMonitor, List<NodeMonitor>> dependencies = new IdentityHashMap<>();
+    Map<NodeMonitor, List<NodeMonitor>> consumers = new IdentityHashMap<>();
+    for (NodeMonitor node : nodes) {
+      dependencies.put(node, new ArrayList<NodeMonitor>());
+      consumers.put(node, new ArrayList<NodeMonitor>());
+    }
+    for (NodeMonitor node : nodes) {
+      for (ProducerToken dependencyToken : graph.dependenciesOf(node.token)) {
+        NodeMonitor dependency = nodesByToken.get(dependencyToken);
+        if (dependency != null && dependency != node) {
+          dependencies.get(node).add(dependency);
+          consumers.get(dependency).add(node);
+        }
+      }
+    }
+
+    // The request is bounded by the producer that completed last. Walk back from it through the
+    // input that each producer was waiting for: the one that completed last, as long as that was
+    // after the producer was requested. Otherwise nothing but its requester held the producer up.
+    NodeMonitor last = nodes.get(0);
+    long start = last.requestedNanos;
+    for (NodeMonitor node : nodes) {
+      start = Math.min(start, node.requestedNanos);
+      if (node.completedNanos > last.completedNanos) {
+        last = node;
+      }
+    }
+    List<NodeMonitor> criticalNodes = new ArrayList<>();
+    Set<NodeMonitor> onCriticalPath =
+        Collections.newSetFromMap(new IdentityHashMap<NodeMonitor, Boolean>());
+    for (NodeMonitor node = last; node != null && onCriticalPath.add(node); ) {
+      criticalNodes.add(node);
+      NodeMonitor criticalInput = null;
+      for (NodeMonitor dependency : dependencies.get(node)) {
+        if (dependency.completedNanos >= node.requestedNanos
+            && (criticalInput == null
+                || dependency.completedNanos > criticalInput.completedNanos)) {
+          criticalInput = dependency;
+        }
+      }
+      node = criticalInput;
+    }
+    Collections.reverse(criticalNodes);
+
+    // A producer's slack is how much later it could have completed without delaying any consumer
+    // past the latest time that consumer could have become ready, working backwards from the end of
+    // the request. Consumers complete after their inputs, so latest completion first is a reverse
+    // topological order.
+    List<NodeMonitor> byCompletion = new ArrayList<>(nodes);
+    Collections.sort(byCompletion, LATEST_COMPLETION_FIRST);
+    Map<NodeMonitor, Long> latestReady = new IdentityHashMap<>();
+    Map<NodeMonitor, Long> slack = new IdentityHashMap<>();
+    for (NodeMonitor node : byCompletion) {
+      long latestCompletion = last.completedNanos;
+      for (NodeMonitor consumer : consumers.get(node)) {
+        Long consumerLatestReady = latestReady.get(consumer);
+        if (consumerLatestReady != null) {
+          latestCompletion = Math.min(latestCompletion, consumerLatestReady);
+        }
+      }
+      long nodeSlack = Math.max(0, latestCompletion - node.completedNanos);
+      slack.put(node, nodeSlack);
+      latestReady.put(node, readyOrRequested(node) + nodeSlack);
+    }
+
+    ImmutableList.Builder<ProductionTrace.Node> traceNodes = ImmutableList.builder();
+    Map<NodeMonitor, ProductionTrace.Node> traceNodesByMonitor = new IdentityHashMap<>();
+    for (NodeMonitor node : nodes) {
+      boolean critical = onCriticalPath.contains(node);
+      ProductionTrace.Node traceNode =
+          new ProductionTrace.Node(
+              node.token,
+              node.requestedNanos,
+              readyOrRequested(node),
+              node.startedNanos,
+              node.finishedNanos,
+              node.completedNanos,
+              node.succeeded,
+              critical ? 0 : slack.get(node),
+              critical);
+      traceNodes.add(traceNode);
+      traceNodesByMonitor.put(node, traceNode);
+    }
+    ImmutableList.Builder<ProductionTrace.Node> criticalPath = ImmutableList.builder();
+    for (NodeMonitor node : criticalNodes) {
+      criticalPath.add(traceNodesByMonitor.get(node));
+    }
+    return new ProductionTrace(
+        last.completedNanos - start, traceNodes.build(), criticalPath.build());
+  }
+
+  /** Producers whose input failed may complete without ever being reported as ready. */
+  private static long readyOrRequested(NodeMonitor node) {
+    return node.readyNanos >= 0 ? node.readyNanos : node.requestedNanos;
+  }
+
+  private static final Comparator<NodeMonitor> LATEST_COMPLETION_FIRST =
+      new Comparator<NodeMonitor>() {
+        @Override
+        public int compare(NodeMonitor left, NodeMonitor right) {
+          return Long.compare(right.completedNanos, left.completedNanos);
+        }
+      };
+
+  private void record(ProductionTrace trace) {
+    try {
+      recorder.recordTrace(trace);
+    } catch (RuntimeException e) {
+      logger.log(
+          Level.SEVERE,
+          "RuntimeException while calling ProductionTraceRecorder.recordTrace on recorder "
+              + recorder,
+          e);
+    }
+  }
+
+  public static final class Factory extends ProductionComponentMonitor.Factory {
+    private final ProducerGraph graph;
+    private final ProductionTraceRecorder.Factory recorderFactory;
+    private final Ticker ticker;
+
+    public Factory(ProducerGraph graph, ProductionTraceRecorder.Factory recorderFactory) {
+      this(graph, recorderFactory, Ticker.systemTicker());
+    }
+
+    Factory(ProducerGraph graph, ProductionTraceRecorder.Factory recorderFactory, Ticker ticker) {
+      this.graph = checkNotNull(graph);
+      this.recorderFactory = checkNotNull(recorderFactory);
+      this.ticker = checkNotNull(ticker);
+    }
+
+    @Override
+    public ProductionComponentMonitor create(Object component) {
+      return new CriticalPathProductionComponentMonitor(
+          graph, recorderFactory.create(component), ticker);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import dagger.internal.Beta;
+import dagger.producers.Produces;
+
+/**
+ * The dependencies between the {@linkplain Produces producer methods} of a production component,
+ * identified by their {@link ProducerToken}s. A {@link CriticalPathProductionComponentMonitor}
+ * uses this to tell which of a producer's inputs it actually waited for.
+ *
+ * <p>Dagger generates and binds the graph of every {@code @ProductionComponent}. A production
+ * subcomponent installed in a provision component has no generated graph, since it is only known
+ * when its parent is compiled; its monitors must be given a graph built with {@link #builder()},
+ * in which only the dependencies between producers matter and provisions can be left out.
+ */
+@Beta
+public final class ProducerGraph {
+  private final ImmutableSetMultimap<ProducerToken, ProducerToken> dependencies;
+
+  private ProducerGraph(ImmutableSetMultimap<ProducerToken, ProducerToken> dependencies) {
+    this.dependencies = dependencies;
+  }
+
+  /** Returns the producers that {@code producer} depends on. */
+  ImmutableSet<ProducerToken> dependenciesOf(ProducerToken producer) {
+    return dependencies.get(producer);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** A builder for {@link ProducerGraph}s. */
+  public static final class Builder {
+    private final ImmutableSetMultimap.Builder<ProducerToken, ProducerToken> dependencies =
+        ImmutableSetMultimap.builder();
+
+    private Builder() {}
+
+    /** Records that {@code producer} takes the output of {@code dependency} as an input. */
+    public Builder addDependency(ProducerToken producer, ProducerToken dependency) {
+      dependencies.put(checkNotNull(producer), checkNotNull(dependency));
+      return this;
+    }
+
+    public ProducerGraph build() {
+      return new ProducerGraph(dependencies.build());
+    }
+  }
+}
@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Producer;
 import dagger.producers.Produces;
+import java.util.concurrent.CancellationException;
 
 /**
  * A hook for monitoring the execution of individual {@linkplain Produces producer methods}. See
@@ -51,6 +52,12 @@ import dagger.producers.Produces;
  * immediately with the failed input's exception. If more than one input fails, an arbitrary failed
  * input's exception is used.
  *
+ * <p>If the producer's future is cancelled, {@link #cancelled()} is called instead of {@link
+ * #succeeded(Object)} or {@link #failed(Throwable)}. A producer is cancelled once every consumer
+ * that requested it has been cancelled, for example when the future returned by an entry point is
+ * cancelled. If that happens before its inputs are available, {@link #ready()}, {@link
+ * #methodStarting()} and {@link #methodFinished()} are never called, and the method is skipped.
+ *
  * <p>For example, given an entry point A that depends on B, which depends on C, when the entry
  * point A is called, this will trigger the following sequence of events, assuming all methods and
  * futures complete successfully:
@@ -157,11 +164,26 @@ public abstract class ProducerMonitor {
    */
   public void failed(@SuppressWarnings("unused") Throwable t) {}
 
+  /**
+   * Called when the producer's future has been cancelled, either because everything that requested
+   * it was cancelled or because an input was cancelled. If the method had not started yet, it will
+   * not be run.
+   *
+   * <p>When multiple monitors are installed, calls to this method will be in the reverse order from
+   * calls to {@link #requested()}.
+   *
+   * <p>This implementation calls {@link #failed(Throwable)} with a {@link CancellationException},
+   * which is how cancellation was reported before this method existed.
+   */
+  public void cancelled() {
+    failed(new CancellationException());
+  }
+
   /**
    * Adds this monitor's completion methods as a callback to the future. This is only intended to be
    * overridden in the framework!
    */
-  public <T> void addCallbackTo(ListenableFuture<T> future) {
+  public <T> void addCallbackTo(final ListenableFuture<T> future) {
     addCallback(
         future,
         new FutureCallback<T>() {
@@ -172,7 +194,11 @@ public abstract class ProducerMonitor {
 
           @Override
           public void onFailure(Throwable t) {
-            failed(t);
+            if (t instanceof CancellationException && future.isCancelled()) {
+              cancelled();
+            } else {
+              failed(t);
+            }
           }
         },
         directExecutor());
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import com.google.common.collect.ImmutableList;
+import dagger.internal.Beta;
+import dagger.producers.Produces;
+import dagger.producers.ProductionComponent;
+
+/**
+ * What happened to each {@linkplain Produces producer} during one request to a
+ * {@linkplain ProductionComponent production component}, and which of them bounded the request's
+ * latency. Traces are created by {@link CriticalPathProductionComponentMonitor}.
+ *
+ * <p>All times are wall-clock nanoseconds measured from when the component was created.
+ */
+@Beta
+public final class ProductionTrace {
+  /** The timings of a single producer. */
+  public static final class Node {
+    private final ProducerToken token;
+    private final long requestedNanos;
+    private final long readyNanos;
+    private final long startedNanos;
+    private final long finishedNanos;
+    private final long completedNanos;
+    private final boolean succeeded;
+    private final long slackNanos;
+    private final boolean onCriticalPath;
+
+    Node(
+        ProducerToken token,
+        long requestedNanos,
+        long readyNanos,
+        long startedNanos,
+        long finishedNanos,
+        long completedNanos,
+        boolean succeeded,
+        long slackNanos,
+        boolean onCriticalPath) {
+      this.token = token;
+      this.requestedNanos = requestedNanos;
+      this.readyNanos = readyNanos;
+      this.startedNanos = startedNanos;
+      this.finishedNanos = finishedNanos;
+      this.completedNanos = completedNanos;
+      this.succeeded = succeeded;
+      this.slackNanos = slackNanos;
+      this.onCriticalPath = onCriticalPath;
+    }
+
+    public ProducerToken token() {
+      return token;
+    }
+
+    /** When the producer's output was first requested. */
+    public long requestedNanos() {
+      return requestedNanos;
+    }
+
+    /** When all of the producer's inputs were available. */
+    public long readyNanos() {
+      return readyNanos;
+    }
+
+    /** Whether the producer method ran; it does not if one of its inputs failed. */
+    public boolean ran() {
+      return startedNanos >= 0;
+    }
+
+    /** When the producer method started, or -1 if it did not {@linkplain #ran() run}. */
+    public long startedNanos() {
+      return startedNanos;
+    }
+
+    /** When the producer method returned, or -1 if it did not {@linkplain #ran() run}. */
+    public long finishedNanos() {
+      return finishedNanos;
+    }
+
+    /** When the producer's future completed. */
+    public long completedNanos() {
+      return completedNanos;
+    }
+
+    /** Whether the producer's future succeeded. */
+    public boolean succeeded() {
+      return succeeded;
+    }
+
+    /** How long the method waited on the executor after its inputs were ready. */
+    public long queueingNanos() {
+      return ran() ? startedNanos - readyNanos : 0;
+    }
+
+    /** How long the producer method itself ran. */
+    public long methodNanos() {
+      return ran() ? finishedNanos - startedNanos : 0;
+    }
+
+    /** How long the future returned by the producer method took to complete after it returned. */
+    public long asyncNanos() {
+      return ran() ? completedNanos - finishedNanos : 0;
+    }
+
+    /**
+     * How much later this producer could have completed without delaying the request, given the
+     * other producers' timings.
+     */
+    public long slackNanos() {
+      return slackNanos;
+    }
+
+    /** Whether this producer is on the request's {@linkplain #criticalPath() critical path}. */
+    public boolean isOnCriticalPath() {
+      return onCriticalPath;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder().append(token);
+      if (ran()) {
+        builder
+            .append(" (queued ")
+            .append(queueingNanos())
+            .append("ns, ran ")
+            .append(methodNanos())
+            .append("ns, async ")
+            .append(asyncNanos())
+            .append("ns)");
+      } else {
+        builder.append(" (skipped)");
+      }
+      return builder.toString();
+    }
+  }
+
+  private final long durationNanos;
+  private final ImmutableList<Node> nodes;
+  private final ImmutableList<Node> criticalPath;
+
+  ProductionTrace(long durationNanos, ImmutableList<Node> nodes, ImmutableList<Node> criticalPath) {
+    this.durationNanos = durationNanos;
+    this.nodes = nodes;
+    this.criticalPath = criticalPath;
+  }
+
+  /** The time from the first producer being requested to the last one completing. */
+  public long durationNanos() {
+    return durationNanos;
+  }
+
+  /** All producers that were requested, in the order they were requested. */
+  public ImmutableList<Node> nodes() {
+    return nodes;
+  }
+
+  /**
+   * The chain of producers that bounded the request, from the first to the producer that completed
+   * last. Each producer on it was waiting for the one before it: that producer was the last of its
+   * inputs to complete. Speeding up a producer that is not on this path does not make the request
+   * faster.
+   */
+  public ImmutableList<Node> criticalPath() {
+    return criticalPath;
+  }
+
+  /** Returns a one-line summary of the critical path and of the producers that had slack. */
+  @Override
+  public String toString() {
+    StringBuilder builder =
+        new StringBuilder().append(durationNanos).append("ns; critical path: ");
+    String separator = "";
+    for (Node node : criticalPath) {
+      builder.append(separator).append(node);
+      separator = " -> ";
+    }
+    builder.append("; slack:");
+    for (Node node : nodes) {
+      if (!node.isOnCriticalPath()) {
+        builder.append(' ').append(node.token()).append('=').append(node.slackNanos()).append("ns");
+      }
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import dagger.producers.ProductionComponent;
+
+/**
+ * A hook for recording the {@link ProductionTrace}s of a
+ * {@linkplain ProductionComponent production component}. See
+ * {@link CriticalPathProductionComponentMonitor} for how to install one.
+ *
+ * <p>If any of these methods throw, then the exception will be logged and processing will continue
+ * unaffected.
+ */
+public interface ProductionTraceRecorder {
+  /** Records the trace of one request to the component. */
+  void recordTrace(ProductionTrace trace);
+
+  public interface Factory {
+    /** Creates a component-specific trace recorder when the component is created. */
+    ProductionTraceRecorder create(Object component);
+  }
+}
@@ -181,6 +181,15 @@ public final class Monitors {
         logProducerMonitorArgMethodException(e, delegate, "failed", t);
       }
     }
+
+    @Override
+    public void cancelled() {
+      try {
+        delegate.cancelled();
+      } catch (RuntimeException e) {
+        logProducerMonitorMethodException(e, delegate, "cancelled");
+      }
+    }
   }
 
   /**
@@ -326,6 +335,17 @@ public final class Monitors {
         }
       }
     }
+
+    @Override
+    public void cancelled() {
+      for (ProducerMonitor delegate : delegates.reverse()) {
+        try {
+          delegate.cancelled();
+        } catch (RuntimeException e) {
+          logProducerMonitorMethodException(e, delegate, "cancelled");
+        }
+      }
+    }
   }
 
   /** Returns a provider of a no-op component monitor. */
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.testsources;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The resource through which debug builds hand the sources of their generated test classes to the
+ * test compilation. {@code dagger.internal.codegen.TestRegistry} writes it next to {@code
+ * dagger.TestTrigger}, and {@code dagger.decoder.DecodingProcessor} reads it back. Only the
+ * processors use it, so it is not part of the runtime.
+ *
+ * <p>The resource is deflate-compressed. It holds {@link #MAGIC}, the number of sources and then,
+ * for each source, its qualified name in modified UTF-8 followed by the length-prefixed bytes of
+ * the file.
+ */
+public final class TestSources {
+  /** The package of the resource. */
+  public static final String PACKAGE = "dagger";
+
+  /** The name of the resource, relative to {@link #PACKAGE}. */
+  public static final String RESOURCE = "TestTrigger.sources";
+
+  /** Identifies the format; change it whenever the layout changes. */
+  static final int MAGIC = 0xDA66E701;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /** Opens the stream to which {@link #read} copies each source. */
+  public interface Sink {
+    OutputStream open(String qualifiedName) throws IOException;
+  }
+
+  /**
+   * Writes {@code sources}, keyed by qualified name, to {@code outputStream}. Does not close {@code
+   * outputStream}.
+   */
+  public static void write(Map<String, byte[]> sources, OutputStream outputStream)
+      throws IOException {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    try {
+      DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outputStream, deflater);
+      DataOutputStream out = new DataOutputStream(deflaterStream);
+      out.writeInt(MAGIC);
+      out.writeInt(sources.size());
+      for (Map.Entry<String, byte[]> source : sources.entrySet()) {
+        out.writeUTF(source.getKey());
+        out.writeInt(source.getValue().length);
+        out.write(source.getValue());
+      }
+      out.flush();
+      deflaterStream.finish();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Reads the sources written by {@link #write} from {@code inputStream}, streaming each one into
+   * the stream that {@code sink} opens for it through a fixed buffer. Closes {@code inputStream}
+   * and every stream that {@code sink} opens.
+   *
+   * @throws IOException if {@code inputStream} does not hold sources in this format, or ends early
+   */
+  public static void read(InputStream inputStream, Sink sink) throws IOException {
+    try (DataInputStream in = new DataInputStream(new InflaterInputStream(inputStream))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Unsupported format of " + PACKAGE + "/" + RESOURCE);
+      }
+      byte[] buffer = new byte[BUFFER_SIZE];
+      for (int count = in.readInt(); count > 0; count--) {
+        String qualifiedName = in.readUTF();
+        int remaining = in.readInt();
+        try (OutputStream out = sink.open(qualifiedName)) {
+          while (remaining > 0) {
+            int read = in.read(buffer, 0, Math.min(buffer.length, remaining));
+            if (read < 0) {
+              throw new IOException("Truncated source for " + qualifiedName);
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+          }
+        }
+      }
+    }
+  }
+
+  private TestSources() {}
+}